@@ -0,0 +1,31 @@
+package io.github.bluething.myboostposystem.common;
+
+import java.util.Locale;
+
+/**
+ * How a paginated list computes its total.
+ * EXACT runs count(*), NONE only reports whether a next page exists,
+ * ESTIMATED reads the planner row estimate from pg_class instead of counting.
+ */
+public enum CountMode {
+    EXACT,
+    NONE,
+    ESTIMATED;
+
+    /**
+     * Parses a request parameter value, case-insensitive
+     * @param value parameter value, e.g. "none"
+     * @return matching mode, EXACT when value is blank
+     * @throws IllegalArgumentException if value is not a known mode
+     */
+    public static CountMode from(String value) {
+        if (value == null || value.isBlank()) {
+            return EXACT;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid count mode '" + value + "'. Expected one of: exact, none, estimated");
+        }
+    }
+}
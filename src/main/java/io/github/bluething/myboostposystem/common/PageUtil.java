@@ -0,0 +1,35 @@
+package io.github.bluething.myboostposystem.common;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Helpers for building pages without running count(*)
+ */
+public final class PageUtil {
+
+    private PageUtil() {
+    }
+
+    /**
+     * Turns a slice into a page whose total comes from a row estimate.
+     * The slice already knows whether a next page exists, so the last page gets an exact total
+     * and other pages never report fewer rows than the slice has proven to exist.
+     * @param slice page content fetched without a count query
+     * @param estimate estimated row count, negative or null when the table was never analyzed
+     * @param exactCount fallback used when no estimate is available
+     * @return page with estimated total
+     */
+    public static <T> Page<T> withEstimatedTotal(Slice<T> slice, Long estimate, LongSupplier exactCount) {
+        long seen = slice.getPageable().getOffset() + slice.getNumberOfElements();
+        if (!slice.hasNext()) {
+            return new PageImpl<>(slice.getContent(), slice.getPageable(), seen);
+        }
+
+        long total = estimate == null || estimate < 0 ? exactCount.getAsLong() : estimate;
+        return new PageImpl<>(slice.getContent(), slice.getPageable(), Math.max(total, seen + 1));
+    }
+}
@@ -0,0 +1,397 @@
+package io.github.bluething.myboostposystem.common;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Two-tier cache keyed by entity id: a bounded in-process L1 in front of Redis (L2).
+ * <p>
+ * L1 entries older than {@code localRefreshAfter} are still served while a single background
+ * reload revalidates them, and are dropped once older than {@code localTtl}. Writes evict both
+ * tiers after commit and publish {@code <name>:<id>} on {@link #INVALIDATION_CHANNEL} so every
+ * node drops its L1 copy. Redis failures are logged and treated as an L2 miss.
+ * <p>
+ * Eviction leaves a short-lived tombstone in L2 instead of deleting the key, and values are only
+ * written to L2 when the key is absent. A node that loaded the pre-commit row before the invalidation
+ * reached it then cannot put that row back into L2 for the full TTL, as long as its load finishes
+ * within {@code tombstoneTtl}.
+ */
+@Slf4j
+public class TwoTierCache<V> {
+    public static final String INVALIDATION_CHANNEL = "cache:invalidation";
+    private static final int BULK_EVICTION_CHUNK = 1000;
+    // Never valid JSON, so it cannot be mistaken for a cached value
+    private static final String TOMBSTONE = "";
+
+    private final String name;
+    private final Class<V> type;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Executor refreshExecutor;
+    private final Ticker ticker;
+    private final Duration ttl;
+    private final Duration tombstoneTtl;
+    private final long refreshAfterNanos;
+    private final Cache<Integer, Entry<V>> local;
+    private final Set<Integer> refreshing = ConcurrentHashMap.newKeySet();
+    // Bumped on every invalidation so a load that raced with a write does not repopulate stale data
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final Counter localHits;
+    private final Counter localMisses;
+    private final Counter remoteHits;
+    private final Counter remoteMisses;
+
+    public TwoTierCache(String name, Class<V> type, Settings settings,
+                        StringRedisTemplate redisTemplate, ObjectMapper objectMapper,
+                        MeterRegistry meterRegistry, Executor refreshExecutor) {
+        this(name, type, settings, redisTemplate, objectMapper, meterRegistry, refreshExecutor, Ticker.systemTicker());
+    }
+
+    TwoTierCache(String name, Class<V> type, Settings settings,
+                 StringRedisTemplate redisTemplate, ObjectMapper objectMapper,
+                 MeterRegistry meterRegistry, Executor refreshExecutor, Ticker ticker) {
+        this.name = name;
+        this.type = type;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.refreshExecutor = refreshExecutor;
+        this.ticker = ticker;
+        this.ttl = settings.ttl();
+        this.tombstoneTtl = settings.tombstoneTtl();
+        this.refreshAfterNanos = settings.localRefreshAfter().toNanos();
+        this.local = Caffeine.newBuilder()
+                .maximumSize(settings.localMaxSize())
+                .expireAfterWrite(settings.localTtl())
+                .ticker(ticker)
+                .build();
+
+        this.localHits = counter(meterRegistry, "l1", "hit");
+        this.localMisses = counter(meterRegistry, "l1", "miss");
+        this.remoteHits = counter(meterRegistry, "l2", "hit");
+        this.remoteMisses = counter(meterRegistry, "l2", "miss");
+        Gauge.builder("cache.size", local, Cache::estimatedSize)
+                .tag("cache", name)
+                .tag("tier", "l1")
+                .register(meterRegistry);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the cached value, reading L1, then L2, then the given loader.
+     * A stale L1 hit is returned as is and refreshed in the background.
+     */
+    public Optional<V> get(Integer id, Function<Integer, Optional<V>> loader) {
+        Entry<V> entry = local.getIfPresent(id);
+        if (entry != null) {
+            localHits.increment();
+            if (ticker.read() - entry.loadedAt() > refreshAfterNanos) {
+                refreshAsync(id, loader);
+            }
+            return Optional.of(entry.value());
+        }
+
+        localMisses.increment();
+        return loadThrough(id, loader);
+    }
+
+    /**
+     * Bulk variant of {@link #get(Integer, Function)}. L1 misses are read from L2 with one MGET and
+     * whatever is still missing is passed to the loader in a single call, then written back pipelined.
+     *
+     * @param loader loads the given ids, leaving out the ones that do not exist
+     * @return the values found, keyed by id
+     */
+    public Map<Integer, V> getAll(Collection<Integer> ids, Function<Collection<Integer>, Map<Integer, V>> loader) {
+        Map<Integer, V> found = HashMap.newHashMap(ids.size());
+        List<Integer> localMissing = new ArrayList<>();
+        for (Integer id : ids) {
+            Entry<V> entry = local.getIfPresent(id);
+            if (entry == null) {
+                localMissing.add(id);
+                continue;
+            }
+            found.put(id, entry.value());
+            if (ticker.read() - entry.loadedAt() > refreshAfterNanos) {
+                refreshAsync(id, key -> Optional.ofNullable(loader.apply(List.of(key)).get(key)));
+            }
+        }
+        localHits.increment(found.size());
+        localMisses.increment(localMissing.size());
+        if (localMissing.isEmpty()) {
+            return found;
+        }
+
+        long generation = invalidations.get();
+        Map<Integer, V> remote = readRemote(localMissing);
+        remoteHits.increment(remote.size());
+        List<Integer> remoteMissing = localMissing.stream().filter(id -> !remote.containsKey(id)).toList();
+        remoteMisses.increment(remoteMissing.size());
+
+        Map<Integer, V> loaded = remoteMissing.isEmpty() ? Map.of() : loader.apply(remoteMissing);
+        if (!loaded.isEmpty() && generation == invalidations.get()) {
+            writeRemote(loaded);
+        }
+
+        found.putAll(remote);
+        found.putAll(loaded);
+        if (generation == invalidations.get()) {
+            long now = ticker.read();
+            remote.forEach((id, value) -> local.put(id, new Entry<>(value, now)));
+            loaded.forEach((id, value) -> local.put(id, new Entry<>(value, now)));
+        }
+        return found;
+    }
+
+    /**
+     * Evicts both tiers and notifies other nodes once the surrounding transaction commits,
+     * so a concurrent read cannot repopulate the cache with the pre-commit row.
+     * Evicts immediately when no transaction is active.
+     */
+    public void evictAfterCommit(Integer id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(id);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(id);
+            }
+        });
+    }
+
+    /**
+     * Bulk variant of {@link #evictAfterCommit(Integer)} for writes touching many ids at once.
+     * Deletes and invalidation messages are sent in pipelined chunks instead of one round trip per id.
+     */
+    public void evictAllAfterCommit(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Integer> evicted = List.copyOf(ids);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictAll(evicted);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictAll(evicted);
+            }
+        });
+    }
+
+    private void evictAll(List<Integer> ids) {
+        ids.forEach(this::invalidateLocal);
+        for (int from = 0; from < ids.size(); from += BULK_EVICTION_CHUNK) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + BULK_EVICTION_CHUNK, ids.size()));
+            try {
+                redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    byte[] channel = INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8);
+                    byte[] tombstone = TOMBSTONE.getBytes(StandardCharsets.UTF_8);
+                    for (Integer id : chunk) {
+                        byte[] key = key(id).getBytes(StandardCharsets.UTF_8);
+                        connection.stringCommands().set(key, tombstone, Expiration.from(tombstoneTtl), SetOption.upsert());
+                        connection.publish(channel, key);
+                    }
+                    return null;
+                });
+            } catch (DataAccessException e) {
+                log.warn("Cache {} bulk eviction failed for {} ids", name, chunk.size(), e);
+            }
+        }
+    }
+
+    public void evict(Integer id) {
+        invalidateLocal(id);
+        try {
+            redisTemplate.opsForValue().set(key(id), TOMBSTONE, tombstoneTtl);
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, name + ":" + id);
+        } catch (DataAccessException e) {
+            log.warn("Cache {} eviction failed for id: {}", name, id, e);
+        }
+    }
+
+    /**
+     * Drops the L1 copy only, used when another node reports a write.
+     */
+    public void invalidateLocal(Integer id) {
+        invalidations.incrementAndGet();
+        local.invalidate(id);
+    }
+
+    private Optional<V> loadThrough(Integer id, Function<Integer, Optional<V>> loader) {
+        long generation = invalidations.get();
+
+        Optional<V> value = readRemote(id);
+        if (value.isPresent()) {
+            remoteHits.increment();
+        } else {
+            remoteMisses.increment();
+            value = loader.apply(id);
+            if (value.isPresent() && generation == invalidations.get()) {
+                writeRemote(id, value.get());
+            }
+        }
+
+        if (value.isEmpty()) {
+            local.invalidate(id);
+        } else if (generation == invalidations.get()) {
+            local.put(id, new Entry<>(value.get(), ticker.read()));
+        }
+        return value;
+    }
+
+    private void refreshAsync(Integer id, Function<Integer, Optional<V>> loader) {
+        if (!refreshing.add(id)) {
+            return;
+        }
+
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    loadThrough(id, loader);
+                } catch (RuntimeException e) {
+                    log.warn("Cache {} refresh failed for id: {}", name, id, e);
+                } finally {
+                    refreshing.remove(id);
+                }
+            });
+        } catch (RuntimeException e) {
+            refreshing.remove(id);
+            log.warn("Cache {} refresh rejected for id: {}", name, id, e);
+        }
+    }
+
+    private Optional<V> readRemote(Integer id) {
+        String json;
+        try {
+            json = redisTemplate.opsForValue().get(key(id));
+        } catch (DataAccessException e) {
+            log.warn("Cache {} read failed for id: {}", name, id, e);
+            return Optional.empty();
+        }
+
+        if (json == null || json.equals(TOMBSTONE)) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(objectMapper.readValue(json, type));
+        } catch (JsonProcessingException e) {
+            // Entry written by an incompatible version, drop it and reload
+            log.warn("Discarding unreadable cache {} entry for id: {}", name, id, e);
+            redisTemplate.delete(key(id));
+            return Optional.empty();
+        }
+    }
+
+    private Map<Integer, V> readRemote(List<Integer> ids) {
+        List<String> values;
+        try {
+            values = redisTemplate.opsForValue().multiGet(ids.stream().map(this::key).toList());
+        } catch (DataAccessException e) {
+            log.warn("Cache {} read failed for {} ids", name, ids.size(), e);
+            return Map.of();
+        }
+
+        Map<Integer, V> found = new HashMap<>();
+        for (int index = 0; values != null && index < ids.size(); index++) {
+            String json = values.get(index);
+            if (json == null || json.equals(TOMBSTONE)) {
+                continue;
+            }
+            try {
+                found.put(ids.get(index), objectMapper.readValue(json, type));
+            } catch (JsonProcessingException e) {
+                // Entry written by an incompatible version, the loader replaces it
+                log.warn("Discarding unreadable cache {} entry for id: {}", name, ids.get(index), e);
+            }
+        }
+        return found;
+    }
+
+    private void writeRemote(Map<Integer, V> values) {
+        try {
+            Map<byte[], byte[]> entries = new HashMap<>();
+            for (Map.Entry<Integer, V> value : values.entrySet()) {
+                entries.put(key(value.getKey()).getBytes(StandardCharsets.UTF_8), objectMapper.writeValueAsBytes(value.getValue()));
+            }
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                entries.forEach((key, json) ->
+                        connection.stringCommands().set(key, json, Expiration.from(ttl), SetOption.ifAbsent()));
+                return null;
+            });
+        } catch (JsonProcessingException | DataAccessException e) {
+            log.warn("Cache {} write failed for {} ids", name, values.size(), e);
+        }
+    }
+
+    private void writeRemote(Integer id, V value) {
+        try {
+            redisTemplate.opsForValue().setIfAbsent(key(id), objectMapper.writeValueAsString(value), ttl);
+        } catch (JsonProcessingException | DataAccessException e) {
+            log.warn("Cache {} write failed for id: {}", name, id, e);
+        }
+    }
+
+    private String key(Integer id) {
+        return name + ":" + id;
+    }
+
+    private Counter counter(MeterRegistry meterRegistry, String tier, String result) {
+        return Counter.builder("cache.gets")
+                .tag("cache", name)
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param ttl               Redis entry lifetime
+     * @param localMaxSize      maximum number of L1 entries per node
+     * @param localTtl          age after which an L1 entry is dropped
+     * @param localRefreshAfter age after which an L1 hit triggers a background reload
+     * @param tombstoneTtl      how long an evicted key refuses L2 writes, longer than any load should take
+     */
+    public record Settings(Duration ttl, long localMaxSize, Duration localTtl, Duration localRefreshAfter,
+                           Duration tombstoneTtl) {
+    }
+
+    private record Entry<V>(V value, long loadedAt) {
+    }
+}
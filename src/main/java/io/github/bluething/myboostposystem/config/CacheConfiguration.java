@@ -0,0 +1,49 @@
+package io.github.bluething.myboostposystem.config;
+
+import io.github.bluething.myboostposystem.common.TwoTierCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Configuration
+@Slf4j
+class CacheConfiguration {
+
+    /**
+     * Subscribes to cache invalidations published by any node and drops the matching L1 entries
+     */
+    @Bean
+    RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                     List<TwoTierCache<?>> caches) {
+        Map<String, TwoTierCache<?>> cachesByName = caches.stream()
+                .collect(Collectors.toMap(TwoTierCache::getName, Function.identity()));
+
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> {
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            int separator = body.lastIndexOf(':');
+            TwoTierCache<?> cache = separator > 0 ? cachesByName.get(body.substring(0, separator)) : null;
+            if (cache == null) {
+                log.debug("Ignoring invalidation for unknown cache: {}", body);
+                return;
+            }
+
+            try {
+                cache.invalidateLocal(Integer.valueOf(body.substring(separator + 1)));
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring malformed cache invalidation: {}", body);
+            }
+        }, new ChannelTopic(TwoTierCache.INVALIDATION_CHANNEL));
+        return container;
+    }
+}
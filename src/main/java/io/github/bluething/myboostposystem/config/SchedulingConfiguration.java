@@ -0,0 +1,9 @@
+package io.github.bluething.myboostposystem.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+class SchedulingConfiguration {
+}
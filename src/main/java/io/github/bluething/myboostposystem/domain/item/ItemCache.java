@@ -0,0 +1,44 @@
+package io.github.bluething.myboostposystem.domain.item;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.bluething.myboostposystem.common.TwoTierCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+/**
+ * Near cache of {@link ItemData} keyed by item id.
+ * Every invalidation also marks the item changed in the {@link ItemCatalog}, on this node and on the others.
+ */
+@Component
+class ItemCache extends TwoTierCache<ItemData> {
+    static final String CACHE_NAME = "item";
+
+    private final ItemCatalog itemCatalog;
+
+    ItemCache(ItemCatalog itemCatalog,
+              StringRedisTemplate redisTemplate,
+              ObjectMapper objectMapper,
+              MeterRegistry meterRegistry,
+              @Qualifier("applicationTaskExecutor") Executor refreshExecutor,
+              @Value("${app.cache.item.ttl:10m}") Duration ttl,
+              @Value("${app.cache.item.local.max-size:10000}") long localMaxSize,
+              @Value("${app.cache.item.local.ttl:5m}") Duration localTtl,
+              @Value("${app.cache.item.local.refresh-after:30s}") Duration localRefreshAfter,
+              @Value("${app.cache.item.tombstone-ttl:10s}") Duration tombstoneTtl) {
+        super(CACHE_NAME, ItemData.class, new Settings(ttl, localMaxSize, localTtl, localRefreshAfter, tombstoneTtl),
+                redisTemplate, objectMapper, meterRegistry, refreshExecutor);
+        this.itemCatalog = itemCatalog;
+    }
+
+    @Override
+    public void invalidateLocal(Integer id) {
+        super.invalidateLocal(id);
+        itemCatalog.markChanged(id);
+    }
+}
@@ -0,0 +1,234 @@
+package io.github.bluething.myboostposystem.domain.item;
+
+import io.github.bluething.myboostposystem.persistence.ItemCatalogRow;
+import io.github.bluething.myboostposystem.persistence.ItemReference;
+import io.github.bluething.myboostposystem.persistence.ItemRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory copy of the whole item catalog, held as an {@link ItemCatalogSnapshot}.
+ * <p>
+ * The snapshot is loaded in full on startup and then refreshed incrementally from the items updated
+ * since its watermark, with a full reload now and then to drop anything the increments cannot see.
+ * Items invalidated through {@link ItemCache}, on this node or on another, are marked changed and
+ * answered from the database until a refresh has read them again, so a write is never hidden by the
+ * snapshot taken before it. Ids missing from the snapshot, such as items created since, are read directly.
+ */
+@Component
+@Slf4j
+class ItemCatalog implements ItemReferenceCache {
+    private static final int ID_CHUNK = 1000;
+
+    private final ItemRepository itemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long fullReloadNanos;
+    private final Duration refreshOverlap;
+    // Changed item ids, with the sequence of their latest change
+    private final Map<Integer, Long> changed = new ConcurrentHashMap<>();
+    private final AtomicLong changeSequence = new AtomicLong();
+    private final Counter fullLoads;
+    private final Counter incrementalLoads;
+
+    private volatile ItemCatalogSnapshot snapshot;
+    private long fullLoadedAt;
+    // Not a synchronized method, a virtual scheduler thread would pin its carrier for the whole streaming reload
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    ItemCatalog(ItemRepository itemRepository,
+                TransactionTemplate transactionTemplate,
+                MeterRegistry meterRegistry,
+                @Value("${app.cache.item.catalog.full-reload-interval:1h}") Duration fullReloadInterval,
+                @Value("${app.cache.item.catalog.refresh-overlap:1m}") Duration refreshOverlap) {
+        this.itemRepository = itemRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.fullReloadNanos = fullReloadInterval.toNanos();
+        this.refreshOverlap = refreshOverlap;
+        this.fullLoads = meterRegistry.counter("item.catalog.snapshot.loads", "type", "full");
+        this.incrementalLoads = meterRegistry.counter("item.catalog.snapshot.loads", "type", "incremental");
+        Gauge.builder("item.catalog.snapshot.size", this, catalog -> {
+                    ItemCatalogSnapshot current = catalog.snapshot;
+                    return current != null ? current.size() : 0;
+                })
+                .register(meterRegistry);
+        Gauge.builder("item.catalog.snapshot.text.bytes", this, catalog -> {
+                    ItemCatalogSnapshot current = catalog.snapshot;
+                    return current != null ? current.textBytes() : 0;
+                })
+                .register(meterRegistry);
+    }
+
+    /**
+     * Get an item from the snapshot
+     * @param id the item id
+     * @return the item, or empty when the snapshot cannot answer for it: not loaded yet, item changed
+     * since the last refresh, created since, or not existing at all
+     */
+    Optional<ItemData> findById(Integer id) {
+        ItemCatalogSnapshot current = snapshot;
+        int index = indexOf(current, id);
+        return index >= 0 ? Optional.of(current.toItemData(index)) : Optional.empty();
+    }
+
+    /**
+     * Get many items from the snapshot
+     * @param ids the item ids
+     * @return the items the snapshot can answer for, keyed by id, see {@link #findById(Integer)} for the others
+     */
+    Map<Integer, ItemData> findItems(Collection<Integer> ids) {
+        ItemCatalogSnapshot current = snapshot;
+
+        Map<Integer, ItemData> found = HashMap.newHashMap(ids.size());
+        for (Integer id : ids) {
+            int index = indexOf(current, id);
+            if (index >= 0) {
+                found.put(id, current.toItemData(index));
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public Map<Integer, ItemReference> findAllById(Collection<Integer> ids) {
+        ItemCatalogSnapshot current = snapshot;
+
+        Map<Integer, ItemReference> found = HashMap.newHashMap(ids.size());
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : ids) {
+            int index = indexOf(current, id);
+            if (index >= 0) {
+                found.put(id, current.toReference(index));
+            } else {
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            itemRepository.findReferencesByIdIn(missing).forEach(item -> found.put(item.id(), item));
+        }
+        return found;
+    }
+
+    /**
+     * Stops serving the item from the snapshot until the next refresh has read it again
+     */
+    void markChanged(Integer id) {
+        changed.put(id, changeSequence.incrementAndGet());
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.cache.item.catalog.refresh-interval:30s}")
+    void refresh() {
+        refreshLock.lock();
+        try {
+            refreshSnapshot();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private void refreshSnapshot() {
+        ItemCatalogSnapshot current = snapshot;
+        // Taken before reading, so changes made while the refresh runs stay marked
+        Map<Integer, Long> pending = Map.copyOf(changed);
+
+        if (current == null || System.nanoTime() - fullLoadedAt >= fullReloadNanos) {
+            long started = System.nanoTime();
+            snapshot = loadAll(current);
+            fullLoadedAt = started;
+            fullLoads.increment();
+        } else {
+            ItemCatalogSnapshot refreshed = loadChanges(current, pending.keySet());
+            if (refreshed != current) {
+                snapshot = refreshed;
+                incrementalLoads.increment();
+            }
+        }
+        pending.forEach(changed::remove);
+    }
+
+    private ItemCatalogSnapshot loadAll(ItemCatalogSnapshot previous) {
+        ItemCatalogSnapshot loaded = transactionTemplate.execute(status -> {
+            try (Stream<ItemCatalogRow> rows = itemRepository.streamCatalog()) {
+                // Sized after the previous snapshot to avoid growing the columns on every reload
+                ItemCatalogSnapshot.Builder builder = previous != null
+                        ? ItemCatalogSnapshot.builder(previous.size(), previous.textBytes())
+                        : ItemCatalogSnapshot.builder(0, 0);
+                rows.forEach(builder::add);
+                return builder.build();
+            }
+        });
+        log.info("Loaded item catalog snapshot with {} items, {} bytes of text", loaded.size(), loaded.textBytes());
+        return loaded;
+    }
+
+    private ItemCatalogSnapshot loadChanges(ItemCatalogSnapshot current, Collection<Integer> changedIds) {
+        // Keyed by id, a changed item may also be among the recently updated ones
+        Map<Integer, ItemCatalogRow> rows = new HashMap<>();
+        // Starts a little before the watermark for transactions that committed after a later one
+        for (ItemCatalogRow row : itemRepository.findCatalogRowsUpdatedSince(current.watermark().minus(refreshOverlap))) {
+            int index = current.indexOf(row.id());
+            if (index < 0 || current.version(index) != row.version()) {
+                rows.put(row.id(), row);
+            }
+        }
+        List<Integer> ids = List.copyOf(changedIds);
+        for (int from = 0; from < ids.size(); from += ID_CHUNK) {
+            itemRepository.findCatalogRowsByIdIn(ids.subList(from, Math.min(from + ID_CHUNK, ids.size())))
+                    .forEach(row -> rows.put(row.id(), row));
+        }
+
+        // Rows replaced by a newer version or deleted, changed ids the database no longer has
+        BitSet dropped = new BitSet(current.size());
+        rows.keySet().forEach(id -> markDropped(current, id, dropped));
+        ids.stream().filter(id -> !rows.containsKey(id)).forEach(id -> markDropped(current, id, dropped));
+        if (rows.isEmpty() && dropped.isEmpty()) {
+            return current;
+        }
+
+        ItemCatalogSnapshot.Builder builder =
+                ItemCatalogSnapshot.builder(current.size() + rows.size(), current.textBytes());
+        for (int index = 0; index < current.size(); index++) {
+            if (!dropped.get(index)) {
+                builder.copy(current, index);
+            }
+        }
+        rows.values().forEach(builder::add);
+        ItemCatalogSnapshot refreshed = builder.build();
+        log.debug("Refreshed item catalog snapshot, {} items read, {} rows replaced or removed",
+                rows.size(), dropped.cardinality());
+        return refreshed;
+    }
+
+    private void markDropped(ItemCatalogSnapshot current, Integer id, BitSet dropped) {
+        int index = current.indexOf(id);
+        if (index >= 0) {
+            dropped.set(index);
+        }
+    }
+
+    private int indexOf(ItemCatalogSnapshot current, Integer id) {
+        if (current == null || (!changed.isEmpty() && changed.containsKey(id))) {
+            return -1;
+        }
+        return current.indexOf(id);
+    }
+}
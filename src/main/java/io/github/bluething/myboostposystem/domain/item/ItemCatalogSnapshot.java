@@ -0,0 +1,272 @@
+package io.github.bluething.myboostposystem.domain.item;
+
+import io.github.bluething.myboostposystem.persistence.ItemCatalogRow;
+import io.github.bluething.myboostposystem.persistence.ItemReference;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Immutable column-oriented copy of the item catalog.
+ * <p>
+ * Each column is a primitive array indexed by row, strings are packed as UTF-8 into one shared byte
+ * buffer and ids are located through an open-addressing table of row numbers. A million items take a
+ * few dozen megabytes, a fraction of a map of boxed ids to item records, and a lookup allocates nothing
+ * until the caller asks for the row as {@link ItemData} or {@link ItemReference}.
+ */
+final class ItemCatalogSnapshot {
+    private static final int NAME = 0;
+    private static final int DESCRIPTION = 1;
+    private static final int CREATED_BY = 2;
+    private static final int UPDATED_BY = 3;
+    private static final int TEXT_FIELDS = 4;
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private final int size;
+    private final int[] ids;
+    private final long[] prices;
+    private final long[] costs;
+    private final long[] versions;
+    private final long[] createdMicros;
+    private final long[] updatedMicros;
+    // Bit per text field, set when the column is null
+    private final byte[] nullTexts;
+    // Start of every text field of every row, followed by the end of the buffer
+    private final int[] textOffsets;
+    private final byte[] text;
+    // Row number plus one, zero marks a free slot
+    private final int[] slots;
+    private final int mask;
+    private final Instant watermark;
+
+    private ItemCatalogSnapshot(Builder builder) {
+        this.size = builder.size;
+        this.ids = Arrays.copyOf(builder.ids, size);
+        this.prices = Arrays.copyOf(builder.prices, size);
+        this.costs = Arrays.copyOf(builder.costs, size);
+        this.versions = Arrays.copyOf(builder.versions, size);
+        this.createdMicros = Arrays.copyOf(builder.createdMicros, size);
+        this.updatedMicros = Arrays.copyOf(builder.updatedMicros, size);
+        this.nullTexts = Arrays.copyOf(builder.nullTexts, size);
+        this.textOffsets = Arrays.copyOf(builder.textOffsets, size * TEXT_FIELDS + 1);
+        this.textOffsets[size * TEXT_FIELDS] = builder.textLength;
+        this.text = Arrays.copyOf(builder.text, builder.textLength);
+        this.watermark = builder.maxUpdatedMicros == NO_TIMESTAMP ? Instant.EPOCH : toInstant(builder.maxUpdatedMicros);
+
+        // At most half full so probe sequences stay short
+        int capacity = Integer.highestOneBit(Math.max(size, 1) * 2 - 1) << 1;
+        this.slots = new int[capacity];
+        this.mask = capacity - 1;
+        for (int index = 0; index < size; index++) {
+            int slot = hash(ids[index]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = index + 1;
+        }
+    }
+
+    static Builder builder(int expectedRows, int expectedTextBytes) {
+        return new Builder(expectedRows, expectedTextBytes);
+    }
+
+    /**
+     * @return the row holding the item, or -1 when it is not in the snapshot
+     */
+    int indexOf(int id) {
+        int slot = hash(id) & mask;
+        int entry;
+        while ((entry = slots[slot]) != 0) {
+            if (ids[entry - 1] == id) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int textBytes() {
+        return text.length;
+    }
+
+    /**
+     * Latest update time of any item in the snapshot, where the next incremental refresh starts
+     */
+    Instant watermark() {
+        return watermark;
+    }
+
+    int id(int index) {
+        return ids[index];
+    }
+
+    long version(int index) {
+        return versions[index];
+    }
+
+    ItemData toItemData(int index) {
+        return new ItemData(ids[index],
+                text(index, NAME),
+                text(index, DESCRIPTION),
+                prices[index],
+                costs[index],
+                text(index, CREATED_BY),
+                text(index, UPDATED_BY),
+                toInstant(createdMicros[index]),
+                toInstant(updatedMicros[index]),
+                versions[index]);
+    }
+
+    ItemReference toReference(int index) {
+        return new ItemReference(ids[index], text(index, NAME), prices[index], costs[index]);
+    }
+
+    private String text(int index, int field) {
+        if ((nullTexts[index] & (1 << field)) != 0) {
+            return null;
+        }
+        int offset = index * TEXT_FIELDS + field;
+        return new String(text, textOffsets[offset], textOffsets[offset + 1] - textOffsets[offset], StandardCharsets.UTF_8);
+    }
+
+    private static int hash(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static long toMicros(Instant instant) {
+        if (instant == null) {
+            return NO_TIMESTAMP;
+        }
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), instant.getNano() / 1_000);
+    }
+
+    private static Instant toInstant(long micros) {
+        if (micros == NO_TIMESTAMP) {
+            return null;
+        }
+        return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1_000L);
+    }
+
+    /**
+     * Appends rows into growable columns. Every id may be added only once.
+     */
+    static final class Builder {
+        private int size;
+        private int[] ids;
+        private long[] prices;
+        private long[] costs;
+        private long[] versions;
+        private long[] createdMicros;
+        private long[] updatedMicros;
+        private byte[] nullTexts;
+        private int[] textOffsets;
+        private byte[] text;
+        private int textLength;
+        private long maxUpdatedMicros = NO_TIMESTAMP;
+
+        private Builder(int expectedRows, int expectedTextBytes) {
+            int rows = Math.max(expectedRows, 16);
+            this.ids = new int[rows];
+            this.prices = new long[rows];
+            this.costs = new long[rows];
+            this.versions = new long[rows];
+            this.createdMicros = new long[rows];
+            this.updatedMicros = new long[rows];
+            this.nullTexts = new byte[rows];
+            this.textOffsets = new int[rows * TEXT_FIELDS + 1];
+            this.text = new byte[Math.max(expectedTextBytes, 1024)];
+        }
+
+        Builder add(ItemCatalogRow row) {
+            ensureRowCapacity();
+            ids[size] = row.id();
+            prices[size] = row.price();
+            costs[size] = row.cost();
+            versions[size] = row.version();
+            createdMicros[size] = toMicros(row.createdDatetime());
+            updatedMicros[size] = toMicros(row.updatedDatetime());
+            nullTexts[size] = 0;
+            appendText(NAME, row.name());
+            appendText(DESCRIPTION, row.description());
+            appendText(CREATED_BY, row.createdBy());
+            appendText(UPDATED_BY, row.updatedBy());
+            track(updatedMicros[size]);
+            size++;
+            return this;
+        }
+
+        /**
+         * Copies a row of another snapshot as is, without decoding its strings
+         */
+        Builder copy(ItemCatalogSnapshot source, int index) {
+            ensureRowCapacity();
+            ids[size] = source.ids[index];
+            prices[size] = source.prices[index];
+            costs[size] = source.costs[index];
+            versions[size] = source.versions[index];
+            createdMicros[size] = source.createdMicros[index];
+            updatedMicros[size] = source.updatedMicros[index];
+            nullTexts[size] = source.nullTexts[index];
+
+            int from = source.textOffsets[index * TEXT_FIELDS];
+            int to = source.textOffsets[(index + 1) * TEXT_FIELDS];
+            ensureTextCapacity(to - from);
+            System.arraycopy(source.text, from, text, textLength, to - from);
+            for (int field = 0; field < TEXT_FIELDS; field++) {
+                textOffsets[size * TEXT_FIELDS + field] =
+                        textLength + source.textOffsets[index * TEXT_FIELDS + field] - from;
+            }
+            textLength += to - from;
+            track(updatedMicros[size]);
+            size++;
+            return this;
+        }
+
+        ItemCatalogSnapshot build() {
+            return new ItemCatalogSnapshot(this);
+        }
+
+        private void appendText(int field, String value) {
+            textOffsets[size * TEXT_FIELDS + field] = textLength;
+            if (value == null) {
+                nullTexts[size] |= (byte) (1 << field);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            ensureTextCapacity(bytes.length);
+            System.arraycopy(bytes, 0, text, textLength, bytes.length);
+            textLength += bytes.length;
+        }
+
+        private void track(long micros) {
+            maxUpdatedMicros = Math.max(maxUpdatedMicros, micros);
+        }
+
+        private void ensureRowCapacity() {
+            if (size < ids.length) {
+                return;
+            }
+            int rows = ids.length + (ids.length >> 1);
+            ids = Arrays.copyOf(ids, rows);
+            prices = Arrays.copyOf(prices, rows);
+            costs = Arrays.copyOf(costs, rows);
+            versions = Arrays.copyOf(versions, rows);
+            createdMicros = Arrays.copyOf(createdMicros, rows);
+            updatedMicros = Arrays.copyOf(updatedMicros, rows);
+            nullTexts = Arrays.copyOf(nullTexts, rows);
+            textOffsets = Arrays.copyOf(textOffsets, rows * TEXT_FIELDS + 1);
+        }
+
+        private void ensureTextCapacity(int additional) {
+            if (textLength + additional > text.length) {
+                text = Arrays.copyOf(text, Math.max(textLength + additional, text.length + (text.length >> 1)));
+            }
+        }
+    }
+}
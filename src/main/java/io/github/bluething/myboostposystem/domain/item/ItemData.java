@@ -10,5 +10,6 @@ public record ItemData(Integer id,
                        String createdBy,
                        String updatedBy,
                        Instant createdDatetime,
-                       Instant updatedDatetime) {
+                       Instant updatedDatetime,
+                       Long version) {
 }
@@ -0,0 +1,8 @@
+package io.github.bluething.myboostposystem.domain.item;
+
+/**
+ * @param line   line number in the uploaded file, the header is line 1
+ * @param reason why the row was not imported
+ */
+public record ItemImportRejection(long line, String reason) {
+}
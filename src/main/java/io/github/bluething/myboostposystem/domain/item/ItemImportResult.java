@@ -0,0 +1,21 @@
+package io.github.bluething.myboostposystem.domain.item;
+
+import java.util.List;
+
+/**
+ * Outcome of a catalog import
+ *
+ * @param rows       data rows in the file
+ * @param inserted   rows that created a new item
+ * @param updated    rows that changed an existing item
+ * @param unchanged  rows identical to the existing item
+ * @param rejected   rows that were not imported
+ * @param rejections the first rejected rows with their reason, in file order
+ */
+public record ItemImportResult(long rows,
+                               long inserted,
+                               long updated,
+                               long unchanged,
+                               long rejected,
+                               List<ItemImportRejection> rejections) {
+}
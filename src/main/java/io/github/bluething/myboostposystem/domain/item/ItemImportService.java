@@ -0,0 +1,17 @@
+package io.github.bluething.myboostposystem.domain.item;
+
+import java.io.InputStream;
+
+public interface ItemImportService {
+    /**
+     * Import a supplier catalog in CSV format
+     * The file needs a header line followed by name,description,price,cost rows. Rows are matched to
+     * existing items by name: known names update the item, new names create one. Invalid rows are
+     * rejected without affecting the others; when a name repeats, its last row wins.
+     * @param csv the file content, streamed to the database without being held in memory
+     * @param importedBy user recorded as creator or last editor of the touched items
+     * @return row counts and the first rejected rows
+     * @throws io.github.bluething.myboostposystem.exception.BusinessException if the file is not valid CSV
+     */
+    ItemImportResult importCsv(InputStream csv, String importedBy);
+}
@@ -0,0 +1,206 @@
+package io.github.bluething.myboostposystem.domain.item;
+
+import io.github.bluething.myboostposystem.exception.BusinessException;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk catalog import through a session-local staging table.
+ * <p>
+ * The file is streamed with COPY into a temporary table of raw text columns, so a bad value never aborts
+ * the load. Rows are then validated, deduplicated and upserted with a few set-based statements, all in
+ * one transaction: the import is applied completely or not at all. New prices are appended to the
+ * item price history by the same statement.
+ */
+@Service
+@Transactional
+@Slf4j
+class ItemImportServiceImpl implements ItemImportService {
+    private static final String CREATE_STAGING = """
+            CREATE TEMP TABLE item_import (
+                line_no BIGINT GENERATED ALWAYS AS IDENTITY,
+                name TEXT,
+                description TEXT,
+                price TEXT,
+                cost TEXT,
+                reason TEXT
+            ) ON COMMIT DROP
+            """;
+    private static final String COPY_STAGING =
+            "COPY item_import (name, description, price, cost) FROM STDIN WITH (FORMAT csv, HEADER true)";
+    // Mirrors the bean validation of Item
+    private static final String VALIDATE_STAGING = """
+            UPDATE item_import SET name = btrim(name), reason = CASE
+                WHEN name IS NULL OR btrim(name) = '' THEN 'Item name is required'
+                WHEN length(btrim(name)) > 500 THEN 'Item name must not exceed 500 characters'
+                WHEN length(description) > 500 THEN 'Description must not exceed 500 characters'
+                WHEN price IS NULL OR price !~ '^[0-9]{1,18}$' THEN 'Price must be a whole number, zero or positive'
+                WHEN cost IS NULL OR cost !~ '^[0-9]{1,18}$' THEN 'Cost must be a whole number, zero or positive'
+            END
+            """;
+    private static final String REJECT_DUPLICATES = """
+            UPDATE item_import s SET reason = 'Duplicate name, superseded by line ' || (d.last_line_no + 1)
+            FROM (SELECT line_no,
+                         first_value(line_no) OVER (PARTITION BY name ORDER BY line_no DESC) AS last_line_no
+                  FROM item_import
+                  WHERE reason IS NULL) d
+            WHERE s.line_no = d.line_no AND d.line_no <> d.last_line_no
+            """;
+    // Serializes imports, two concurrent ones could otherwise both insert the same new name
+    private static final String LOCK_IMPORTS = "SELECT pg_advisory_xact_lock(hashtext('items-import'))";
+    // Every sub-statement sees the items as they were before the statement, so previous reads the pre-update
+    // prices and repriced is computed against them rather than against the values updated just wrote
+    private static final String UPSERT = """
+            WITH valid AS (
+                SELECT name, description, CAST(price AS BIGINT) AS price, CAST(cost AS BIGINT) AS cost
+                FROM item_import
+                WHERE reason IS NULL
+            ), previous AS (
+                SELECT i.id, i.price, i.cost
+                FROM items i JOIN valid v ON i.name = v.name
+            ), updated AS (
+                UPDATE items i
+                SET description = v.description, price = v.price, cost = v.cost,
+                    updated_by = ?, updated_datetime = now(), version = i.version + 1
+                FROM valid v
+                WHERE i.name = v.name
+                  AND (i.description, i.price, i.cost) IS DISTINCT FROM (v.description, v.price, v.cost)
+                RETURNING i.id, i.price, i.cost
+            ), inserted AS (
+                INSERT INTO items (name, description, price, cost, created_by, updated_by,
+                                   created_datetime, updated_datetime, version)
+                SELECT v.name, v.description, v.price, v.cost, ?, ?, now(), now(), 0
+                FROM valid v
+                WHERE NOT EXISTS (SELECT 1 FROM items i WHERE i.name = v.name)
+                RETURNING id, price, cost
+            ), changed AS (
+                SELECT u.id, u.price, u.cost, false AS inserted,
+                       (u.price, u.cost) IS DISTINCT FROM (p.price, p.cost) AS repriced
+                FROM updated u JOIN previous p ON p.id = u.id
+                UNION ALL
+                SELECT id, price, cost, true, true FROM inserted
+            ), history AS (
+                INSERT INTO item_price_history (item_id, price, cost, valid_from, created_by)
+                SELECT id, price, cost, now(), ? FROM changed WHERE repriced
+            )
+            SELECT id, inserted, repriced FROM changed
+            """;
+    private static final String COUNT_STAGING =
+            "SELECT count(*), count(*) FILTER (WHERE reason IS NOT NULL) FROM item_import";
+    private static final String FIND_REJECTIONS =
+            "SELECT line_no + 1, reason FROM item_import WHERE reason IS NOT NULL ORDER BY line_no LIMIT ?";
+
+    private final EntityManager entityManager;
+    private final ItemCache itemCache;
+    private final ItemPriceCache itemPriceCache;
+    private final int maxReportedRejections;
+
+    ItemImportServiceImpl(EntityManager entityManager,
+                          ItemCache itemCache,
+                          ItemPriceCache itemPriceCache,
+                          @Value("${app.item-import.max-reported-rejections:1000}") int maxReportedRejections) {
+        this.entityManager = entityManager;
+        this.itemCache = itemCache;
+        this.itemPriceCache = itemPriceCache;
+        this.maxReportedRejections = maxReportedRejections;
+    }
+
+    @Override
+    public ItemImportResult importCsv(InputStream csv, String importedBy) {
+        log.info("Importing item catalog");
+
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            execute(connection, CREATE_STAGING);
+            long copied = copy(connection, csv);
+            execute(connection, "ANALYZE item_import");
+            execute(connection, VALIDATE_STAGING);
+            execute(connection, REJECT_DUPLICATES);
+            execute(connection, LOCK_IMPORTS);
+
+            List<Integer> updatedIds = new ArrayList<>();
+            List<Integer> repricedIds = new ArrayList<>();
+            long inserted = 0;
+            try (PreparedStatement upsert = connection.prepareStatement(UPSERT)) {
+                for (int parameter = 1; parameter <= 4; parameter++) {
+                    upsert.setString(parameter, importedBy);
+                }
+                try (ResultSet rows = upsert.executeQuery()) {
+                    while (rows.next()) {
+                        if (rows.getBoolean(2)) {
+                            inserted++;
+                        } else {
+                            updatedIds.add(rows.getInt(1));
+                            if (rows.getBoolean(3)) {
+                                repricedIds.add(rows.getInt(1));
+                            }
+                        }
+                    }
+                }
+            }
+            itemCache.evictAllAfterCommit(updatedIds);
+            itemPriceCache.evictAllAfterCommit(repricedIds);
+
+            long rejected;
+            try (Statement count = connection.createStatement();
+                 ResultSet rows = count.executeQuery(COUNT_STAGING)) {
+                rows.next();
+                rejected = rows.getLong(2);
+            }
+
+            ItemImportResult result = new ItemImportResult(copied, inserted, updatedIds.size(),
+                    copied - rejected - inserted - updatedIds.size(), rejected, findRejections(connection));
+            log.info("Imported item catalog: {} rows, {} inserted, {} updated, {} rejected",
+                    copied, inserted, updatedIds.size(), rejected);
+            return result;
+        });
+    }
+
+    private long copy(Connection connection, InputStream csv) throws SQLException {
+        try {
+            return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGING, csv);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read the uploaded catalog", e);
+        } catch (SQLException e) {
+            // Malformed CSV, such as a wrong column count or an unterminated quote
+            if ("22P04".equals(e.getSQLState()) || "22021".equals(e.getSQLState())) {
+                throw new BusinessException("Invalid catalog CSV: " + e.getMessage(), e);
+            }
+            throw e;
+        }
+    }
+
+    private List<ItemImportRejection> findRejections(Connection connection) throws SQLException {
+        List<ItemImportRejection> rejections = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(FIND_REJECTIONS)) {
+            statement.setInt(1, maxReportedRejections);
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    rejections.add(new ItemImportRejection(rows.getLong(1), rows.getString(2)));
+                }
+            }
+        }
+        return rejections;
+    }
+
+    private void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package io.github.bluething.myboostposystem.domain.item;
+
+import java.time.Instant;
+
+/**
+ * Price and cost of an item as they were from {@code validFrom} until the next change
+ */
+public record ItemPrice(Integer itemId,
+                        Long price,
+                        Long cost,
+                        Instant validFrom) {
+}
@@ -0,0 +1,33 @@
+package io.github.bluething.myboostposystem.domain.item;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.bluething.myboostposystem.common.TwoTierCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+/**
+ * Near cache of the current {@link ItemPrice} keyed by item id
+ */
+@Component
+class ItemPriceCache extends TwoTierCache<ItemPrice> {
+    static final String CACHE_NAME = "item-price";
+
+    ItemPriceCache(StringRedisTemplate redisTemplate,
+                   ObjectMapper objectMapper,
+                   MeterRegistry meterRegistry,
+                   @Qualifier("applicationTaskExecutor") Executor refreshExecutor,
+                   @Value("${app.cache.item-price.ttl:10m}") Duration ttl,
+                   @Value("${app.cache.item-price.local.max-size:10000}") long localMaxSize,
+                   @Value("${app.cache.item-price.local.ttl:5m}") Duration localTtl,
+                   @Value("${app.cache.item-price.local.refresh-after:30s}") Duration localRefreshAfter,
+                   @Value("${app.cache.item-price.tombstone-ttl:10s}") Duration tombstoneTtl) {
+        super(CACHE_NAME, ItemPrice.class, new Settings(ttl, localMaxSize, localTtl, localRefreshAfter, tombstoneTtl),
+                redisTemplate, objectMapper, meterRegistry, refreshExecutor);
+    }
+}
@@ -0,0 +1,17 @@
+package io.github.bluething.myboostposystem.domain.item;
+
+import io.github.bluething.myboostposystem.persistence.ItemReference;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface ItemReferenceCache {
+    /**
+     * Get the id, name, price and cost of the given items
+     * Served from an in-memory snapshot of the item catalog, the database is only read when the
+     * snapshot is rebuilt or an id is not in it
+     * @param ids the item ids
+     * @return the references of the items that exist, keyed by id
+     */
+    Map<Integer, ItemReference> findAllById(Collection<Integer> ids);
+}
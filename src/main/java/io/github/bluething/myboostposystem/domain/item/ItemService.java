@@ -1,8 +1,14 @@
 package io.github.bluething.myboostposystem.domain.item;
 
+import io.github.bluething.myboostposystem.common.CountMode;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface ItemService {
@@ -20,6 +26,23 @@ public interface ItemService {
      */
     Page<ItemData> findAll(Pageable pageable);
 
+    /**
+     * Get all items, computing the total according to the count mode
+     * @param pageable pagination parameters
+     * @param countMode how the total is computed
+     * @return a page for EXACT and ESTIMATED, a slice without total for NONE
+     */
+    Slice<ItemData> findAll(Pageable pageable, CountMode countMode);
+
+    /**
+     * Search items by name and description, best match first
+     * Tolerates typos and partial words in the name
+     * @param query free text as typed by the user
+     * @param limit maximum number of items to return
+     * @return matching items ordered by relevance
+     */
+    List<ItemData> search(String query, int limit);
+
     /**
      * Get item by id
      * @param id the item id
@@ -27,13 +50,47 @@ public interface ItemService {
      */
     Optional<ItemData> findById(Integer id);
 
+    /**
+     * Get many items by id
+     * Served from the item catalog and cache, the ids neither can answer for are read with one query
+     * @param ids the item ids
+     * @return the items that exist, keyed by id
+     */
+    Map<Integer, ItemData> findAllById(Collection<Integer> ids);
+
+    /**
+     * Get item by id from the database, bypassing the catalog and cache
+     * Used when a served copy is older than the version already known to be current
+     * @param id the item id
+     * @return the item if found
+     */
+    Optional<ItemData> findCurrentById(Integer id);
+
+    /**
+     * Get the price and cost of an item at a point in time
+     * The current price is served from cache, older ones from the price history
+     * @param id the item id
+     * @param at the point in time, or null for the current price
+     * @return the price in effect at that time, empty if the item had no price yet, was deleted or never existed
+     */
+    Optional<ItemPrice> findPrice(Integer id, Instant at);
+
+    /**
+     * Get the version of an item without loading it
+     * @param id the item id
+     * @return the version if the item exists
+     */
+    Optional<Long> findVersion(Integer id);
+
     /**
      * Update an existing item
      * @param id the item id
      * @param itemDto the updated item data
+     * @param expectedVersion the version the client last read, or null to update unconditionally
      * @return the updated item if found
+     * @throws io.github.bluething.myboostposystem.exception.PreconditionFailedException if the item is at another version
      */
-    Optional<ItemData> update(Integer id, UpdateItemCommand itemDto);
+    Optional<ItemData> update(Integer id, UpdateItemCommand itemDto, Long expectedVersion);
 
     /**
      * Delete an item by id
@@ -1,17 +1,28 @@
 package io.github.bluething.myboostposystem.domain.item;
 
+import io.github.bluething.myboostposystem.common.CountMode;
+import io.github.bluething.myboostposystem.common.PageUtil;
+import io.github.bluething.myboostposystem.exception.PreconditionFailedException;
 import io.github.bluething.myboostposystem.exception.ResourceNotFoundException;
 import io.github.bluething.myboostposystem.persistence.Item;
+import io.github.bluething.myboostposystem.persistence.ItemPriceHistory;
+import io.github.bluething.myboostposystem.persistence.ItemPriceHistoryRepository;
 import io.github.bluething.myboostposystem.persistence.ItemRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -19,6 +30,10 @@ import java.util.Optional;
 @Slf4j
 class ItemServiceImpl implements ItemService {
     private final ItemRepository itemRepository;
+    private final ItemCatalog itemCatalog;
+    private final ItemCache itemCache;
+    private final ItemPriceHistoryRepository itemPriceHistoryRepository;
+    private final ItemPriceCache itemPriceCache;
 
     @Override
     public ItemData create(CreateItemCommand itemDto) {
@@ -26,6 +41,7 @@ class ItemServiceImpl implements ItemService {
 
         Item entity = toEntity(itemDto);
         Item savedEntity = itemRepository.save(entity);
+        recordPrice(savedEntity);
 
         log.debug("Item created with id: {}", savedEntity.getId());
         return toData(savedEntity);
@@ -42,14 +58,90 @@ class ItemServiceImpl implements ItemService {
 
     @Transactional(readOnly = true)
     @Override
+    public Slice<ItemData> findAll(Pageable pageable, CountMode countMode) {
+        log.debug("Finding all items with pageable: {}, count mode: {}", pageable, countMode);
+
+        if (countMode == CountMode.EXACT) {
+            return findAll(pageable);
+        }
+
+        Slice<ItemData> items = itemRepository.findAllBy(pageable).map(this::toData);
+        if (countMode == CountMode.ESTIMATED) {
+            return PageUtil.withEstimatedTotal(items, itemRepository.estimateCount(), itemRepository::count);
+        }
+        return items;
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<ItemData> search(String query, int limit) {
+        log.debug("Searching items with query: '{}', limit: {}", query, limit);
+
+        return itemRepository.search(query.strip(), limit).stream()
+                .map(this::toData)
+                .toList();
+    }
+
+    // No transaction of its own so a catalog or cache hit never borrows a database connection
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @Override
     public Optional<ItemData> findById(Integer id) {
         log.debug("Finding item with id: {}", id);
 
+        return itemCatalog.findById(id)
+                .or(() -> itemCache.get(id, key -> itemRepository.findById(key).map(this::toData)));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Optional<ItemData> findCurrentById(Integer id) {
+        log.debug("Finding current item with id: {}", id);
+
         return itemRepository.findById(id).map(this::toData);
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @Override
+    public Map<Integer, ItemData> findAllById(Collection<Integer> ids) {
+        log.debug("Finding {} items by id", ids.size());
+
+        Map<Integer, ItemData> found = itemCatalog.findItems(ids);
+        if (found.size() < ids.size()) {
+            List<Integer> missing = ids.stream().filter(id -> !found.containsKey(id)).toList();
+            found.putAll(itemCache.getAll(missing, keys -> itemRepository.findAllById(keys).stream()
+                    .collect(Collectors.toMap(Item::getId, this::toData))));
+        }
+        return found;
+    }
+
+    // No transaction of its own so a cache hit never borrows a database connection
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     @Override
-    public Optional<ItemData> update(Integer id, UpdateItemCommand itemDto) {
+    public Optional<ItemPrice> findPrice(Integer id, Instant at) {
+        log.debug("Finding price of item with id: {} at: {}", id, at);
+
+        // History has no foreign key and outlives a deleted item, only answer for items that still exist
+        if (findById(id).isEmpty()) {
+            return Optional.empty();
+        }
+
+        Optional<ItemPrice> current = itemPriceCache.get(id,
+                key -> itemPriceHistoryRepository.findFirstByItemIdOrderByValidFromDesc(key).map(this::toPrice));
+        if (at == null || current.isEmpty() || !current.get().validFrom().isAfter(at)) {
+            return current;
+        }
+        return itemPriceHistoryRepository.findFirstByItemIdAndValidFromLessThanEqualOrderByValidFromDesc(id, at)
+                .map(this::toPrice);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Optional<Long> findVersion(Integer id) {
+        return itemRepository.findVersionById(id);
+    }
+
+    @Override
+    public Optional<ItemData> update(Integer id, UpdateItemCommand itemDto, Long expectedVersion) {
         log.debug("Updating item with id: {}, data: {}", id, itemDto);
 
         if (id == null || itemDto == null) {
@@ -58,8 +150,20 @@ class ItemServiceImpl implements ItemService {
 
         return itemRepository.findById(id)
                 .map(existingItem -> {
+                    if (expectedVersion != null && !expectedVersion.equals(existingItem.getVersion())) {
+                        throw new PreconditionFailedException("Item", id, expectedVersion, existingItem.getVersion());
+                    }
+
+                    boolean repriced = !existingItem.getPrice().equals(itemDto.price())
+                            || !existingItem.getCost().equals(itemDto.cost());
                     Item savedItem = toEntity(existingItem, itemDto);
-                    Item updatedEntity = itemRepository.save(savedItem);
+                    // Flush so the returned data carries the incremented version
+                    Item updatedEntity = itemRepository.saveAndFlush(savedItem);
+                    itemCache.evictAfterCommit(id);
+                    if (repriced) {
+                        recordPrice(updatedEntity);
+                        itemPriceCache.evictAfterCommit(id);
+                    }
                     log.debug("Item updated with id: {}", updatedEntity.getId());
                     return toData(updatedEntity);
                 });
@@ -78,10 +182,20 @@ class ItemServiceImpl implements ItemService {
         }
 
         itemRepository.deleteById(id);
+        itemCache.evictAfterCommit(id);
+        itemPriceCache.evictAfterCommit(id);
         log.debug("Item deleted with id: {}", id);
         return true;
     }
 
+    private void recordPrice(Item item) {
+        itemPriceHistoryRepository.append(item.getId(), item.getPrice(), item.getCost(), item.getUpdatedBy());
+    }
+
+    private ItemPrice toPrice(ItemPriceHistory history) {
+        return new ItemPrice(history.getItemId(), history.getPrice(), history.getCost(), history.getValidFrom());
+    }
+
     private ItemData toData(Item item) {
         if (item == null) {
             return null;
@@ -95,7 +209,8 @@ class ItemServiceImpl implements ItemService {
                 item.getCreatedBy(),
                 item.getUpdatedBy(),
                 item.getCreatedDatetime(),
-                item.getUpdatedDatetime());
+                item.getUpdatedDatetime(),
+                item.getVersion());
     }
 
     private Item toEntity(CreateItemCommand itemDto) {
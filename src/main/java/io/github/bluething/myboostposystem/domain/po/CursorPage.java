@@ -0,0 +1,19 @@
+package io.github.bluething.myboostposystem.domain.po;
+
+import java.util.List;
+
+/**
+ * Result of a keyset (seek) query.
+ * Cursors are the boundary ids of the page, null when there is nothing further in that direction.
+ */
+public record CursorPage<T>(List<T> content,
+                            Integer nextCursor,
+                            Integer previousCursor) {
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    public boolean hasPrevious() {
+        return previousCursor != null;
+    }
+}
@@ -0,0 +1,36 @@
+package io.github.bluething.myboostposystem.domain.po;
+
+import io.github.bluething.myboostposystem.persistence.PurchaseOrderIdempotencyKeyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Drops idempotency keys once clients are no longer expected to retry with them.
+ */
+@Component
+@Slf4j
+class IdempotencyKeyPurger {
+    private final PurchaseOrderIdempotencyKeyRepository idempotencyKeyRepository;
+    private final Duration retention;
+
+    IdempotencyKeyPurger(PurchaseOrderIdempotencyKeyRepository idempotencyKeyRepository,
+                         @Value("${app.idempotency.retention:24h}") Duration retention) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval:1h}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = idempotencyKeyRepository.deleteCreatedBefore(Instant.now().minus(retention));
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+}
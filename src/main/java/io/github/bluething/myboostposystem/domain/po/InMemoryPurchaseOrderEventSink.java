@@ -0,0 +1,41 @@
+package io.github.bluething.myboostposystem.domain.po;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Keeps the most recent events in memory, for development and tests.
+ * Events are lost on restart, do not use it where consumers depend on them.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.outbox", name = "sink", havingValue = "memory", matchIfMissing = true)
+public class InMemoryPurchaseOrderEventSink implements PurchaseOrderEventSink {
+    private final int capacity;
+    private final Deque<PurchaseOrderEvent> events = new ArrayDeque<>();
+
+    InMemoryPurchaseOrderEventSink(@Value("${app.outbox.memory.capacity:10000}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized void publish(List<PurchaseOrderEvent> published) {
+        for (PurchaseOrderEvent event : published) {
+            if (events.size() == capacity) {
+                events.removeFirst();
+            }
+            events.addLast(event);
+        }
+    }
+
+    /**
+     * @return retained events, oldest first
+     */
+    public synchronized List<PurchaseOrderEvent> events() {
+        return List.copyOf(events);
+    }
+}
@@ -0,0 +1,7 @@
+package io.github.bluething.myboostposystem.domain.po;
+
+public enum IngestionStatus {
+    PENDING,
+    CREATED,
+    FAILED
+}
@@ -0,0 +1,31 @@
+package io.github.bluething.myboostposystem.domain.po;
+
+import java.time.Instant;
+
+/**
+ * State of a purchase order submitted for asynchronous creation.
+ *
+ * @param id              ticket id handed to the client
+ * @param status          where the purchase order is in the ingestion pipeline
+ * @param purchaseOrderId id of the created purchase order, null unless CREATED
+ * @param error           reason the purchase order was rejected, null unless FAILED
+ * @param submittedAt     when the purchase order was accepted
+ */
+public record IngestionTicket(String id,
+                              IngestionStatus status,
+                              Integer purchaseOrderId,
+                              String error,
+                              Instant submittedAt) {
+
+    static IngestionTicket pending(String id, Instant submittedAt) {
+        return new IngestionTicket(id, IngestionStatus.PENDING, null, null, submittedAt);
+    }
+
+    IngestionTicket created(Integer purchaseOrderId) {
+        return new IngestionTicket(id, IngestionStatus.CREATED, purchaseOrderId, null, submittedAt);
+    }
+
+    IngestionTicket failed(String error) {
+        return new IngestionTicket(id, IngestionStatus.FAILED, null, error, submittedAt);
+    }
+}
@@ -0,0 +1,23 @@
+package io.github.bluething.myboostposystem.domain.po;
+
+/**
+ * Outcome of one purchase order in a batch create.
+ *
+ * @param index position of the purchase order in the submitted batch
+ * @param id    id of the created purchase order, null when it was rejected
+ * @param error reason the purchase order was rejected, null when it was created
+ */
+public record POBatchResult(int index, Integer id, String error) {
+
+    public static POBatchResult created(int index, Integer id) {
+        return new POBatchResult(index, id, null);
+    }
+
+    public static POBatchResult failed(int index, String error) {
+        return new POBatchResult(index, null, error);
+    }
+
+    public boolean isCreated() {
+        return error == null;
+    }
+}
@@ -13,5 +13,6 @@ public record POData(Integer id,
                      String createdBy,
                      String updatedBy,
                      Instant createdDatetime,
-                     Instant updatedDatetime) {
+                     Instant updatedDatetime,
+                     Long version) {
 }
@@ -0,0 +1,17 @@
+package io.github.bluething.myboostposystem.domain.po;
+
+import lombok.Builder;
+
+import java.time.LocalDate;
+
+/**
+ * Purchase order search filters. Null fields are not applied.
+ * Dates are calendar days in the application timezone and both bounds are inclusive.
+ */
+@Builder
+public record POSearchCriteria(LocalDate dateFrom,
+                               LocalDate dateTo,
+                               String createdBy,
+                               Long minTotalPrice,
+                               Long maxTotalPrice) {
+}
@@ -0,0 +1,12 @@
+package io.github.bluething.myboostposystem.domain.po;
+
+import java.time.LocalDateTime;
+
+public record POSummaryData(Integer id,
+                            LocalDateTime orderDate,
+                            String description,
+                            Long totalPrice,
+                            Long totalCost,
+                            String createdBy,
+                            Long version) {
+}
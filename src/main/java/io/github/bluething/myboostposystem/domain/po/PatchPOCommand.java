@@ -0,0 +1,11 @@
+package io.github.bluething.myboostposystem.domain.po;
+
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+@Builder
+public record PatchPOCommand(LocalDateTime datetime,
+                             String description,
+                             String updatedBy) {
+}
@@ -0,0 +1,33 @@
+package io.github.bluething.myboostposystem.domain.po;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.bluething.myboostposystem.common.TwoTierCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+/**
+ * Near cache of {@link POData} keyed by purchase order id.
+ */
+@Component
+class PurchaseOrderCache extends TwoTierCache<POData> {
+    static final String CACHE_NAME = "purchase-order";
+
+    PurchaseOrderCache(StringRedisTemplate redisTemplate,
+                       ObjectMapper objectMapper,
+                       MeterRegistry meterRegistry,
+                       @Qualifier("applicationTaskExecutor") Executor refreshExecutor,
+                       @Value("${app.cache.purchase-order.ttl:10m}") Duration ttl,
+                       @Value("${app.cache.purchase-order.local.max-size:10000}") long localMaxSize,
+                       @Value("${app.cache.purchase-order.local.ttl:5m}") Duration localTtl,
+                       @Value("${app.cache.purchase-order.local.refresh-after:30s}") Duration localRefreshAfter,
+                       @Value("${app.cache.purchase-order.tombstone-ttl:10s}") Duration tombstoneTtl) {
+        super(CACHE_NAME, POData.class, new Settings(ttl, localMaxSize, localTtl, localRefreshAfter, tombstoneTtl),
+                redisTemplate, objectMapper, meterRegistry, refreshExecutor);
+    }
+}
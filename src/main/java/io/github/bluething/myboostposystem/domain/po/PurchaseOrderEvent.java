@@ -0,0 +1,20 @@
+package io.github.bluething.myboostposystem.domain.po;
+
+import java.time.Instant;
+
+/**
+ * Change of one purchase order as handed to a {@link PurchaseOrderEventSink}.
+ * <p>
+ * Delivery is at least once and in no guaranteed order, not even for one purchase order: ids are
+ * allocated in blocks per node when the event is written, not when its transaction commits. The
+ * version orders the events of one purchase order, each event carries the version it leaves behind,
+ * a DELETED one the last version plus one. Consumers should drop events not newer than the version
+ * they already applied, which also takes care of duplicates.
+ */
+public record PurchaseOrderEvent(Long id,
+                                 Integer purchaseOrderId,
+                                 Long version,
+                                 PurchaseOrderEventType type,
+                                 String payload,
+                                 Instant occurredAt) {
+}
@@ -0,0 +1,18 @@
+package io.github.bluething.myboostposystem.domain.po;
+
+import java.util.List;
+
+/**
+ * Destination of purchase order change events drained from the outbox.
+ * Picked with app.outbox.sink; provide another implementation to publish to a broker.
+ */
+public interface PurchaseOrderEventSink {
+    /**
+     * Publishes the events in order.
+     * Must only return once the events are durably accepted; a thrown exception leaves them in the outbox
+     * to be retried, so delivery is at least once.
+     *
+     * @param events events to publish, oldest first
+     */
+    void publish(List<PurchaseOrderEvent> events);
+}
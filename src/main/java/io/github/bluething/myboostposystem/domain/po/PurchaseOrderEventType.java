@@ -0,0 +1,20 @@
+package io.github.bluething.myboostposystem.domain.po;
+
+public enum PurchaseOrderEventType {
+    /**
+     * Payload is the created {@link POData}
+     */
+    CREATED,
+    /**
+     * Payload is the full {@link POData} after the update
+     */
+    UPDATED,
+    /**
+     * Header-only change, payload is the {@link POSummaryData} after the patch
+     */
+    PATCHED,
+    /**
+     * No payload
+     */
+    DELETED
+}
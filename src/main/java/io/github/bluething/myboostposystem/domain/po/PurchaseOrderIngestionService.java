@@ -0,0 +1,25 @@
+package io.github.bluething.myboostposystem.domain.po;
+
+import java.util.Optional;
+
+public interface PurchaseOrderIngestionService {
+    /**
+     * Queues a purchase order for asynchronous creation.
+     * Queued purchase orders are written by a small pool of writers, several per transaction,
+     * so a burst of submissions shares a few connections instead of holding one each.
+     *
+     * @param command purchase order creation data, already validated
+     * @return pending ticket to poll for the outcome
+     * @throws io.github.bluething.myboostposystem.exception.ServiceUnavailableException if the queue is full
+     */
+    IngestionTicket submit(CreatePOCommand command);
+
+    /**
+     * Retrieves the current state of a ticket.
+     * Tickets are kept in memory of the node that accepted the submission and expire after a while.
+     *
+     * @param ticketId ticket id returned by {@link #submit(CreatePOCommand)}
+     * @return optional containing the ticket if it is known
+     */
+    Optional<IngestionTicket> findTicket(String ticketId);
+}
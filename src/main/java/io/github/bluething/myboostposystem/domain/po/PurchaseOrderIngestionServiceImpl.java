@@ -0,0 +1,228 @@
+package io.github.bluething.myboostposystem.domain.po;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bluething.myboostposystem.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group-commit writer for asynchronously submitted purchase orders.
+ * Each writer takes whatever has queued up since its last commit, up to the batch size, and writes it
+ * through {@link PurchaseOrderService#createAll(List)} in one transaction. An idle writer commits a single
+ * purchase order right away; under load batches grow, so throughput follows the batch size rather than
+ * the number of connections.
+ */
+@Service
+@Slf4j
+class PurchaseOrderIngestionServiceImpl implements PurchaseOrderIngestionService, SmartLifecycle {
+    private static final long POLL_TIMEOUT_MILLIS = 200;
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(1);
+    private static final String SHUTDOWN_ERROR = "Ingestion stopped before the purchase order was written";
+
+    record Submission(String ticketId, CreatePOCommand command) {
+    }
+
+    private final PurchaseOrderService purchaseOrderService;
+    private final BlockingQueue<Submission> queue;
+    private final Cache<String, IngestionTicket> tickets;
+    private final int writers;
+    private final int batchSize;
+    private final Duration shutdownTimeout;
+    private final Counter created;
+    private final Counter failed;
+    private final DistributionSummary batchSizes;
+
+    private final List<Thread> writerThreads = new ArrayList<>();
+    private volatile boolean running;
+    // Set once the shutdown timeout passed, writers then fail what they hold instead of retrying it
+    private volatile boolean abandoned;
+
+    PurchaseOrderIngestionServiceImpl(PurchaseOrderService purchaseOrderService,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${app.ingestion.queue-capacity:10000}") int queueCapacity,
+                                      @Value("${app.ingestion.writers:2}") int writers,
+                                      @Value("${app.ingestion.batch-size:200}") int batchSize,
+                                      @Value("${app.ingestion.ticket-ttl:1h}") Duration ticketTtl,
+                                      @Value("${app.ingestion.shutdown-timeout:30s}") Duration shutdownTimeout) {
+        this.purchaseOrderService = purchaseOrderService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.tickets = Caffeine.newBuilder()
+                .expireAfterWrite(ticketTtl)
+                .build();
+        this.writers = writers;
+        this.batchSize = batchSize;
+        this.shutdownTimeout = shutdownTimeout;
+
+        meterRegistry.gaugeCollectionSize("po.ingestion.queue.size", List.of(), queue);
+        this.created = meterRegistry.counter("po.ingestion.purchase-orders", "result", "created");
+        this.failed = meterRegistry.counter("po.ingestion.purchase-orders", "result", "failed");
+        this.batchSizes = DistributionSummary.builder("po.ingestion.batch.size").register(meterRegistry);
+    }
+
+    @Override
+    public IngestionTicket submit(CreatePOCommand command) {
+        if (!running) {
+            throw new ServiceUnavailableException("Purchase order ingestion is not running", RETRY_AFTER);
+        }
+
+        IngestionTicket ticket = IngestionTicket.pending(UUID.randomUUID().toString(), Instant.now());
+        tickets.put(ticket.id(), ticket);
+        Submission submission = new Submission(ticket.id(), command);
+        if (!queue.offer(submission)) {
+            tickets.invalidate(ticket.id());
+            throw new ServiceUnavailableException("Purchase order ingestion queue is full", RETRY_AFTER);
+        }
+        // Stop may have begun after the check above, the writers could then exit before seeing this submission.
+        // Withdraw it if it is still queued, otherwise a writer or stop has taken it and completes its ticket
+        if (!running && queue.remove(submission)) {
+            tickets.invalidate(ticket.id());
+            throw new ServiceUnavailableException("Purchase order ingestion is not running", RETRY_AFTER);
+        }
+
+        log.debug("Queued purchase order under ticket {}", ticket.id());
+        return ticket;
+    }
+
+    @Override
+    public Optional<IngestionTicket> findTicket(String ticketId) {
+        return Optional.ofNullable(tickets.getIfPresent(ticketId));
+    }
+
+    @Override
+    public synchronized void start() {
+        abandoned = false;
+        running = true;
+        for (int i = 0; i < writers; i++) {
+            writerThreads.add(Thread.ofPlatform().name("po-ingestion-", i).start(this::drain));
+        }
+        log.info("Started {} purchase order ingestion writers, batch size {}", writers, batchSize);
+    }
+
+    // Stop after the web server, so no request can queue a purchase order once the writers are gone
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        try {
+            stop();
+        } finally {
+            callback.run();
+        }
+    }
+
+    /**
+     * Stops accepting submissions and lets the writers finish what is already queued, for at most the
+     * shutdown timeout. Whatever is still queued then is failed on its ticket, so a slow or unavailable
+     * database cannot hold up shutdown while thousands of queued purchase orders time out one by one.
+     * That includes submissions that raced past the running check after the writers had already exited.
+     */
+    @Override
+    public synchronized void stop() {
+        running = false;
+        long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+        boolean finished = true;
+        for (Thread writer : writerThreads) {
+            try {
+                finished &= writer.join(Duration.ofNanos(Math.max(deadline - System.nanoTime(), 0)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                finished = false;
+                break;
+            }
+        }
+        writerThreads.clear();
+        if (!finished) {
+            abandoned = true;
+        }
+
+        List<Submission> queued = new ArrayList<>();
+        queue.drainTo(queued);
+        queued.forEach(submission -> complete(submission, POBatchResult.failed(0, SHUTDOWN_ERROR)));
+        if (finished && queued.isEmpty()) {
+            log.info("Stopped purchase order ingestion writers");
+        } else if (finished) {
+            log.warn("Stopped purchase order ingestion writers, failed {} purchase orders queued after they exited",
+                    queued.size());
+        } else {
+            log.warn("Purchase order ingestion writers did not finish within {}, failed {} queued purchase orders",
+                    shutdownTimeout, queued.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void drain() {
+        List<Submission> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Submission first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    void write(List<Submission> batch) {
+        batchSizes.record(batch.size());
+        try {
+            record(batch, purchaseOrderService.createAll(batch.stream().map(Submission::command).toList()));
+        } catch (RuntimeException e) {
+            // One bad row fails the whole transaction, retry one by one so the others still land
+            log.warn("Ingestion batch of {} failed, retrying individually: {}", batch.size(), e.getMessage());
+            for (Submission submission : batch) {
+                if (abandoned) {
+                    complete(submission, POBatchResult.failed(0, SHUTDOWN_ERROR));
+                    continue;
+                }
+                try {
+                    record(List.of(submission), purchaseOrderService.createAll(List.of(submission.command())));
+                } catch (RuntimeException single) {
+                    complete(submission, POBatchResult.failed(0, single.getMessage()));
+                }
+            }
+        }
+    }
+
+    private void record(List<Submission> batch, List<POBatchResult> results) {
+        for (POBatchResult result : results) {
+            complete(batch.get(result.index()), result);
+        }
+    }
+
+    private void complete(Submission submission, POBatchResult result) {
+        tickets.asMap().computeIfPresent(submission.ticketId(), (id, ticket) ->
+                result.isCreated() ? ticket.created(result.id()) : ticket.failed(result.error()));
+        (result.isCreated() ? created : failed).increment();
+    }
+}
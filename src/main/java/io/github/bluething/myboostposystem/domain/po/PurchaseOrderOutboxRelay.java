@@ -0,0 +1,77 @@
+package io.github.bluething.myboostposystem.domain.po;
+
+import io.github.bluething.myboostposystem.persistence.PurchaseOrderOutbox;
+import io.github.bluething.myboostposystem.persistence.PurchaseOrderOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Moves purchase order change events from po_outbox to the {@link PurchaseOrderEventSink}.
+ * Each batch is locked with FOR UPDATE SKIP LOCKED, published and deleted in one transaction, so every
+ * node can run the relay and a failing sink leaves the batch in place for the next attempt.
+ * Batches go out roughly in id order only, see {@link PurchaseOrderEvent} for ordering by version.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.outbox.relay", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+class PurchaseOrderOutboxRelay {
+    private final PurchaseOrderOutboxRepository outboxRepository;
+    private final PurchaseOrderEventSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Counter published;
+
+    PurchaseOrderOutboxRelay(PurchaseOrderOutboxRepository outboxRepository,
+                             PurchaseOrderEventSink sink,
+                             TransactionTemplate transactionTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.outbox.relay.batch-size:500}") int batchSize) {
+        this.outboxRepository = outboxRepository;
+        this.sink = sink;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.published = meterRegistry.counter("po.outbox.events.published");
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.relay.poll-interval:1s}")
+    public void relay() {
+        try {
+            Integer relayed;
+            do {
+                relayed = transactionTemplate.execute(status -> relayBatch());
+            } while (relayed != null && relayed == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Purchase order outbox relay failed, retrying on the next poll", e);
+        }
+    }
+
+    private int relayBatch() {
+        List<PurchaseOrderOutbox> rows = outboxRepository.lockOldest(batchSize);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        sink.publish(rows.stream().map(this::toEvent).toList());
+        outboxRepository.deleteAllInBatch(rows);
+        published.increment(rows.size());
+        log.debug("Relayed {} purchase order events", rows.size());
+        return rows.size();
+    }
+
+    private PurchaseOrderEvent toEvent(PurchaseOrderOutbox row) {
+        return new PurchaseOrderEvent(row.getId(),
+                row.getPurchaseOrderId(),
+                row.getPurchaseOrderVersion(),
+                PurchaseOrderEventType.valueOf(row.getEventType()),
+                row.getPayload(),
+                row.getCreatedDatetime());
+    }
+}
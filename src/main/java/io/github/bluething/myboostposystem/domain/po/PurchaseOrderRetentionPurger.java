@@ -0,0 +1,63 @@
+package io.github.bluething.myboostposystem.domain.po;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Deletes purchase orders dated past the retention period.
+ * Works in chunks that each commit on their own, with a pause in between, so a large backlog never
+ * holds locks for long or writes one huge burst of WAL. Disabled unless app.retention.purchase-order.enabled is set.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.retention.purchase-order", name = "enabled", havingValue = "true")
+@Slf4j
+class PurchaseOrderRetentionPurger {
+    private final PurchaseOrderService purchaseOrderService;
+    private final Duration maxAge;
+    private final int chunkSize;
+    private final Duration chunkPause;
+
+    PurchaseOrderRetentionPurger(PurchaseOrderService purchaseOrderService,
+                                 @Value("${app.retention.purchase-order.max-age}") Duration maxAge,
+                                 @Value("${app.retention.purchase-order.chunk-size:1000}") int chunkSize,
+                                 @Value("${app.retention.purchase-order.chunk-pause:100ms}") Duration chunkPause) {
+        this.purchaseOrderService = purchaseOrderService;
+        this.maxAge = maxAge;
+        this.chunkSize = chunkSize;
+        this.chunkPause = chunkPause;
+    }
+
+    @Scheduled(fixedDelayString = "${app.retention.purchase-order.purge-interval:1h}")
+    public void purgeExpired() {
+        Instant cutoff = Instant.now().minus(maxAge);
+        long purged = 0;
+        int deleted;
+        do {
+            deleted = purchaseOrderService.purgeChunk(cutoff, chunkSize);
+            purged += deleted;
+            if (deleted == chunkSize && !pause()) {
+                break;
+            }
+        } while (deleted == chunkSize);
+
+        if (purged > 0) {
+            log.info("Purged {} purchase orders dated before {}", purged, cutoff);
+        }
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(chunkPause);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -1,9 +1,17 @@
 package io.github.bluething.myboostposystem.domain.po;
 
+import io.github.bluething.myboostposystem.common.CountMode;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface PurchaseOrderService {
     /**
@@ -14,6 +22,77 @@ public interface PurchaseOrderService {
      */
     Page<POData> findAll(Pageable pageable);
 
+    /**
+     * Retrieves all purchase orders, computing the total according to the count mode.
+     *
+     * @param pageable pagination parameters
+     * @param countMode how the total is computed
+     * @return a {@link Page} for EXACT and ESTIMATED, a {@link Slice} without total for NONE
+     */
+    Slice<POData> findAll(Pageable pageable, CountMode countMode);
+
+    /**
+     * Retrieves purchase orders older than the cursor, newest first, using keyset pagination.
+     *
+     * @param cursor id of the last purchase order already seen, or null for the first page
+     * @param size maximum number of purchase orders to return
+     * @return page of purchase orders with the cursors of its boundaries
+     */
+    CursorPage<POData> findAllAfter(Integer cursor, int size);
+
+    /**
+     * Retrieves purchase orders newer than the cursor, newest first, using keyset pagination.
+     *
+     * @param cursor id of the first purchase order of the current page
+     * @param size maximum number of purchase orders to return
+     * @return page of purchase orders with the cursors of its boundaries
+     */
+    CursorPage<POData> findAllBefore(Integer cursor, int size);
+
+    /**
+     * Retrieves header-only purchase order summaries with pagination support.
+     * Details are never loaded.
+     *
+     * @param pageable pagination parameters
+     * @return page of purchase order summaries
+     */
+    Page<POSummaryData> findAllSummaries(Pageable pageable);
+
+    /**
+     * Summary variant of {@link #findAll(Pageable, CountMode)}.
+     */
+    Slice<POSummaryData> findAllSummaries(Pageable pageable, CountMode countMode);
+
+    /**
+     * Keyset variant of {@link #findAllSummaries(Pageable)}, see {@link #findAllAfter(Integer, int)}.
+     */
+    CursorPage<POSummaryData> findSummariesAfter(Integer cursor, int size);
+
+    /**
+     * Keyset variant of {@link #findAllSummaries(Pageable)}, see {@link #findAllBefore(Integer, int)}.
+     */
+    CursorPage<POSummaryData> findSummariesBefore(Integer cursor, int size);
+
+    /**
+     * Searches purchase orders by order date range, creator and total price range.
+     * Only the given filters are applied, so each one can use its po_h index.
+     *
+     * @param criteria search filters
+     * @param pageable pagination parameters
+     * @return page of matching purchase orders
+     * @throws IllegalArgumentException if a lower bound is after its upper bound
+     */
+    Page<POData> search(POSearchCriteria criteria, Pageable pageable);
+
+    /**
+     * Streams every purchase order with its details, oldest first, to the consumer.
+     * Reads from a single snapshot in bounded chunks, so memory stays constant for any table size.
+     *
+     * @param consumer receives each purchase order as soon as it is loaded
+     * @return number of exported purchase orders
+     */
+    long exportAll(Consumer<POData> consumer);
+
     /**
      * Retrieves a purchase order by its ID.
      *
@@ -22,6 +101,32 @@ public interface PurchaseOrderService {
      */
     Optional<POData> findById(Integer id);
 
+    /**
+     * Retrieves many purchase orders by ID.
+     * Cached purchase orders are served from cache, the others are fetched with their details in one query.
+     *
+     * @param ids purchase order IDs
+     * @return the purchase orders that exist, keyed by ID
+     */
+    Map<Integer, POData> findAllById(Collection<Integer> ids);
+
+    /**
+     * Retrieves a purchase order from the database, bypassing the cache.
+     * Used when a cached copy is older than the version already known to be current.
+     *
+     * @param id purchase order ID
+     * @return optional containing the purchase order if found
+     */
+    Optional<POData> findCurrentById(Integer id);
+
+    /**
+     * Retrieves the version of a purchase order without loading it.
+     *
+     * @param id purchase order ID
+     * @return optional containing the version if the purchase order exists
+     */
+    Optional<Long> findVersion(Integer id);
+
     /**
      * Creates a new purchase order.
      * Validates business rules and calculates totals.
@@ -32,17 +137,56 @@ public interface PurchaseOrderService {
      */
     POData create(CreatePOCommand createDto);
 
+    /**
+     * Creates a new purchase order at most once per idempotency key.
+     * The first request with a key creates the purchase order and stores its response; later requests
+     * with the same key get the stored response back without creating anything. A concurrent duplicate
+     * waits for the first one to commit instead of creating a second purchase order.
+     *
+     * @param createDto purchase order creation data
+     * @param idempotencyKey client chosen key identifying the create attempt
+     * @return created purchase order, or the one created by an earlier request with the same key
+     * @throws io.github.bluething.myboostposystem.exception.DuplicateResourceException if the key was used for a different request
+     */
+    POData create(CreatePOCommand createDto, String idempotencyKey);
+
+    /**
+     * Creates many purchase orders in one transaction.
+     * Referenced items are validated with a single query and inserts are sent in JDBC batches.
+     * A purchase order failing validation is reported and skipped without affecting the others.
+     *
+     * @param commands purchase orders to create
+     * @return one result per command, in the same order
+     */
+    List<POBatchResult> createAll(List<CreatePOCommand> commands);
+
     /**
      * Updates an existing purchase order.
      * Performs full replacement of the purchase order data.
      *
      * @param id purchase order ID to update
      * @param updateDto updated purchase order data
+     * @param expectedVersion version the client last read, or null to update unconditionally
      * @return updated purchase order
      * @throws IllegalArgumentException if validation fails
      * @throws io.github.bluething.myboostposystem.exception.PoNotFoundException if PO not found
+     * @throws io.github.bluething.myboostposystem.exception.PreconditionFailedException if the PO is at another version
      */
-    POData update(Integer id, UpdatePOCommand updateDto);
+    POData update(Integer id, UpdatePOCommand updateDto, Long expectedVersion);
+
+    /**
+     * Updates header fields of a purchase order without reading or writing its details.
+     * Only the given fields change and the totals are kept as they are.
+     *
+     * @param id purchase order ID to patch
+     * @param command header fields to change, null fields are left untouched
+     * @param expectedVersion version the client last read, or null to update unconditionally
+     * @return patched purchase order header
+     * @throws IllegalArgumentException if no field is given
+     * @throws io.github.bluething.myboostposystem.exception.ResourceNotFoundException if PO not found
+     * @throws io.github.bluething.myboostposystem.exception.PreconditionFailedException if the PO is at another version
+     */
+    POSummaryData patch(Integer id, PatchPOCommand command, Long expectedVersion);
 
     /**
      * Deletes a purchase order by its ID.
@@ -51,4 +195,42 @@ public interface PurchaseOrderService {
      * @return true if deleted, false if not found
      */
     boolean deleteById(Integer id);
+
+    /**
+     * Deletes the given purchase orders with one set-based statement.
+     * Ids that do not exist are ignored.
+     *
+     * @param ids purchase order IDs to delete
+     * @return IDs that were actually deleted
+     */
+    List<Integer> deleteAllById(Collection<Integer> ids);
+
+    /**
+     * Deletes every purchase order dated within the range with one set-based statement.
+     *
+     * @param from first order datetime in the application timezone (inclusive)
+     * @param to last order datetime in the application timezone (exclusive)
+     * @return IDs that were deleted
+     * @throws IllegalArgumentException if from is not before to
+     */
+    List<Integer> deleteByDatetimeRange(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Deletes one bounded chunk of the oldest purchase orders dated before the cutoff, in its own transaction.
+     * Callers repeat until fewer than {@code limit} rows come back, so locks and WAL volume stay per chunk.
+     *
+     * @param cutoff purchase orders dated before this instant are deleted
+     * @param limit maximum number of purchase orders to delete
+     * @return number of deleted purchase orders
+     */
+    int purgeChunk(Instant cutoff, int limit);
+
+    /**
+     * Rewrites the totals of the given purchase orders from their detail lines and records an UPDATED
+     * event for each of them in the same transaction, so outbox consumers see the corrected totals.
+     *
+     * @param ids purchase orders whose totals drifted from their details
+     * @return number of purchase orders repaired
+     */
+    int repairTotals(Collection<Integer> ids);
 }
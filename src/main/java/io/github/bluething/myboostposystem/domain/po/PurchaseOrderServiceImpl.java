@@ -1,46 +1,220 @@
 package io.github.bluething.myboostposystem.domain.po;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.bluething.myboostposystem.common.CountMode;
+import io.github.bluething.myboostposystem.common.PageUtil;
 import io.github.bluething.myboostposystem.common.TimezoneUtil;
+import io.github.bluething.myboostposystem.domain.item.ItemReferenceCache;
+import io.github.bluething.myboostposystem.exception.BusinessException;
+import io.github.bluething.myboostposystem.exception.DuplicateResourceException;
+import io.github.bluething.myboostposystem.exception.PreconditionFailedException;
 import io.github.bluething.myboostposystem.exception.ResourceNotFoundException;
 import io.github.bluething.myboostposystem.persistence.*;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 @RequiredArgsConstructor
 @Slf4j
 class PurchaseOrderServiceImpl implements PurchaseOrderService {
+    private static final int EXPORT_BATCH_SIZE = 500;
+    // Matches hibernate.jdbc.batch_size so each flush sends full batches
+    private static final int INSERT_BATCH_SIZE = 50;
+
     private final PurchaseOrderHeaderRepository purchaseOrderHeaderRepository;
     private final ItemRepository itemRepository;
+    private final ItemReferenceCache itemReferenceCache;
+    private final EntityManager entityManager;
+    private final PurchaseOrderCache purchaseOrderCache;
+    private final PurchaseOrderIdempotencyKeyRepository idempotencyKeyRepository;
+    private final PurchaseOrderOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
 
     @Transactional(readOnly = true)
     @Override
     public Page<POData> findAll(Pageable pageable) {
         log.debug("Finding all purchase orders with pageable: {}", pageable);
 
-        Page<PurchaseOrderHeader> purchaseOrders = purchaseOrderHeaderRepository.findAll(pageable);
-        return purchaseOrders.map(this::toData);
+        Page<Integer> ids = purchaseOrderHeaderRepository.findAllIds(pageable);
+        return new PageImpl<>(loadWithDetails(ids.getContent()), pageable, ids.getTotalElements());
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Slice<POData> findAll(Pageable pageable, CountMode countMode) {
+        log.debug("Finding all purchase orders with pageable: {}, count mode: {}", pageable, countMode);
+
+        if (countMode == CountMode.EXACT) {
+            return findAll(pageable);
+        }
+
+        Slice<Integer> ids = purchaseOrderHeaderRepository.findIdsBy(pageable);
+        Slice<POData> slice = new SliceImpl<>(loadWithDetails(ids.getContent()), pageable, ids.hasNext());
+        return withCountMode(slice, countMode);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public CursorPage<POData> findAllAfter(Integer cursor, int size) {
+        log.debug("Finding purchase orders after cursor: {}, size: {}", cursor, size);
+
+        return seekAfter(cursor, size, this::loadWithDetails);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public CursorPage<POData> findAllBefore(Integer cursor, int size) {
+        log.debug("Finding purchase orders before cursor: {}, size: {}", cursor, size);
+
+        return seekBefore(cursor, size, this::loadWithDetails);
     }
 
     @Transactional(readOnly = true)
     @Override
+    public Page<POSummaryData> findAllSummaries(Pageable pageable) {
+        log.debug("Finding purchase order summaries with pageable: {}", pageable);
+
+        return purchaseOrderHeaderRepository.findAllSummaries(pageable).map(this::toSummaryData);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Slice<POSummaryData> findAllSummaries(Pageable pageable, CountMode countMode) {
+        log.debug("Finding purchase order summaries with pageable: {}, count mode: {}", pageable, countMode);
+
+        if (countMode == CountMode.EXACT) {
+            return findAllSummaries(pageable);
+        }
+
+        return withCountMode(purchaseOrderHeaderRepository.findSummariesBy(pageable).map(this::toSummaryData), countMode);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public CursorPage<POSummaryData> findSummariesAfter(Integer cursor, int size) {
+        log.debug("Finding purchase order summaries after cursor: {}, size: {}", cursor, size);
+
+        return seekAfter(cursor, size, this::loadSummaries);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public CursorPage<POSummaryData> findSummariesBefore(Integer cursor, int size) {
+        log.debug("Finding purchase order summaries before cursor: {}, size: {}", cursor, size);
+
+        return seekBefore(cursor, size, this::loadSummaries);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Page<POData> search(POSearchCriteria criteria, Pageable pageable) {
+        log.debug("Searching purchase orders with criteria: {}, pageable: {}", criteria, pageable);
+
+        validateSearchCriteria(criteria);
+
+        Specification<PurchaseOrderHeader> specification = Specification.allOf(Stream.of(
+                        PurchaseOrderSpecifications.datetimeFrom(TimezoneUtil.startOfDay(criteria.dateFrom())),
+                        PurchaseOrderSpecifications.datetimeTo(TimezoneUtil.endOfDay(criteria.dateTo())),
+                        PurchaseOrderSpecifications.createdBy(criteria.createdBy()),
+                        PurchaseOrderSpecifications.totalPriceAtLeast(criteria.minTotalPrice()),
+                        PurchaseOrderSpecifications.totalPriceAtMost(criteria.maxTotalPrice()))
+                .filter(Objects::nonNull)
+                .toList());
+
+        Page<Integer> ids = purchaseOrderHeaderRepository.findIds(specification, pageable);
+        return new PageImpl<>(loadWithDetails(ids.getContent()), pageable, ids.getTotalElements());
+    }
+
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    @Override
+    public long exportAll(Consumer<POData> consumer) {
+        log.info("Exporting all purchase orders");
+
+        long exported = 0;
+        List<Integer> chunk = new ArrayList<>(EXPORT_BATCH_SIZE);
+        try (Stream<Integer> ids = purchaseOrderHeaderRepository.streamAllIds()) {
+            Iterator<Integer> iterator = ids.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == EXPORT_BATCH_SIZE || !iterator.hasNext()) {
+                    loadWithDetails(chunk).forEach(consumer);
+                    exported += chunk.size();
+                    chunk.clear();
+                    // Detach exported headers so the persistence context does not grow with the table
+                    entityManager.clear();
+                }
+            }
+        }
+
+        log.info("Exported {} purchase orders", exported);
+        return exported;
+    }
+
+    // No transaction of its own so a cache hit never borrows a database connection
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @Override
     public Optional<POData> findById(Integer id) {
         log.debug("Finding purchase order with id: {}", id);
 
-        return purchaseOrderHeaderRepository.findByIdWithDetails(id).map(this::toData);
+        return purchaseOrderCache.get(id, this::loadById);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @Override
+    public Map<Integer, POData> findAllById(Collection<Integer> ids) {
+        log.debug("Finding {} purchase orders by id", ids.size());
+
+        return purchaseOrderCache.getAll(ids, keys -> purchaseOrderHeaderRepository.findAllWithDetailsByIdIn(keys).stream()
+                .collect(Collectors.toMap(PurchaseOrderHeader::getId, this::toData)));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Optional<POData> findCurrentById(Integer id) {
+        log.debug("Finding current purchase order with id: {}", id);
+
+        return loadById(id);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Optional<Long> findVersion(Integer id) {
+        return purchaseOrderHeaderRepository.findVersionById(id);
     }
 
     @Override
@@ -52,25 +226,86 @@ class PurchaseOrderServiceImpl implements PurchaseOrderService {
                 .map(CreatePODetail::itemId)
                 .collect(Collectors.toList());
 
-        Map<Integer, Item> itemsMap = itemRepository.findAllById(itemIds)
-                .stream()
-                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        Map<Integer, ItemReference> itemsMap = itemReferenceCache.findAllById(itemIds);
 
         validateItemsExist(itemIds, itemsMap);
 
         PurchaseOrderHeader purchaseOrder = buildPurchaseOrderHeader(createDto, itemsMap);
         PurchaseOrderHeader savedPurchaseOrder = purchaseOrderHeaderRepository.save(purchaseOrder);
+        POData created = toData(savedPurchaseOrder);
+        recordEvent(PurchaseOrderEventType.CREATED, created.id(), created.version(), writeJson(created.id(), created));
 
         log.info("Purchase order created with id: {}", savedPurchaseOrder.getId());
-        return toData(savedPurchaseOrder);
+        return created;
+    }
+
+    @Override
+    public POData create(CreatePOCommand createDto, String idempotencyKey) {
+        String requestHash = requestHash(createDto);
+
+        // Claimed in this transaction, so a failed create releases the key for the retry
+        if (idempotencyKeyRepository.insertIfAbsent(idempotencyKey, requestHash) == 0) {
+            return replay(idempotencyKey, requestHash);
+        }
+
+        POData created = create(createDto);
+        idempotencyKeyRepository.complete(idempotencyKey, created.id(), writeJson(created.id(), created));
+        return created;
     }
 
     @Override
-    public POData update(Integer id, UpdatePOCommand dto) {
+    public List<POBatchResult> createAll(List<CreatePOCommand> commands) {
+        log.info("Creating {} purchase orders in batch", commands.size());
+
+        // Validate every referenced item with one query
+        Set<Integer> itemIds = commands.stream()
+                .filter(command -> command.details() != null)
+                .flatMap(command -> command.details().stream())
+                .map(CreatePODetail::itemId)
+                .collect(Collectors.toSet());
+
+        Map<Integer, ItemReference> itemsMap = itemReferenceCache.findAllById(itemIds);
+
+        List<POBatchResult> results = new ArrayList<>(commands.size());
+        int pending = 0;
+        for (int index = 0; index < commands.size(); index++) {
+            CreatePOCommand command = commands.get(index);
+            String error = validateBatchEntry(command, itemsMap);
+            if (error != null) {
+                results.add(POBatchResult.failed(index, error));
+                continue;
+            }
+
+            PurchaseOrderHeader purchaseOrder = buildPurchaseOrderHeader(command, itemsMap);
+            entityManager.persist(purchaseOrder);
+            POData created = toData(purchaseOrder);
+            recordEvent(PurchaseOrderEventType.CREATED, created.id(), created.version(), writeJson(created.id(), created));
+            results.add(POBatchResult.created(index, purchaseOrder.getId()));
+
+            // Flush in full batches and detach them so the persistence context stays small
+            if (++pending == INSERT_BATCH_SIZE) {
+                entityManager.flush();
+                entityManager.clear();
+                pending = 0;
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        long created = results.stream().filter(POBatchResult::isCreated).count();
+        log.info("Batch created {} of {} purchase orders", created, commands.size());
+        return results;
+    }
+
+    @Override
+    public POData update(Integer id, UpdatePOCommand dto, Long expectedVersion) {
         log.info("Updating purchase order with id: {}", id);
 
         PurchaseOrderHeader existingPurchaseOrder = purchaseOrderHeaderRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Purchase Order not found with id: " + id));
+        if (expectedVersion != null && !expectedVersion.equals(existingPurchaseOrder.getVersion())) {
+            throw new PreconditionFailedException("Purchase Order", id, expectedVersion, existingPurchaseOrder.getVersion());
+        }
 
         updatePurchaseOrderFields(existingPurchaseOrder, dto);
 
@@ -79,34 +314,238 @@ class PurchaseOrderServiceImpl implements PurchaseOrderService {
                     .map(CreatePODetail::itemId)
                     .collect(Collectors.toList());
 
-            Map<Integer, Item> itemsMap = itemRepository.findAllById(itemIds)
-                    .stream()
-                    .collect(Collectors.toMap(Item::getId, Function.identity()));
+            Map<Integer, ItemReference> itemsMap = itemReferenceCache.findAllById(itemIds);
 
             validateItemsExist(itemIds, itemsMap);
             updatePurchaseOrderDetails(existingPurchaseOrder, dto, itemsMap);
         }
 
-        PurchaseOrderHeader savedPurchaseOrder = purchaseOrderHeaderRepository.save(existingPurchaseOrder);
+        // Flush so the returned data carries the incremented version
+        PurchaseOrderHeader savedPurchaseOrder = purchaseOrderHeaderRepository.saveAndFlush(existingPurchaseOrder);
+        purchaseOrderCache.evictAfterCommit(id);
+        POData updated = toData(savedPurchaseOrder);
+        recordEvent(PurchaseOrderEventType.UPDATED, id, updated.version(), writeJson(id, updated));
         log.info("Purchase order updated with id: {}", id);
 
-        return toData(savedPurchaseOrder);
+        return updated;
+    }
+
+    @Override
+    public POSummaryData patch(Integer id, PatchPOCommand command, Long expectedVersion) {
+        log.info("Patching purchase order header with id: {}", id);
+
+        if (command.datetime() == null && command.description() == null) {
+            throw new IllegalArgumentException("At least one of datetime or description must be provided");
+        }
+
+        // Header row only, the details collection stays an uninitialized proxy
+        PurchaseOrderHeader purchaseOrder = purchaseOrderHeaderRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Purchase Order not found with id: " + id));
+        if (expectedVersion != null && !expectedVersion.equals(purchaseOrder.getVersion())) {
+            throw new PreconditionFailedException("Purchase Order", id, expectedVersion, purchaseOrder.getVersion());
+        }
+
+        if (command.datetime() != null) {
+            purchaseOrder.setDatetime(TimezoneUtil.fromAppZone(command.datetime()));
+        }
+        if (command.description() != null) {
+            purchaseOrder.setDescription(command.description());
+        }
+        purchaseOrder.setUpdatedBy(command.updatedBy());
+        purchaseOrder.setUpdatedDatetime(Instant.now());
+
+        // Flush so the returned summary carries the incremented version
+        purchaseOrderHeaderRepository.flush();
+        purchaseOrderCache.evictAfterCommit(id);
+        POSummaryData patched = toSummaryData(purchaseOrder);
+        recordEvent(PurchaseOrderEventType.PATCHED, id, patched.version(), writeJson(id, patched));
+        log.info("Purchase order header patched with id: {}", id);
+
+        return patched;
     }
 
     @Override
     public boolean deleteById(Integer id) {
         log.info("Deleting purchase order with id: {}", id);
 
-        if (!purchaseOrderHeaderRepository.existsById(id)) {
+        List<PurchaseOrderVersion> deleted = purchaseOrderHeaderRepository.deleteByIdInReturningVersions(List.of(id));
+        if (deleted.isEmpty()) {
             throw new ResourceNotFoundException("Purchase Order not found with id: " + id);
         }
 
-        purchaseOrderHeaderRepository.deleteById(id);
+        purchaseOrderCache.evictAfterCommit(id);
+        recordDeleted(deleted);
         log.info("Purchase order deleted with id: {}", id);
         return true;
     }
 
-    private void validateItemsExist(List<Integer> itemIds, Map<Integer, Item> itemsMap) {
+    @Override
+    public List<Integer> deleteAllById(Collection<Integer> ids) {
+        log.info("Deleting {} purchase orders by id", ids.size());
+
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<Integer> deleted = recordDeleted(purchaseOrderHeaderRepository.deleteByIdInReturningVersions(ids));
+        purchaseOrderCache.evictAllAfterCommit(deleted);
+        log.info("Deleted {} of {} requested purchase orders", deleted.size(), ids.size());
+        return deleted;
+    }
+
+    @Override
+    public List<Integer> deleteByDatetimeRange(LocalDateTime from, LocalDateTime to) {
+        log.info("Deleting purchase orders dated from {} to {}", from, to);
+
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        List<Integer> deleted = recordDeleted(purchaseOrderHeaderRepository.deleteByDatetimeRangeReturningVersions(
+                TimezoneUtil.fromAppZone(from), TimezoneUtil.fromAppZone(to)));
+        purchaseOrderCache.evictAllAfterCommit(deleted);
+        log.info("Deleted {} purchase orders dated from {} to {}", deleted.size(), from, to);
+        return deleted;
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Override
+    public int purgeChunk(Instant cutoff, int limit) {
+        List<Integer> deleted = recordDeleted(purchaseOrderHeaderRepository.deleteOldestBeforeReturningVersions(cutoff, limit));
+        purchaseOrderCache.evictAllAfterCommit(deleted);
+        return deleted.size();
+    }
+
+    @Override
+    public int repairTotals(Collection<Integer> ids) {
+        log.info("Repairing totals of {} purchase orders", ids.size());
+
+        int repaired = purchaseOrderHeaderRepository.recalculateTotals(ids);
+        purchaseOrderCache.evictAllAfterCommit(ids);
+        // Read back after the update so events carry the repaired totals and bumped versions
+        for (PurchaseOrderHeader purchaseOrder : purchaseOrderHeaderRepository.findAllWithDetailsByIdIn(ids)) {
+            POData repairedData = toData(purchaseOrder);
+            recordEvent(PurchaseOrderEventType.UPDATED, repairedData.id(), repairedData.version(),
+                    writeJson(repairedData.id(), repairedData));
+        }
+        return repaired;
+    }
+
+    private void validateSearchCriteria(POSearchCriteria criteria) {
+        if (criteria.dateFrom() != null && criteria.dateTo() != null && criteria.dateFrom().isAfter(criteria.dateTo())) {
+            throw new IllegalArgumentException("dateFrom must not be after dateTo");
+        }
+        if (criteria.minTotalPrice() != null && criteria.maxTotalPrice() != null && criteria.minTotalPrice() > criteria.maxTotalPrice()) {
+            throw new IllegalArgumentException("minTotalPrice must not be greater than maxTotalPrice");
+        }
+    }
+
+    private Optional<POData> loadById(Integer id) {
+        return purchaseOrderHeaderRepository.findByIdWithDetails(id).map(this::toData);
+    }
+
+    private <T> Slice<T> withCountMode(Slice<T> slice, CountMode countMode) {
+        if (countMode != CountMode.ESTIMATED) {
+            return slice;
+        }
+        return PageUtil.withEstimatedTotal(slice, purchaseOrderHeaderRepository.estimateCount(), purchaseOrderHeaderRepository::count);
+    }
+
+    private <T> CursorPage<T> seekAfter(Integer cursor, int size, Function<List<Integer>, List<T>> loader) {
+        // Fetch one extra row to know whether another page follows
+        Limit limit = Limit.of(size + 1);
+        List<Integer> ids = cursor == null
+                ? purchaseOrderHeaderRepository.findIdsOrderByIdDesc(limit)
+                : purchaseOrderHeaderRepository.findIdsLessThan(cursor, limit);
+
+        boolean hasMore = ids.size() > size;
+        List<Integer> page = hasMore ? ids.subList(0, size) : ids;
+
+        Integer nextCursor = hasMore ? page.get(page.size() - 1) : null;
+        Integer previousCursor = cursor != null && !page.isEmpty() ? page.get(0) : null;
+        return new CursorPage<>(loader.apply(page), nextCursor, previousCursor);
+    }
+
+    private <T> CursorPage<T> seekBefore(Integer cursor, int size, Function<List<Integer>, List<T>> loader) {
+        // Seek upwards from the cursor, then flip back to newest first
+        Limit limit = Limit.of(size + 1);
+        List<Integer> ids = purchaseOrderHeaderRepository.findIdsGreaterThan(cursor, limit);
+
+        boolean hasMore = ids.size() > size;
+        List<Integer> page = new ArrayList<>(hasMore ? ids.subList(0, size) : ids);
+        Collections.reverse(page);
+
+        Integer previousCursor = hasMore ? page.get(0) : null;
+        Integer nextCursor = !page.isEmpty() ? page.get(page.size() - 1) : null;
+        return new CursorPage<>(loader.apply(page), nextCursor, previousCursor);
+    }
+
+    /**
+     * Loads header-only summaries in the order of the given ids, without reading details
+     */
+    private List<POSummaryData> loadSummaries(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Integer, PurchaseOrderSummary> summaries = purchaseOrderHeaderRepository.findSummariesByIdIn(ids)
+                .stream()
+                .collect(Collectors.toMap(PurchaseOrderSummary::id, Function.identity()));
+
+        return ids.stream()
+                .map(summaries::get)
+                .filter(Objects::nonNull)
+                .map(this::toSummaryData)
+                .toList();
+    }
+
+    /**
+     * Loads headers with their details and items in one statement and maps them in the order of the given ids
+     */
+    private List<POData> loadWithDetails(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Integer, PurchaseOrderHeader> headers = purchaseOrderHeaderRepository.findAllWithDetailsByIdIn(ids)
+                .stream()
+                .collect(Collectors.toMap(PurchaseOrderHeader::getId, Function.identity()));
+
+        return ids.stream()
+                .map(headers::get)
+                .filter(Objects::nonNull)
+                .map(this::toData)
+                .toList();
+    }
+
+    /**
+     * Checks one batch entry without touching the database
+     *
+     * @return the rejection reason, or null when the entry can be created
+     */
+    private String validateBatchEntry(CreatePOCommand command, Map<Integer, ItemReference> itemsMap) {
+        if (command.details() == null || command.details().isEmpty()) {
+            return "Purchase order details cannot be empty";
+        }
+
+        List<Integer> itemIds = command.details().stream()
+                .map(CreatePODetail::itemId)
+                .toList();
+
+        List<Integer> missingItemIds = itemIds.stream()
+                .filter(id -> !itemsMap.containsKey(id))
+                .distinct()
+                .toList();
+        if (!missingItemIds.isEmpty()) {
+            return "Items not found with ids: " + missingItemIds;
+        }
+
+        // po_d has a unique key on (poh_id, item_id)
+        if (new HashSet<>(itemIds).size() != itemIds.size()) {
+            return "Each item may appear only once per purchase order";
+        }
+        return null;
+    }
+
+    private void validateItemsExist(List<Integer> itemIds, Map<Integer, ItemReference> itemsMap) {
         List<Integer> missingItemIds = itemIds.stream()
                 .filter(id -> !itemsMap.containsKey(id))
                 .toList();
@@ -124,9 +563,11 @@ class PurchaseOrderServiceImpl implements PurchaseOrderService {
             existingPurchaseOrder.setDescription(dto.description());
         }
         existingPurchaseOrder.setUpdatedBy(dto.updatedBy());
+        // Always dirties the header, so a change limited to details still moves the version
+        existingPurchaseOrder.setUpdatedDatetime(Instant.now());
     }
 
-    private PurchaseOrderHeader buildPurchaseOrderHeader(CreatePOCommand dto, Map<Integer, Item> itemsMap) {
+    private PurchaseOrderHeader buildPurchaseOrderHeader(CreatePOCommand dto, Map<Integer, ItemReference> itemsMap) {
         List<PurchaseOrderDetail> details = dto.details().stream()
                 .map(detail -> buildPurchaseOrderDetail(detail, itemsMap))
                 .toList();
@@ -163,32 +604,135 @@ class PurchaseOrderServiceImpl implements PurchaseOrderService {
                 .mapToLong(PurchaseOrderDetail::getTotalPrice)
                 .sum();
     }
-    private PurchaseOrderDetail buildPurchaseOrderDetail(CreatePODetail detail, Map<Integer, Item> itemsMap) {
-        Item item = itemsMap.get(detail.itemId());
+    private PurchaseOrderDetail buildPurchaseOrderDetail(CreatePODetail detail, Map<Integer, ItemReference> itemsMap) {
+        ItemReference item = itemsMap.get(detail.itemId());
 
+        // Price and cost come from the snapshot, so the item row is only needed as a foreign key proxy
         return PurchaseOrderDetail.builder()
-                .item(item)
+                .item(itemRepository.getReferenceById(item.id()))
                 .itemQty(detail.quantity())
-                .itemCost(detail.cost() != null ? detail.cost() : item.getCost())
-                .itemPrice(detail.unitPrice() != null ? detail.unitPrice() : item.getPrice())
+                .itemCost(detail.cost() != null ? detail.cost() : item.cost())
+                .itemPrice(detail.unitPrice() != null ? detail.unitPrice() : item.price())
                 .build();
     }
 
-    private void updatePurchaseOrderDetails(PurchaseOrderHeader purchaseOrder, UpdatePOCommand dto, Map<Integer, Item> itemsMap) {
-        // Clear existing details
-        purchaseOrder.getDetails().clear();
+    /**
+     * Reconciles the existing lines with the requested ones by item id, the po_d (poh_id, item_id) key.
+     * Unchanged lines are left alone, changed lines are updated in place, and only missing or removed
+     * lines are inserted or deleted. Totals are adjusted by the difference of each touched line.
+     */
+    private void updatePurchaseOrderDetails(PurchaseOrderHeader purchaseOrder, UpdatePOCommand dto, Map<Integer, ItemReference> itemsMap) {
+        Map<Integer, CreatePODetail> requested = new LinkedHashMap<>();
+        for (CreatePODetail detail : dto.details()) {
+            if (requested.put(detail.itemId(), detail) != null) {
+                throw new BusinessException("Each item may appear only once per purchase order, duplicated item id: " + detail.itemId());
+            }
+        }
 
-        // Add new details
-        List<PurchaseOrderDetail> newDetails = dto.details().stream()
-                .map(detailRequest -> buildPurchaseOrderDetail(detailRequest, itemsMap))
-                .collect(Collectors.toList());
+        long totalPrice = purchaseOrder.getTotalPrice() != null ? purchaseOrder.getTotalPrice() : 0L;
+        long totalCost = purchaseOrder.getTotalCost() != null ? purchaseOrder.getTotalCost() : 0L;
+
+        Iterator<PurchaseOrderDetail> existingDetails = purchaseOrder.getDetails().iterator();
+        while (existingDetails.hasNext()) {
+            PurchaseOrderDetail existing = existingDetails.next();
+            // Reading the id of a lazy item proxy does not initialize it
+            CreatePODetail change = requested.remove(existing.getItem().getId());
+
+            totalPrice -= existing.getTotalPrice();
+            totalCost -= existing.getTotalCost();
+            if (change == null) {
+                existingDetails.remove();
+                existing.setPurchaseOrderHeader(null);
+                continue;
+            }
+
+            ItemReference item = itemsMap.get(change.itemId());
+            Long itemPrice = change.unitPrice() != null ? change.unitPrice() : item.price();
+            Long itemCost = change.cost() != null ? change.cost() : item.cost();
+            // Assign only differing values so dirty checking skips untouched lines
+            if (!Objects.equals(existing.getItemQty(), change.quantity())) {
+                existing.setItemQty(change.quantity());
+            }
+            if (!Objects.equals(existing.getItemPrice(), itemPrice)) {
+                existing.setItemPrice(itemPrice);
+            }
+            if (!Objects.equals(existing.getItemCost(), itemCost)) {
+                existing.setItemCost(itemCost);
+            }
+            totalPrice += existing.getTotalPrice();
+            totalCost += existing.getTotalCost();
+        }
+
+        for (CreatePODetail detail : requested.values()) {
+            PurchaseOrderDetail added = buildPurchaseOrderDetail(detail, itemsMap);
+            added.setPurchaseOrderHeader(purchaseOrder);
+            purchaseOrder.getDetails().add(added);
+            totalPrice += added.getTotalPrice();
+            totalCost += added.getTotalCost();
+        }
+
+        purchaseOrder.setTotalPrice(totalPrice);
+        purchaseOrder.setTotalCost(totalCost);
+    }
+
+    private POData replay(String idempotencyKey, String requestHash) {
+        PurchaseOrderIdempotencyKey stored = idempotencyKeyRepository.findById(idempotencyKey)
+                .orElseThrow(() -> new BusinessException("Idempotency-Key was released concurrently, retry the request: " + idempotencyKey));
+        if (!stored.getRequestHash().equals(requestHash)) {
+            throw new DuplicateResourceException("Idempotency-Key was already used for a different request: " + idempotencyKey);
+        }
+
+        log.info("Replaying purchase order {} for Idempotency-Key {}", stored.getPurchaseOrderId(), idempotencyKey);
+        try {
+            return objectMapper.readValue(stored.getResponseBody(), POData.class);
+        } catch (JsonProcessingException e) {
+            throw new BusinessException("Stored response of Idempotency-Key is unreadable: " + idempotencyKey, e);
+        }
+    }
+
+    private String requestHash(CreatePOCommand createDto) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(createDto));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Unable to hash purchase order request", e);
+        }
+    }
+
+    private String writeJson(Integer id, Object data) {
+        try {
+            return objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize purchase order " + id, e);
+        }
+    }
+
+    /**
+     * Queues a change event in the current transaction, the outbox relay publishes it after commit
+     */
+    private void recordEvent(PurchaseOrderEventType type, Integer id, Long version, String payload) {
+        outboxRepository.save(outboxRow(type, id, version, payload));
+    }
 
-        newDetails.forEach(detail -> detail.setPurchaseOrderHeader(purchaseOrder));
-        purchaseOrder.getDetails().addAll(newDetails);
+    /**
+     * Queues a delete event per deleted header, versioned one past its last version
+     * @return the deleted ids
+     */
+    private List<Integer> recordDeleted(List<PurchaseOrderVersion> deleted) {
+        outboxRepository.saveAll(deleted.stream()
+                .map(header -> outboxRow(PurchaseOrderEventType.DELETED, header.getId(), header.getVersion() + 1, null))
+                .toList());
+        return deleted.stream().map(PurchaseOrderVersion::getId).toList();
+    }
 
-        // Recalculate totals
-        purchaseOrder.setTotalCost(calculateTotalCost(newDetails));
-        purchaseOrder.setTotalPrice(calculateTotalPrice(newDetails));
+    private PurchaseOrderOutbox outboxRow(PurchaseOrderEventType type, Integer id, Long version, String payload) {
+        return PurchaseOrderOutbox.builder()
+                .purchaseOrderId(id)
+                .purchaseOrderVersion(version)
+                .eventType(type.name())
+                .payload(payload)
+                .createdDatetime(Instant.now())
+                .build();
     }
 
     POData toData(PurchaseOrderHeader entity) {
@@ -206,9 +750,34 @@ class PurchaseOrderServiceImpl implements PurchaseOrderService {
                 entity.getCreatedBy(),
                 entity.getUpdatedBy(),
                 entity.getCreatedDatetime(),
-                entity.getUpdatedDatetime()
+                entity.getUpdatedDatetime(),
+                entity.getVersion()
         );
     }
+    POSummaryData toSummaryData(PurchaseOrderSummary summary) {
+        return new POSummaryData(
+                summary.id(),
+                TimezoneUtil.toAppLocalDateTime(summary.datetime()),
+                summary.description(),
+                summary.totalPrice(),
+                summary.totalCost(),
+                summary.createdBy(),
+                summary.version()
+        );
+    }
+
+    POSummaryData toSummaryData(PurchaseOrderHeader entity) {
+        return new POSummaryData(
+                entity.getId(),
+                TimezoneUtil.toAppLocalDateTime(entity.getDatetime()),
+                entity.getDescription(),
+                entity.getTotalPrice(),
+                entity.getTotalCost(),
+                entity.getCreatedBy(),
+                entity.getVersion()
+        );
+    }
+
     List<CreatePODetail> mapToDetailData(List<PurchaseOrderDetail> entities) {
         if (entities == null) {
             return new ArrayList<>();
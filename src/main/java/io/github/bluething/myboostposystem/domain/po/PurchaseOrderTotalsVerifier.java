@@ -0,0 +1,108 @@
+package io.github.bluething.myboostposystem.domain.po;
+
+import io.github.bluething.myboostposystem.persistence.PurchaseOrderHeaderRepository;
+import io.github.bluething.myboostposystem.persistence.PurchaseOrderTotalsMismatch;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Checks po_h.total_price and po_h.total_cost against the sum of their detail lines.
+ * Walks headers by id in batches and aggregates each batch's details with one set-based query, so a run
+ * costs a handful of statements per batch no matter how many purchase orders it covers. Mismatches are
+ * logged, and rewritten from the details through {@link PurchaseOrderService#repairTotals} when repair is on,
+ * so reports can read totals straight from po_h and outbox consumers receive the corrected purchase orders.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.totals-verifier", name = "enabled", havingValue = "true")
+@Slf4j
+class PurchaseOrderTotalsVerifier {
+    record Report(long checked, int mismatched, int repaired) {
+    }
+
+    private final PurchaseOrderHeaderRepository purchaseOrderHeaderRepository;
+    private final PurchaseOrderService purchaseOrderService;
+    private final int batchSize;
+    private final boolean repair;
+    private final Counter checkedCounter;
+    private final Counter mismatchedCounter;
+    private final Counter repairedCounter;
+    private final Timer batchTimer;
+
+    PurchaseOrderTotalsVerifier(PurchaseOrderHeaderRepository purchaseOrderHeaderRepository,
+                                PurchaseOrderService purchaseOrderService,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.totals-verifier.batch-size:5000}") int batchSize,
+                                @Value("${app.totals-verifier.repair:false}") boolean repair) {
+        this.purchaseOrderHeaderRepository = purchaseOrderHeaderRepository;
+        this.purchaseOrderService = purchaseOrderService;
+        this.batchSize = batchSize;
+        this.repair = repair;
+        this.checkedCounter = meterRegistry.counter("po.totals.verifier.purchase-orders", "result", "checked");
+        this.mismatchedCounter = meterRegistry.counter("po.totals.verifier.purchase-orders", "result", "mismatched");
+        this.repairedCounter = meterRegistry.counter("po.totals.verifier.purchase-orders", "result", "repaired");
+        this.batchTimer = meterRegistry.timer("po.totals.verifier.batch");
+    }
+
+    @Scheduled(initialDelayString = "${app.totals-verifier.interval:6h}", fixedDelayString = "${app.totals-verifier.interval:6h}")
+    public void scheduledVerify() {
+        verify();
+    }
+
+    Report verify() {
+        long checked = 0;
+        int mismatched = 0;
+        int repaired = 0;
+        Integer afterId = 0;
+
+        while (true) {
+            List<Integer> ids = purchaseOrderHeaderRepository.findIdsGreaterThan(afterId, Limit.of(batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            Integer toId = ids.getLast();
+
+            Timer.Sample sample = Timer.start();
+            List<PurchaseOrderTotalsMismatch> mismatches = purchaseOrderHeaderRepository.findTotalsMismatches(afterId, toId);
+            int batchRepaired = mismatches.isEmpty() ? 0 : handle(mismatches);
+            sample.stop(batchTimer);
+
+            checked += ids.size();
+            mismatched += mismatches.size();
+            repaired += batchRepaired;
+            checkedCounter.increment(ids.size());
+            mismatchedCounter.increment(mismatches.size());
+            repairedCounter.increment(batchRepaired);
+
+            if (ids.size() < batchSize) {
+                break;
+            }
+            afterId = toId;
+        }
+
+        log.info("Verified totals of {} purchase orders, {} mismatched, {} repaired", checked, mismatched, repaired);
+        return new Report(checked, mismatched, repaired);
+    }
+
+    private int handle(List<PurchaseOrderTotalsMismatch> mismatches) {
+        for (PurchaseOrderTotalsMismatch mismatch : mismatches) {
+            log.warn("Purchase order {} totals drifted: price {} vs details {}, cost {} vs details {}",
+                    mismatch.getId(), mismatch.getTotalPrice(), mismatch.getDetailTotalPrice(),
+                    mismatch.getTotalCost(), mismatch.getDetailTotalCost());
+        }
+        if (!repair) {
+            return 0;
+        }
+
+        List<Integer> ids = mismatches.stream().map(PurchaseOrderTotalsMismatch::getId).toList();
+        return purchaseOrderService.repairTotals(ids);
+    }
+}
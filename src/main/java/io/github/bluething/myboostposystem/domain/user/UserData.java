@@ -13,5 +13,6 @@ public record UserData(Integer id,
                        String createdBy,
                        String updatedBy,
                        Instant createdDatetime,
-                       Instant updatedDatetime) {
+                       Instant updatedDatetime,
+                       Long version) {
 }
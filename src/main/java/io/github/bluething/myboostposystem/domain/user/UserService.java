@@ -1,8 +1,12 @@
 package io.github.bluething.myboostposystem.domain.user;
 
+import io.github.bluething.myboostposystem.common.CountMode;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 
 public interface UserService {
@@ -10,9 +14,15 @@ public interface UserService {
 
     Optional<UserData> getUserById(Integer id);
 
+    Map<Integer, UserData> getUsersById(Collection<Integer> ids);
+
+    Optional<Long> getUserVersion(Integer id);
+
     Page<UserData> getAllUsers(Pageable pageable);
 
-    Optional<UserData> updateUser(Integer id, UpdateUserCommand command);
+    Slice<UserData> getAllUsers(Pageable pageable, CountMode countMode);
+
+    Optional<UserData> updateUser(Integer id, UpdateUserCommand command, Long expectedVersion);
 
     boolean deleteUser(Integer id);
 }
@@ -1,17 +1,24 @@
 package io.github.bluething.myboostposystem.domain.user;
 
+import io.github.bluething.myboostposystem.common.CountMode;
+import io.github.bluething.myboostposystem.common.PageUtil;
 import io.github.bluething.myboostposystem.exception.DuplicateResourceException;
+import io.github.bluething.myboostposystem.exception.PreconditionFailedException;
 import io.github.bluething.myboostposystem.persistence.User;
 import io.github.bluething.myboostposystem.persistence.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -43,6 +50,21 @@ class UserServiceImpl implements UserService {
                 .map(this::toData);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Integer, UserData> getUsersById(Collection<Integer> ids) {
+        log.debug("Fetching {} users by ID", ids.size());
+
+        return userRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(User::getId, this::toData));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> getUserVersion(Integer id) {
+        return userRepository.findVersionById(id);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<UserData> getAllUsers(Pageable pageable) {
@@ -53,16 +75,37 @@ class UserServiceImpl implements UserService {
     }
 
     @Override
-    public Optional<UserData> updateUser(Integer id, UpdateUserCommand command) {
+    @Transactional(readOnly = true)
+    public Slice<UserData> getAllUsers(Pageable pageable, CountMode countMode) {
+        log.debug("Fetching all users with count mode: {}", countMode);
+
+        if (countMode == CountMode.EXACT) {
+            return getAllUsers(pageable);
+        }
+
+        Slice<UserData> users = userRepository.findAllBy(pageable).map(this::toData);
+        if (countMode == CountMode.ESTIMATED) {
+            return PageUtil.withEstimatedTotal(users, userRepository.estimateCount(), userRepository::count);
+        }
+        return users;
+    }
+
+    @Override
+    public Optional<UserData> updateUser(Integer id, UpdateUserCommand command, Long expectedVersion) {
         log.debug("Updating user with ID: {}", id);
 
         return userRepository.findById(id)
                 .map(existingUser -> {
+                    if (expectedVersion != null && !expectedVersion.equals(existingUser.getVersion())) {
+                        throw new PreconditionFailedException("User", id, expectedVersion, existingUser.getVersion());
+                    }
+
                     // Business validation - check if email is being updated and if it already exists
                     validateEmailUniquenessForUpdate(command.email(), existingUser.getEmail());
 
                     User updatedUser = toEntity(command, existingUser);
-                    User savedUser = userRepository.save(updatedUser);
+                    // Flush so the returned data carries the incremented version
+                    User savedUser = userRepository.saveAndFlush(updatedUser);
 
                     log.info("User updated successfully with ID: {}", savedUser.getId());
                     return toData(savedUser);
@@ -151,6 +194,7 @@ class UserServiceImpl implements UserService {
                 .updatedBy(entity.getUpdatedBy())
                 .createdDatetime(entity.getCreatedDatetime())
                 .updatedDatetime(entity.getUpdatedDatetime())
+                .version(entity.getVersion())
                 .build();
     }
 
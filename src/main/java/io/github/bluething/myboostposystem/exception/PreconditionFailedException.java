@@ -0,0 +1,12 @@
+package io.github.bluething.myboostposystem.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+
+    public PreconditionFailedException(String resourceName, Integer id, Long expectedVersion, Long currentVersion) {
+        super(String.format("%s %d is at version %d, not the expected version %d",
+                resourceName, id, currentVersion, expectedVersion));
+    }
+}
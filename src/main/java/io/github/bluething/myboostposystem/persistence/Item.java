@@ -9,7 +9,8 @@ import lombok.*;
         @Index(name = "idx_items_name", columnList = "name"),
         @Index(name = "idx_items_price", columnList = "price"),
         @Index(name = "idx_items_cost", columnList = "cost"),
-        @Index(name = "idx_items_created_datetime", columnList = "created_datetime")
+        @Index(name = "idx_items_created_datetime", columnList = "created_datetime"),
+        @Index(name = "idx_items_updated_datetime", columnList = "updated_datetime")
 })
 @Getter
 @Setter
@@ -23,6 +24,13 @@ public class Item extends BaseEntity {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
+    /**
+     * Optimistic locking version, exposed to clients as the ETag
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @NotBlank(message = "Item name is required")
     @Size(max = 500, message = "Item name must not exceed 500 characters")
     @Column(name = "name", length = 500, nullable = false)
@@ -0,0 +1,19 @@
+package io.github.bluething.myboostposystem.persistence;
+
+import java.time.Instant;
+
+/**
+ * Every item column except the search vector, read to build the in-memory item catalog.
+ * Selected through a constructor expression, so it is never a managed entity.
+ */
+public record ItemCatalogRow(Integer id,
+                             String name,
+                             String description,
+                             Long price,
+                             Long cost,
+                             String createdBy,
+                             String updatedBy,
+                             Instant createdDatetime,
+                             Instant updatedDatetime,
+                             Long version) {
+}
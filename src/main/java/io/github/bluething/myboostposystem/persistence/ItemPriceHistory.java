@@ -0,0 +1,45 @@
+package io.github.bluething.myboostposystem.persistence;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+
+/**
+ * Price and cost of an item from {@code validFrom} until the next row of the same item.
+ * Rows are only ever appended, a price change adds a row instead of updating one.
+ */
+@Entity
+@Immutable
+@Table(name = "item_price_history", indexes = {
+        @Index(name = "idx_item_price_history_item_valid_from", columnList = "item_id, valid_from")
+})
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ItemPriceHistory {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_price_history_id_seq")
+    @SequenceGenerator(name = "item_price_history_id_seq", sequenceName = "item_price_history_id_seq", allocationSize = 50)
+    private Long id;
+
+    /**
+     * Not a foreign key, the history outlives a deleted item
+     */
+    @Column(name = "item_id", nullable = false)
+    private Integer itemId;
+
+    @Column(name = "price", nullable = false, columnDefinition = "BIGINT")
+    private Long price;
+
+    @Column(name = "cost", nullable = false, columnDefinition = "BIGINT")
+    private Long cost;
+
+    @Column(name = "valid_from", nullable = false, columnDefinition = "TIMESTAMPTZ")
+    private Instant validFrom;
+
+    @Column(name = "created_by")
+    private String createdBy;
+}
@@ -0,0 +1,30 @@
+package io.github.bluething.myboostposystem.persistence;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface ItemPriceHistoryRepository extends JpaRepository<ItemPriceHistory, Long> {
+    /**
+     * Price in effect at the given time, the newest row at or before it.
+     * One backward descent of the (item_id, valid_from) index, whatever the length of the history.
+     */
+    Optional<ItemPriceHistory> findFirstByItemIdAndValidFromLessThanEqualOrderByValidFromDesc(Integer itemId, Instant at);
+
+    /**
+     * Current price, the newest row of the item
+     */
+    Optional<ItemPriceHistory> findFirstByItemIdOrderByValidFromDesc(Integer itemId);
+
+    /**
+     * Appends a row valid from the database clock, the same clock the CSV import uses,
+     * so rows written by different nodes stay in order whatever their JVM clocks say.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO item_price_history (item_id, price, cost, valid_from, created_by) " +
+            "VALUES (:itemId, :price, :cost, now(), :createdBy)", nativeQuery = true)
+    int append(Integer itemId, Long price, Long cost, String createdBy);
+}
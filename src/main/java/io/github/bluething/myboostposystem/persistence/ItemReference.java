@@ -0,0 +1,11 @@
+package io.github.bluething.myboostposystem.persistence;
+
+/**
+ * The item columns a purchase order line needs.
+ * Selected through a constructor expression, so it is never a managed entity.
+ */
+public record ItemReference(Integer id,
+                            String name,
+                            Long price,
+                            Long cost) {
+}
@@ -1,6 +1,76 @@
 package io.github.bluething.myboostposystem.persistence;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ItemRepository extends JpaRepository<Item, Integer> {
+    String SELECT_CATALOG_ROW = "SELECT new io.github.bluething.myboostposystem.persistence.ItemCatalogRow(" +
+            "i.id, i.name, i.description, i.price, i.cost, i.createdBy, i.updatedBy, " +
+            "i.createdDatetime, i.updatedDatetime, i.version) FROM Item i";
+
+    /**
+     * Current optimistic locking version.
+     * Reads only the primary key index and one row, never related tables.
+     */
+    @Query("SELECT i.version FROM Item i WHERE i.id = :id")
+    Optional<Long> findVersionById(Integer id);
+
+    /**
+     * Pages items without the count query
+     */
+    Slice<Item> findAllBy(Pageable pageable);
+
+    /**
+     * Planner row estimate, -1 when the table was never analyzed
+     */
+    @Query(value = "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE oid = to_regclass('items')", nativeQuery = true)
+    Long estimateCount();
+
+    @Query("SELECT new io.github.bluething.myboostposystem.persistence.ItemReference(i.id, i.name, i.price, i.cost) " +
+            "FROM Item i WHERE i.id IN :ids")
+    List<ItemReference> findReferencesByIdIn(Collection<Integer> ids);
+
+    /**
+     * Streams the whole catalog over a server-side cursor.
+     * Must be consumed inside a transaction, otherwise the driver ignores the fetch size and buffers all rows.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(SELECT_CATALOG_ROW)
+    Stream<ItemCatalogRow> streamCatalog();
+
+    /**
+     * Items written at or after the given time, served by the updated_datetime index
+     */
+    @Query(SELECT_CATALOG_ROW + " WHERE i.updatedDatetime >= :since")
+    List<ItemCatalogRow> findCatalogRowsUpdatedSince(Instant since);
+
+    @Query(SELECT_CATALOG_ROW + " WHERE i.id IN :ids")
+    List<ItemCatalogRow> findCatalogRowsByIdIn(Collection<Integer> ids);
+
+    /**
+     * Ranked catalog search. Whole words match through the search_vector GIN index, names that only
+     * resemble the query (typos, partial words) through word similarity on the name trigram GIN index.
+     */
+    @Query(value = """
+            SELECT i.*
+            FROM items i, websearch_to_tsquery('simple', :query) q
+            WHERE i.search_vector @@ q OR :query <% i.name
+            ORDER BY ts_rank(i.search_vector, q) + word_similarity(:query, i.name) DESC, i.id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Item> search(String query, int limit);
 }
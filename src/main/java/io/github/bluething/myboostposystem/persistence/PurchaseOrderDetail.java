@@ -3,6 +3,8 @@ package io.github.bluething.myboostposystem.persistence;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 
 @Entity
 @Table(name = "po_d", indexes = {
@@ -21,14 +23,16 @@ import lombok.*;
 @ToString(exclude = {"purchaseOrderHeader", "item"})
 public class PurchaseOrderDetail {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "po_d_id_seq")
+    @SequenceGenerator(name = "po_d_id_seq", sequenceName = "po_d_id_seq", allocationSize = 50)
     private Integer id;
 
     /**
      * Many-to-one relationship with Purchase Order Header
-     * Each detail belongs to one purchase order header
+     * Each detail belongs to one purchase order header, the database removes it with its header
      */
     @ManyToOne(fetch = FetchType.LAZY)
+    @OnDelete(action = OnDeleteAction.CASCADE)
     @JoinColumn(name = "poh_id", nullable = false, foreignKey = @ForeignKey(name = "fk_po_d_poh_id"))
     @NotNull(message = "Purchase order header is required")
     private PurchaseOrderHeader purchaseOrderHeader;
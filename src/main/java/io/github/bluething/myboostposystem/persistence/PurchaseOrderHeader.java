@@ -4,12 +4,14 @@ import io.github.bluething.myboostposystem.common.TimezoneUtil;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@DynamicUpdate
 @Table(name = "po_h", indexes = {
         @Index(name = "idx_po_h_datetime", columnList = "datetime"),
         @Index(name = "idx_po_h_total_price", columnList = "total_price"),
@@ -25,10 +27,21 @@ import java.util.List;
 @EqualsAndHashCode(callSuper = false, of = "id")
 @ToString(exclude = {"details", "createdDatetime", "updatedDatetime"})
 public class PurchaseOrderHeader extends BaseEntity {
+    /**
+     * Pooled sequence ids let Hibernate batch inserts; the increment must match the sequence
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "po_h_id_seq")
+    @SequenceGenerator(name = "po_h_id_seq", sequenceName = "po_h_id_seq", allocationSize = 50)
     private Integer id;
 
+    /**
+     * Optimistic locking version, exposed to clients as the ETag
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     /**
      * Purchase order datetime stored as Instant (UTC)
      * PostgreSQL TIMESTAMPTZ ensures proper timezone handling
@@ -165,14 +178,14 @@ public class PurchaseOrderHeader extends BaseEntity {
     }
 
     /**
-     * Pre-update callback to set audit fields
+     * Pre-update callback to set audit fields.
+     * Totals are maintained by whoever changes the details, recalculating them here
+     * would load every detail line on a header-only update.
      */
     @PreUpdate
     protected void onUpdate() {
         if (getUpdatedBy() == null) {
             setUpdatedBy("system");
         }
-        // Recalculate totals before update
-        calculateTotals();
     }
 }
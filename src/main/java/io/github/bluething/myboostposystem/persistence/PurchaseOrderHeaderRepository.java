@@ -1,11 +1,148 @@
 package io.github.bluething.myboostposystem.persistence;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface PurchaseOrderHeaderRepository extends JpaRepository<PurchaseOrderHeader, Integer> {
+public interface PurchaseOrderHeaderRepository extends JpaRepository<PurchaseOrderHeader, Integer>,
+        JpaSpecificationExecutor<PurchaseOrderHeader>, PurchaseOrderHeaderSearchRepository {
     @Query("SELECT p FROM PurchaseOrderHeader p LEFT JOIN FETCH p.details d LEFT JOIN FETCH d.item WHERE p.id = :id")
     Optional<PurchaseOrderHeader> findByIdWithDetails(Integer id);
+
+    /**
+     * Current optimistic locking version.
+     * Reads only the primary key index and one row, never related tables.
+     */
+    @Query("SELECT p.version FROM PurchaseOrderHeader p WHERE p.id = :id")
+    Optional<Long> findVersionById(Integer id);
+
+    /**
+     * Fetches the given headers together with their details and items in a single statement.
+     * Used after paging header ids so list mapping does not fire one detail query per header.
+     */
+    @Query("SELECT DISTINCT p FROM PurchaseOrderHeader p LEFT JOIN FETCH p.details d LEFT JOIN FETCH d.item WHERE p.id IN :ids")
+    List<PurchaseOrderHeader> findAllWithDetailsByIdIn(Collection<Integer> ids);
+
+    @Query(value = "SELECT p.id FROM PurchaseOrderHeader p",
+            countQuery = "SELECT count(p) FROM PurchaseOrderHeader p")
+    Page<Integer> findAllIds(Pageable pageable);
+
+    @Query("SELECT p.id FROM PurchaseOrderHeader p")
+    Slice<Integer> findIdsBy(Pageable pageable);
+
+    @Query(value = "SELECT new io.github.bluething.myboostposystem.persistence.PurchaseOrderSummary(" +
+            "p.id, p.datetime, p.description, p.totalPrice, p.totalCost, p.createdBy, p.version) FROM PurchaseOrderHeader p",
+            countQuery = "SELECT count(p) FROM PurchaseOrderHeader p")
+    Page<PurchaseOrderSummary> findAllSummaries(Pageable pageable);
+
+    @Query("SELECT new io.github.bluething.myboostposystem.persistence.PurchaseOrderSummary(" +
+            "p.id, p.datetime, p.description, p.totalPrice, p.totalCost, p.createdBy, p.version) FROM PurchaseOrderHeader p WHERE p.id IN :ids")
+    List<PurchaseOrderSummary> findSummariesByIdIn(Collection<Integer> ids);
+
+    @Query("SELECT new io.github.bluething.myboostposystem.persistence.PurchaseOrderSummary(" +
+            "p.id, p.datetime, p.description, p.totalPrice, p.totalCost, p.createdBy, p.version) FROM PurchaseOrderHeader p")
+    Slice<PurchaseOrderSummary> findSummariesBy(Pageable pageable);
+
+    /**
+     * Streams every header id in ascending order over a server-side cursor.
+     * Must be consumed inside a transaction, otherwise the driver ignores the fetch size and buffers all rows.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.id FROM PurchaseOrderHeader p ORDER BY p.id")
+    Stream<Integer> streamAllIds();
+
+    /**
+     * Planner row estimate, -1 when the table was never analyzed
+     */
+    @Query(value = "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE oid = to_regclass('po_h')", nativeQuery = true)
+    Long estimateCount();
+
+    /**
+     * Keyset queries, newest first. They seek on the primary key index instead of
+     * skipping rows, so the cost does not depend on how deep the page is.
+     */
+    @Query("SELECT p.id FROM PurchaseOrderHeader p ORDER BY p.id DESC")
+    List<Integer> findIdsOrderByIdDesc(Limit limit);
+
+    @Query("SELECT p.id FROM PurchaseOrderHeader p WHERE p.id < :id ORDER BY p.id DESC")
+    List<Integer> findIdsLessThan(Integer id, Limit limit);
+
+    @Query("SELECT p.id FROM PurchaseOrderHeader p WHERE p.id > :id ORDER BY p.id ASC")
+    List<Integer> findIdsGreaterThan(Integer id, Limit limit);
+
+    /**
+     * Set-based deletes. Each one is a single statement: details go through the
+     * ON DELETE CASCADE of fk_po_d_poh_id instead of being loaded and removed row by row.
+     * They bypass the persistence context, so callers must not hold the deleted headers.
+     * The last version of every deleted header is returned for its delete event.
+     */
+    @Query(value = "DELETE FROM po_h WHERE id IN (:ids) RETURNING id, version", nativeQuery = true)
+    List<PurchaseOrderVersion> deleteByIdInReturningVersions(Collection<Integer> ids);
+
+    @Query(value = "DELETE FROM po_h WHERE datetime >= :from AND datetime < :to RETURNING id, version", nativeQuery = true)
+    List<PurchaseOrderVersion> deleteByDatetimeRangeReturningVersions(Instant from, Instant to);
+
+    /**
+     * Deletes at most {@code limit} of the oldest headers before the cutoff.
+     * Rows locked by a concurrent writer are skipped and picked up by a later chunk.
+     */
+    @Query(value = "DELETE FROM po_h WHERE id IN (" +
+            "SELECT id FROM po_h WHERE datetime < :cutoff ORDER BY datetime LIMIT :limit FOR UPDATE SKIP LOCKED" +
+            ") RETURNING id, version", nativeQuery = true)
+    List<PurchaseOrderVersion> deleteOldestBeforeReturningVersions(Instant cutoff, int limit);
+
+    /**
+     * Headers in (afterId, toId] whose totals differ from SUM over their details.
+     * Details are aggregated for the whole id range in one pass over idx_po_d_poh_id.
+     */
+    @Query(value = """
+            SELECT h.id AS id, h.total_price AS totalPrice, h.total_cost AS totalCost,
+                   COALESCE(d.total_price, 0) AS detailTotalPrice, COALESCE(d.total_cost, 0) AS detailTotalCost
+            FROM po_h h
+            LEFT JOIN (SELECT poh_id,
+                              CAST(SUM(item_qty * item_price) AS BIGINT) AS total_price,
+                              CAST(SUM(item_qty * item_cost) AS BIGINT) AS total_cost
+                       FROM po_d
+                       WHERE poh_id > :afterId AND poh_id <= :toId
+                       GROUP BY poh_id) d ON d.poh_id = h.id
+            WHERE h.id > :afterId AND h.id <= :toId
+              AND (h.total_price <> COALESCE(d.total_price, 0) OR h.total_cost <> COALESCE(d.total_cost, 0))
+            ORDER BY h.id
+            """, nativeQuery = true)
+    List<PurchaseOrderTotalsMismatch> findTotalsMismatches(Integer afterId, Integer toId);
+
+    /**
+     * Rewrites the totals of the given headers from their current details and bumps their version,
+     * so cached copies and ETags handed out before the repair stop matching.
+     * Clears the persistence context so headers read afterwards carry the new totals.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(value = """
+            UPDATE po_h h
+            SET total_price = (SELECT COALESCE(SUM(d.item_qty * d.item_price), 0) FROM po_d d WHERE d.poh_id = h.id),
+                total_cost = (SELECT COALESCE(SUM(d.item_qty * d.item_cost), 0) FROM po_d d WHERE d.poh_id = h.id),
+                version = h.version + 1,
+                updated_datetime = now()
+            WHERE h.id IN (:ids)
+            """, nativeQuery = true)
+    int recalculateTotals(Collection<Integer> ids);
 }
@@ -0,0 +1,16 @@
+package io.github.bluething.myboostposystem.persistence;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Specification queries on {@link PurchaseOrderHeader} that select ids only
+ */
+public interface PurchaseOrderHeaderSearchRepository {
+    /**
+     * Pages the ids of the headers matching the specification, sorted by the pageable.
+     * Headers are not loaded, callers fetch the page with {@link PurchaseOrderHeaderRepository#findAllWithDetailsByIdIn}.
+     */
+    Page<Integer> findIds(Specification<PurchaseOrderHeader> specification, Pageable pageable);
+}
@@ -0,0 +1,57 @@
+package io.github.bluething.myboostposystem.persistence;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+
+class PurchaseOrderHeaderSearchRepositoryImpl implements PurchaseOrderHeaderSearchRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<Integer> findIds(Specification<PurchaseOrderHeader> specification, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<Integer> query = cb.createQuery(Integer.class);
+        Root<PurchaseOrderHeader> root = query.from(PurchaseOrderHeader.class);
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        query.select(root.get("id"));
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        TypedQuery<Integer> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult(Math.toIntExact(pageable.getOffset()));
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<Integer> ids = typedQuery.getResultList();
+
+        return PageableExecutionUtils.getPage(ids, pageable, () -> count(specification));
+    }
+
+    private long count(Specification<PurchaseOrderHeader> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<PurchaseOrderHeader> root = query.from(PurchaseOrderHeader.class);
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        query.select(cb.count(root));
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
@@ -0,0 +1,43 @@
+package io.github.bluething.myboostposystem.persistence;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Idempotency-Key of a purchase order create request with the response it produced.
+ * Rows are inserted natively, see {@link PurchaseOrderIdempotencyKeyRepository#insertIfAbsent(String, String)}.
+ */
+@Entity
+@Table(name = "po_idempotency_key", indexes = {
+        @Index(name = "idx_po_idempotency_key_created_datetime", columnList = "created_datetime")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class PurchaseOrderIdempotencyKey {
+    @Id
+    @Column(name = "idempotency_key", length = 255)
+    private String idempotencyKey;
+
+    /**
+     * SHA-256 of the request, a reused key must come with the same request
+     */
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    /**
+     * Not a foreign key, the stored response outlives a later delete of the purchase order
+     */
+    @Column(name = "poh_id")
+    private Integer purchaseOrderId;
+
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Column(name = "created_datetime", nullable = false, columnDefinition = "TIMESTAMPTZ")
+    private Instant createdDatetime;
+}
@@ -0,0 +1,40 @@
+package io.github.bluething.myboostposystem.persistence;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+
+public interface PurchaseOrderIdempotencyKeyRepository extends JpaRepository<PurchaseOrderIdempotencyKey, String> {
+
+    /**
+     * Claims the key for the current transaction.
+     * A concurrent claim of the same key waits on the primary key until this transaction ends,
+     * then inserts nothing if it committed.
+     *
+     * @return 1 if the key was claimed, 0 if it already exists
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO po_idempotency_key (idempotency_key, request_hash, created_datetime)
+            VALUES (:key, :requestHash, now())
+            ON CONFLICT (idempotency_key) DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("key") String key, @Param("requestHash") String requestHash);
+
+    @Modifying
+    @Query("""
+            UPDATE PurchaseOrderIdempotencyKey k
+            SET k.purchaseOrderId = :purchaseOrderId, k.responseBody = :responseBody
+            WHERE k.idempotencyKey = :key
+            """)
+    int complete(@Param("key") String key,
+                 @Param("purchaseOrderId") Integer purchaseOrderId,
+                 @Param("responseBody") String responseBody);
+
+    @Modifying
+    @Query("DELETE FROM PurchaseOrderIdempotencyKey k WHERE k.createdDatetime < :before")
+    int deleteCreatedBefore(@Param("before") Instant before);
+}
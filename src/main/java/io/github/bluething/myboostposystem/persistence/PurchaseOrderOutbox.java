@@ -0,0 +1,46 @@
+package io.github.bluething.myboostposystem.persistence;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Purchase order change event waiting to be published.
+ * Written in the transaction of the change itself and deleted by the relay once the sink accepted it.
+ */
+@Entity
+@Table(name = "po_outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PurchaseOrderOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "po_outbox_id_seq")
+    @SequenceGenerator(name = "po_outbox_id_seq", sequenceName = "po_outbox_id_seq", allocationSize = 50)
+    private Long id;
+
+    /**
+     * Not a foreign key, the event of a delete outlives its purchase order
+     */
+    @Column(name = "poh_id", nullable = false)
+    private Integer purchaseOrderId;
+
+    /**
+     * Version of the purchase order the event leaves behind, a delete counts as one more change.
+     * Null only for events queued before the column existed.
+     */
+    @Column(name = "poh_version")
+    private Long purchaseOrderVersion;
+
+    @Column(name = "event_type", nullable = false, length = 16)
+    private String eventType;
+
+    @Column(name = "payload", columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "created_datetime", nullable = false, columnDefinition = "TIMESTAMPTZ")
+    private Instant createdDatetime;
+}
@@ -0,0 +1,15 @@
+package io.github.bluething.myboostposystem.persistence;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface PurchaseOrderOutboxRepository extends JpaRepository<PurchaseOrderOutbox, Long> {
+    /**
+     * Locks the oldest unpublished events for the current transaction.
+     * Rows locked by another relay are skipped, so several nodes drain disjoint batches without waiting on each other.
+     */
+    @Query(value = "SELECT * FROM po_outbox ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<PurchaseOrderOutbox> lockOldest(int limit);
+}
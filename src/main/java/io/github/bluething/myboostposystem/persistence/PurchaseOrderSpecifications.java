@@ -0,0 +1,34 @@
+package io.github.bluething.myboostposystem.persistence;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+
+/**
+ * Search predicates on {@link PurchaseOrderHeader}, one per indexed po_h column.
+ * Each factory returns null for a null argument so absent filters drop out of the query.
+ */
+public final class PurchaseOrderSpecifications {
+    private PurchaseOrderSpecifications() {
+    }
+
+    public static Specification<PurchaseOrderHeader> datetimeFrom(Instant from) {
+        return from == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("datetime"), from);
+    }
+
+    public static Specification<PurchaseOrderHeader> datetimeTo(Instant to) {
+        return to == null ? null : (root, query, cb) -> cb.lessThanOrEqualTo(root.get("datetime"), to);
+    }
+
+    public static Specification<PurchaseOrderHeader> createdBy(String createdBy) {
+        return createdBy == null || createdBy.isBlank() ? null : (root, query, cb) -> cb.equal(root.get("createdBy"), createdBy);
+    }
+
+    public static Specification<PurchaseOrderHeader> totalPriceAtLeast(Long min) {
+        return min == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("totalPrice"), min);
+    }
+
+    public static Specification<PurchaseOrderHeader> totalPriceAtMost(Long max) {
+        return max == null ? null : (root, query, cb) -> cb.lessThanOrEqualTo(root.get("totalPrice"), max);
+    }
+}
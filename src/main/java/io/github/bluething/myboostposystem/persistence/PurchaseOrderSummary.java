@@ -0,0 +1,16 @@
+package io.github.bluething.myboostposystem.persistence;
+
+import java.time.Instant;
+
+/**
+ * Header-only read model of a purchase order.
+ * Selected through a constructor expression, so it is never a managed entity and never touches po_d.
+ */
+public record PurchaseOrderSummary(Integer id,
+                                   Instant datetime,
+                                   String description,
+                                   Long totalPrice,
+                                   Long totalCost,
+                                   String createdBy,
+                                   Long version) {
+}
@@ -0,0 +1,17 @@
+package io.github.bluething.myboostposystem.persistence;
+
+/**
+ * Header whose stored totals differ from the sum of its detail lines.
+ * Interface projection of a native query, never a managed entity.
+ */
+public interface PurchaseOrderTotalsMismatch {
+    Integer getId();
+
+    Long getTotalPrice();
+
+    Long getTotalCost();
+
+    Long getDetailTotalPrice();
+
+    Long getDetailTotalCost();
+}
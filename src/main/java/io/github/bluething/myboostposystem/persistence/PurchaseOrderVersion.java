@@ -0,0 +1,11 @@
+package io.github.bluething.myboostposystem.persistence;
+
+/**
+ * Id and optimistic locking version of a header, as returned by the set-based deletes.
+ * Interface projection of a native query, never a managed entity.
+ */
+public interface PurchaseOrderVersion {
+    Integer getId();
+
+    Long getVersion();
+}
@@ -25,6 +25,13 @@ public class User extends BaseEntity {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
+    /**
+     * Optimistic locking version, exposed to clients as the ETag
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @NotBlank(message = "First name is required")
     @Size(max = 500, message = "First name must not exceed 500 characters")
     @Column(name = "first_name", length = 500, nullable = false)
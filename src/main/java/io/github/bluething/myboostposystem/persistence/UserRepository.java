@@ -1,9 +1,32 @@
 package io.github.bluething.myboostposystem.persistence;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
 public interface UserRepository extends JpaRepository<User, Integer> {
     boolean existsByEmail(String email);
+
+    /**
+     * Current optimistic locking version.
+     * Reads only the primary key index and one row, never related tables.
+     */
+    @Query("SELECT u.version FROM User u WHERE u.id = :id")
+    Optional<Long> findVersionById(Integer id);
+
+    /**
+     * Pages users without the count query
+     */
+    Slice<User> findAllBy(Pageable pageable);
+
+    /**
+     * Planner row estimate, -1 when the table was never analyzed
+     */
+    @Query(value = "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE oid = to_regclass('users')", nativeQuery = true)
+    Long estimateCount();
 }
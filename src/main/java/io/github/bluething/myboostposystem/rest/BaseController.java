@@ -1,13 +1,15 @@
 package io.github.bluething.myboostposystem.rest;
 
+import io.github.bluething.myboostposystem.exception.PreconditionFailedException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 @Slf4j
-abstract class BaseController {
+public abstract class BaseController {
     /**
      * Create a successful response with data
      */
@@ -33,22 +35,75 @@ abstract class BaseController {
      * Create a paginated response with metadata
      */
     protected <T> ResponseEntity<PagedResponse<T>> pagedResponse(Page<T> page) {
+        return pagedResponse(page, true);
+    }
+
+    /**
+     * Create a paginated response from a slice, which carries totals only when it is a page
+     */
+    protected <T> ResponseEntity<PagedResponse<T>> pagedResponse(Slice<T> slice, boolean totalExact) {
+        Long totalElements = null;
+        Integer totalPages = null;
+        if (slice instanceof Page<T> page) {
+            totalElements = page.getTotalElements();
+            totalPages = page.getTotalPages();
+        }
+
         PagedResponse<T> response = new PagedResponse<>(
-                page.getContent(),
+                slice.getContent(),
                 new PageMetadata(
-                        page.getNumber(),
-                        page.getSize(),
-                        page.getTotalElements(),
-                        page.getTotalPages(),
-                        page.isFirst(),
-                        page.isLast(),
-                        page.hasNext(),
-                        page.hasPrevious()
+                        slice.getNumber(),
+                        slice.getSize(),
+                        totalElements,
+                        totalPages,
+                        totalExact && totalElements != null,
+                        slice.isFirst(),
+                        slice.isLast(),
+                        slice.hasNext(),
+                        slice.hasPrevious()
                 )
         );
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Create a strong ETag from the resource id and its optimistic locking version
+     */
+    protected String etag(Integer id, Long version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+
+    /**
+     * Resolve the version an If-Match header asks to update.
+     * Returns null when the header is absent or "*", meaning the update is unconditional.
+     *
+     * @throws PreconditionFailedException if the header does not carry a current ETag of this resource
+     */
+    protected Long expectedVersion(Integer id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+
+        // Only a single strong ETag is supported, weak ones never match for If-Match
+        String prefix = "\"" + id + "-";
+        String etag = ifMatch.trim();
+        if (etag.startsWith(prefix) && etag.endsWith("\"") && etag.length() > prefix.length() + 1) {
+            try {
+                return Long.valueOf(etag.substring(prefix.length(), etag.length() - 1));
+            } catch (NumberFormatException e) {
+                log.debug("Unparseable If-Match version: {}", ifMatch);
+            }
+        }
+        throw new PreconditionFailedException("If-Match " + ifMatch + " does not match the current ETag of resource " + id);
+    }
+
+    /**
+     * Create a 304 response carrying the ETag the client already has
+     */
+    protected <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+
     /**
      * Log request information
      */
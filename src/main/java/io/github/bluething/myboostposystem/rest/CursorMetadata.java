@@ -0,0 +1,8 @@
+package io.github.bluething.myboostposystem.rest;
+
+public record CursorMetadata(int size,
+                             String next,
+                             String prev,
+                             boolean hasNext,
+                             boolean hasPrevious) {
+}
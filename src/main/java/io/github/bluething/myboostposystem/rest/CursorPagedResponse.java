@@ -0,0 +1,7 @@
+package io.github.bluething.myboostposystem.rest;
+
+import java.util.List;
+
+public record CursorPagedResponse<T>(List<T> content,
+                                     CursorMetadata page) {
+}
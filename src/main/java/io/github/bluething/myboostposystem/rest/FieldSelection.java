@@ -0,0 +1,53 @@
+package io.github.bluething.myboostposystem.rest;
+
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Sparse fieldsets for response records annotated with {@code @JsonFilter(FieldSelection.FILTER_ID)}.
+ * A request with {@code fields=id,name} serializes only those properties; unknown names are ignored.
+ */
+public final class FieldSelection {
+    public static final String FILTER_ID = "fieldSelection";
+    public static final String PARAMETER = "fields";
+
+    private static final FilterProvider ALL_FIELDS = new SimpleFilterProvider()
+            .addFilter(FILTER_ID, SimpleBeanPropertyFilter.serializeAll());
+
+    private FieldSelection() {
+    }
+
+    /**
+     * Parses a comma separated field list
+     *
+     * @param fields raw parameter value, may be null
+     * @return requested field names in request order, empty when every field is wanted
+     */
+    public static Set<String> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return Set.of();
+        }
+
+        return Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    /**
+     * Filters keeping only the given fields, or every field when the set is empty
+     */
+    public static FilterProvider filters(Set<String> fields) {
+        if (fields.isEmpty()) {
+            return ALL_FIELDS;
+        }
+        return new SimpleFilterProvider()
+                .addFilter(FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(fields));
+    }
+}
@@ -0,0 +1,31 @@
+package io.github.bluething.myboostposystem.rest;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+/**
+ * Applies the {@code fields} request parameter to every JSON response body
+ */
+@RestControllerAdvice
+class FieldSelectionAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer,
+                                           MediaType contentType,
+                                           MethodParameter returnType,
+                                           ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        String fields = request instanceof ServletServerHttpRequest servletRequest
+                ? servletRequest.getServletRequest().getParameter(FieldSelection.PARAMETER)
+                : null;
+
+        // Always set, so filtered records also serialize when no fields are requested
+        bodyContainer.setFilters(FieldSelection.filters(FieldSelection.parse(fields)));
+    }
+}
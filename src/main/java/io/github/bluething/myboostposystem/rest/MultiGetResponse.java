@@ -0,0 +1,31 @@
+package io.github.bluething.myboostposystem.rest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+public record MultiGetResponse<T>(List<T> content,
+                                  List<Integer> notFound) {
+
+    /**
+     * Lays the found resources out in the requested order
+     * @param ids the requested ids, in the order the caller asked for them
+     * @param found the resources that exist, keyed by id
+     * @param mapper converts a resource to its response
+     */
+    public static <D, T> MultiGetResponse<T> of(Collection<Integer> ids, Map<Integer, D> found, Function<D, T> mapper) {
+        List<T> content = new ArrayList<>(found.size());
+        List<Integer> notFound = new ArrayList<>();
+        for (Integer id : ids) {
+            D data = found.get(id);
+            if (data != null) {
+                content.add(mapper.apply(data));
+            } else {
+                notFound.add(id);
+            }
+        }
+        return new MultiGetResponse<>(content, notFound);
+    }
+}
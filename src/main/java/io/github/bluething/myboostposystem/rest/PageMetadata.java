@@ -1,9 +1,14 @@
 package io.github.bluething.myboostposystem.rest;
 
+/**
+ * Page metadata. totalElements and totalPages are null when the total was not computed,
+ * and totalExact is false when they come from an estimate.
+ */
 public record PageMetadata(int number,
                            int size,
-                           long totalElements,
-                           int totalPages,
+                           Long totalElements,
+                           Integer totalPages,
+                           boolean totalExact,
                            boolean first,
                            boolean last,
                            boolean hasNext,
@@ -1,11 +1,18 @@
 package io.github.bluething.myboostposystem.rest.item;
 
+import io.github.bluething.myboostposystem.common.CountMode;
 import io.github.bluething.myboostposystem.common.TimezoneUtil;
 import io.github.bluething.myboostposystem.domain.item.CreateItemCommand;
 import io.github.bluething.myboostposystem.domain.item.ItemData;
+import io.github.bluething.myboostposystem.domain.item.ItemImportResult;
+import io.github.bluething.myboostposystem.domain.item.ItemImportService;
 import io.github.bluething.myboostposystem.domain.item.ItemService;
 import io.github.bluething.myboostposystem.domain.item.UpdateItemCommand;
+import io.github.bluething.myboostposystem.exception.BusinessException;
 import io.github.bluething.myboostposystem.exception.ResourceNotFoundException;
+import io.github.bluething.myboostposystem.rest.BaseController;
+import io.github.bluething.myboostposystem.rest.MultiGetResponse;
+import io.github.bluething.myboostposystem.rest.PagedResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -14,26 +21,41 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
 @Tag(name = "Item Management", description = "APIs for managing items in the purchase order system")
 @RestController
 @RequestMapping("/api/v1/items")
 @RequiredArgsConstructor
 @Slf4j
-class ItemController {
+class ItemController extends BaseController {
     private final ItemService itemService;
+    private final ItemImportService itemImportService;
 
     /**
      * Create new Item
@@ -76,6 +98,53 @@ class ItemController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    /**
+     * Import items from a CSV file
+     *
+     * @param file CSV with a header line and name,description,price,cost rows
+     * @return Row counts and the rejected rows
+     * @throws IOException if the upload cannot be read
+     */
+    @Operation(
+            summary = "Import items from CSV",
+            description = "Bulk create or update items from a CSV file with the header name,description,price,cost. " +
+                    "Rows are matched to existing items by name: known names are updated, new names are created. " +
+                    "Invalid rows are reported with their line number and skipped; when a name repeats, the last " +
+                    "row wins. The file is streamed to the database and applied in one transaction."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "File imported, see the counts and rejected rows",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ItemImportResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Missing, empty or malformed CSV file",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            )
+    })
+    @PostMapping(path = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ItemImportResponse> importItems(@RequestParam("file") MultipartFile file) throws IOException {
+        log.info("Importing items from '{}' ({} bytes)", file.getOriginalFilename(), file.getSize());
+
+        if (file.isEmpty()) {
+            throw new BusinessException("Import file is empty");
+        }
+
+        try (InputStream csv = file.getInputStream()) {
+            return ResponseEntity.ok(toImportResponse(itemImportService.importCsv(csv, "SYSTEM")));
+        }
+    }
+
     /**
      * Get all items with pagination support
      *
@@ -125,6 +194,143 @@ class ItemController {
         return ResponseEntity.ok(responsePage);
     }
 
+    /**
+     * Get all items with pagination and a selectable count mode
+     *
+     * @param page  Page number (0-based)
+     * @param size  Page size
+     * @param count Count mode: exact, none or estimated
+     * @return Page of items with metadata telling whether the total is exact
+     */
+    @Operation(
+            summary = "Get all items with a selectable count mode",
+            description = "Same as the paginated list, but count=none skips the total and only reports whether " +
+                    "a next page exists, and count=estimated reads the planner row estimate instead of count(*)."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Successfully retrieved items",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = PagedResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid pagination parameters or count mode",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            )
+    })
+    @GetMapping(params = {"count", "!ids"})
+    public ResponseEntity<PagedResponse<ItemResponse>> getItemsWithCountMode(@Parameter(description = "Page number (0-based)", example = "0")
+                                                                                 @RequestParam(defaultValue = "0") @Min(0) Integer page,
+
+                                                                             @Parameter(description = "Page size", example = "10")
+                                                                                 @RequestParam(defaultValue = "10") @Min(1) Integer size,
+
+                                                                             @Parameter(description = "Count mode: exact, none or estimated", example = "none")
+                                                                                 @RequestParam String count) {
+        log.info("Fetching all items - page: {}, size: {}, count: {}", page, size, count);
+
+        CountMode countMode = CountMode.from(count);
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, "name"));
+
+        Slice<ItemData> itemDataSlice = itemService.findAll(pageable, countMode);
+        return pagedResponse(itemDataSlice.map(this::toResponse), countMode == CountMode.EXACT);
+    }
+
+    /**
+     * Search items by free text
+     *
+     * @param q     Text typed by the buyer
+     * @param limit Maximum number of items
+     * @return Matching items, best match first
+     */
+    @Operation(
+            summary = "Search items",
+            description = "Full-text search over item name and description, ranked by relevance. Names that only " +
+                    "resemble the query, such as typos or partial words, also match. Served from GIN indexes, " +
+                    "so response time does not grow with the catalog size."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Successfully searched items",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Missing or too long query, or invalid limit",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            )
+    })
+    @GetMapping("/search")
+    public ResponseEntity<List<ItemResponse>> searchItems(@Parameter(description = "Search text", example = "macbok pro")
+                                                              @RequestParam @NotBlank @Size(max = 200) String q,
+
+                                                          @Parameter(description = "Maximum number of items", example = "20")
+                                                              @RequestParam(defaultValue = "20") @Min(1) @Max(100) Integer limit) {
+        log.info("Searching items - q: '{}', limit: {}", q, limit);
+
+        List<ItemResponse> items = itemService.search(q, limit).stream()
+                .map(this::toResponse)
+                .toList();
+        return ResponseEntity.ok(items);
+    }
+
+    /**
+     * Get many items by ID in one request
+     *
+     * @param ids Item IDs, at most 100
+     * @return Found items in the requested order and the IDs that do not exist
+     */
+    @Operation(
+            summary = "Get items by IDs",
+            description = "Resolve up to 100 items in one request instead of one request per id. Items come from " +
+                    "the in-memory catalog and the item cache, the rest is read with a single query. " +
+                    "Items are returned in the requested order, duplicates once, and unknown ids are " +
+                    "reported in notFound instead of failing the request."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Successfully retrieved items",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = MultiGetResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Empty or oversized id list, or invalid ID format",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            )
+    })
+    @GetMapping(params = "ids")
+    public ResponseEntity<MultiGetResponse<ItemResponse>> getItemsByIds(@Parameter(description = "Comma separated item IDs", example = "1,2,3")
+                                                                            @RequestParam @Size(min = 1, max = 100) List<Integer> ids) {
+        log.info("Fetching {} items by ID", ids.size());
+
+        List<Integer> requested = ids.stream().distinct().toList();
+        return ResponseEntity.ok(MultiGetResponse.of(requested, itemService.findAllById(requested), this::toResponse));
+    }
+
     /**
      * Get item by ID
      *
@@ -144,6 +350,11 @@ class ItemController {
                             schema = @Schema(implementation = ItemResponse.class)
                     )
             ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Item not modified since the ETag sent in If-None-Match",
+                    content = @Content
+            ),
             @ApiResponse(
                     responseCode = "404",
                     description = "Item not found",
@@ -161,15 +372,85 @@ class ItemController {
             )
     })
     @GetMapping("/{id}")
-    public ResponseEntity<ItemResponse> getItemById(@PathVariable @Positive Integer id) {
+    public ResponseEntity<ItemResponse> getItemById(@PathVariable @Positive Integer id, WebRequest webRequest) {
         log.info("Fetching item with id={}", id);
 
-        return itemService.findById(id)
-                .map(this::toResponse)
-                .map(ResponseEntity::ok)
+        // Only a conditional request needs the version up front, otherwise the ETag comes from the (cached) read
+        Optional<Long> version = webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                ? itemService.findVersion(id)
+                : Optional.empty();
+        if (version.isPresent()) {
+            String etag = etag(id, version.get());
+            if (webRequest.checkNotModified(etag)) {
+                return notModified(etag);
+            }
+        }
+
+        Optional<ItemData> found = itemService.findById(id);
+        if (version.isPresent() && found.isPresent() && !version.get().equals(found.get().version())) {
+            // checkNotModified already sent the current version as ETag, a lagging catalog or cached copy must not go out under it
+            found = itemService.findCurrentById(id);
+        }
+        return found
+                .map(itemData -> ResponseEntity.ok().eTag(etag(itemData)).body(toResponse(itemData)))
                 .orElseThrow(() -> new ResourceNotFoundException("Item with ID " + id + " not found"));
     }
 
+    /**
+     * Get the price of an item at a point in time
+     *
+     * @param id Item ID
+     * @param at Point in time, the current price when absent
+     * @return Price and cost in effect at that time
+     */
+    @Operation(
+            summary = "Get item price at a point in time",
+            description = "Returns the price and cost an item had at the given time, from an append-only price " +
+                    "history. Without 'at' the current price is returned from cache. Every lookup is a single " +
+                    "index descent, whatever the length of the history."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Price found",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ItemPriceResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Item not found or without a price at that time",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid ID or datetime format",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            )
+    })
+    @GetMapping("/{id}/price")
+    public ResponseEntity<ItemPriceResponse> getItemPrice(@PathVariable @Positive Integer id,
+
+                                                          @Parameter(description = "Point in time, the current price when absent", example = "2024-01-15T10:00:00")
+                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        log.info("Fetching price of item with id={} at {}", id, at);
+
+        return itemService.findPrice(id, at != null ? TimezoneUtil.fromAppZone(at) : null)
+                .map(price -> ResponseEntity.ok(new ItemPriceResponse(price.itemId(),
+                        price.price(),
+                        price.cost(),
+                        TimezoneUtil.toAppLocalDateTime(price.validFrom()))))
+                .orElseThrow(() -> new ResourceNotFoundException(at != null
+                        ? "Item with ID " + id + " had no price at " + at
+                        : "Item with ID " + id + " not found"));
+    }
+
     /**
      * Update an existing item (full replace).
      *
@@ -200,6 +481,11 @@ class ItemController {
                     description = "Invalid input data or ID format",
                     content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
             ),
+            @ApiResponse(
+                    responseCode = "412",
+                    description = "If-Match does not match the current ETag",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            ),
             @ApiResponse(
                     responseCode = "500",
                     description = "Internal server error",
@@ -208,12 +494,13 @@ class ItemController {
     })
     @PutMapping("/{id}")
     public ResponseEntity<ItemResponse> updateItem(@PathVariable Integer id,
+                                                   @Parameter(description = "ETag from a previous read; the update is rejected if the resource changed since")
+                                                   @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                    @Valid @RequestBody ItemUpdateRequest request) {
         log.info("Updating item with ID: {}", id);
-        // TODO: update and return updated response, or 404 if not found
-        return itemService.update(id, toUpdateCommand(request))
-                .map(this::toResponse)
-                .map(response -> ResponseEntity.ok().body(response))
+
+        return itemService.update(id, toUpdateCommand(request), expectedVersion(id, ifMatch))
+                .map(itemData -> ResponseEntity.ok().eTag(etag(itemData)).body(toResponse(itemData)))
                 .orElseThrow(() -> new ResourceNotFoundException("Item with ID " + id + " not found"));
     }
 
@@ -280,6 +567,22 @@ class ItemController {
                 "SYSTEM");
     }
 
+    private ItemImportResponse toImportResponse(ItemImportResult result) {
+        List<ItemImportRejectionResponse> rejections = result.rejections().stream()
+                .map(rejection -> new ItemImportRejectionResponse(rejection.line(), rejection.reason()))
+                .toList();
+        return new ItemImportResponse(result.rows(),
+                result.inserted(),
+                result.updated(),
+                result.unchanged(),
+                result.rejected(),
+                rejections);
+    }
+
+    private String etag(ItemData itemData) {
+        return etag(itemData.id(), itemData.version());
+    }
+
     ItemResponse toResponse(ItemData itemData) {
         if (itemData == null) {
             return null;
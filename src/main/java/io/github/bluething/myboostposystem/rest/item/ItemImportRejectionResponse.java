@@ -0,0 +1,4 @@
+package io.github.bluething.myboostposystem.rest.item;
+
+record ItemImportRejectionResponse(long line, String reason) {
+}
@@ -0,0 +1,11 @@
+package io.github.bluething.myboostposystem.rest.item;
+
+import java.util.List;
+
+record ItemImportResponse(long rows,
+                          long inserted,
+                          long updated,
+                          long unchanged,
+                          long rejected,
+                          List<ItemImportRejectionResponse> rejections) {
+}
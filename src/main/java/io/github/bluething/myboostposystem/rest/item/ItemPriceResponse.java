@@ -0,0 +1,9 @@
+package io.github.bluething.myboostposystem.rest.item;
+
+import java.time.LocalDateTime;
+
+record ItemPriceResponse(Integer itemId,
+                         Long price,
+                         Long cost,
+                         LocalDateTime validFrom) {
+}
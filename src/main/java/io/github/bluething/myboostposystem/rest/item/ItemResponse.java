@@ -1,7 +1,11 @@
 package io.github.bluething.myboostposystem.rest.item;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import io.github.bluething.myboostposystem.rest.FieldSelection;
+
 import java.time.LocalDateTime;
 
+@JsonFilter(FieldSelection.FILTER_ID)
 record ItemResponse(Integer id,
                     String name,
                     String description,
@@ -0,0 +1,14 @@
+package io.github.bluething.myboostposystem.rest.po;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Entries are validated one by one so an invalid purchase order is reported without rejecting the batch
+ */
+record BatchCreatePORequest(@NotEmpty(message = "Purchase orders cannot be empty")
+                            @Size(max = 1000, message = "A batch must not exceed 1000 purchase orders")
+                            List<CreatePORequest> purchaseOrders) {
+}
@@ -0,0 +1,8 @@
+package io.github.bluething.myboostposystem.rest.po;
+
+import java.util.List;
+
+record BatchCreateResponse(int created,
+                           int failed,
+                           List<BatchResultResponse> results) {
+}
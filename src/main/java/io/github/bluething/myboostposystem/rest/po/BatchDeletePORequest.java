@@ -0,0 +1,12 @@
+package io.github.bluething.myboostposystem.rest.po;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+record BatchDeletePORequest(@NotEmpty(message = "Ids cannot be empty")
+                            @Size(max = 1000, message = "A batch must not exceed 1000 purchase orders")
+                            List<@NotNull(message = "Id cannot be null") Integer> ids) {
+}
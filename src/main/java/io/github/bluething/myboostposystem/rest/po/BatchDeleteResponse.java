@@ -0,0 +1,8 @@
+package io.github.bluething.myboostposystem.rest.po;
+
+import java.util.List;
+
+record BatchDeleteResponse(int deleted,
+                           List<Integer> ids,
+                           List<Integer> notFound) {
+}
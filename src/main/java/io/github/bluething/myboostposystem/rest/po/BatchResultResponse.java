@@ -0,0 +1,7 @@
+package io.github.bluething.myboostposystem.rest.po;
+
+record BatchResultResponse(int index,
+                           String status,
+                           Integer id,
+                           String error) {
+}
@@ -0,0 +1,43 @@
+package io.github.bluething.myboostposystem.rest.po;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque cursor used by keyset pagination.
+ * Carries the direction and the boundary purchase order id, encoded as URL-safe base64
+ * so clients pass it back untouched instead of building their own.
+ */
+record CursorToken(boolean forward, Integer id) {
+
+    static CursorToken next(Integer id) {
+        return new CursorToken(true, id);
+    }
+
+    static CursorToken prev(Integer id) {
+        return new CursorToken(false, id);
+    }
+
+    String encode() {
+        String raw = (forward ? "n:" : "p:") + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}
+     * @param token opaque cursor token
+     * @return decoded cursor
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    static CursorToken decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (raw.length() > 2 && raw.charAt(1) == ':' && (raw.charAt(0) == 'n' || raw.charAt(0) == 'p')) {
+                return new CursorToken(raw.charAt(0) == 'n', Integer.valueOf(raw.substring(2)));
+            }
+        } catch (IllegalArgumentException e) {
+            // fall through to the generic error below
+        }
+        throw new IllegalArgumentException("Invalid cursor: " + token);
+    }
+}
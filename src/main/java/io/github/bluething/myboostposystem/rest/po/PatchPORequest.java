@@ -0,0 +1,13 @@
+package io.github.bluething.myboostposystem.rest.po;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDateTime;
+
+record PatchPORequest(@JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+                      LocalDateTime datetime,
+
+                      @Size(max = 500, message = "Description must not exceed 500 characters")
+                      String description) {
+}
@@ -0,0 +1,165 @@
+package io.github.bluething.myboostposystem.rest.po;
+
+import io.github.bluething.myboostposystem.domain.po.CreatePOCommand;
+import io.github.bluething.myboostposystem.domain.po.POBatchResult;
+import io.github.bluething.myboostposystem.domain.po.PurchaseOrderService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Custom-method endpoints on the purchase order collection ({@code /purchase-orders:<method>}).
+ * Kept apart from {@link PurchaseOrderController} because a class level path would insert a slash before the colon.
+ */
+@RestController
+@RequiredArgsConstructor
+@Slf4j
+class PurchaseOrderBatchController {
+    private final PurchaseOrderService purchaseOrderService;
+    private final Validator validator;
+
+    /**
+     * Create many po in one request
+     *
+     * @param request POs to create, at most 1000
+     * @return Outcome of every PO in submission order
+     */
+    @Operation(
+            summary = "Create purchase orders in bulk",
+            description = "Create up to 1000 purchase orders in one transaction. Referenced items are validated with " +
+                    "a single query and rows are written with JDBC batch inserts. Each purchase order is reported as " +
+                    "CREATED with its id or FAILED with the reason; failed entries do not prevent the others."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Batch processed, see the per purchase order results",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = BatchCreateResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Empty or oversized batch",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            )
+    })
+    @PostMapping("/api/v1/purchase-orders:batch")
+    public ResponseEntity<BatchCreateResponse> createPurchaseOrders(@Valid @RequestBody BatchCreatePORequest request) {
+        log.info("Creating {} POs in batch", request.purchaseOrders().size());
+
+        List<BatchResultResponse> results = new ArrayList<>(request.purchaseOrders().size());
+        List<CreatePOCommand> commands = new ArrayList<>();
+        List<Integer> commandIndexes = new ArrayList<>();
+
+        for (int index = 0; index < request.purchaseOrders().size(); index++) {
+            CreatePORequest purchaseOrder = request.purchaseOrders().get(index);
+            String error = validate(purchaseOrder);
+            if (error != null) {
+                results.add(new BatchResultResponse(index, "FAILED", null, error));
+            } else {
+                commands.add(PurchaseOrderController.toCreateCommand(purchaseOrder));
+                commandIndexes.add(index);
+            }
+        }
+
+        if (!commands.isEmpty()) {
+            // Service results are positioned within the valid subset, map them back to the submitted order
+            for (POBatchResult result : purchaseOrderService.createAll(commands)) {
+                results.add(toResultResponse(commandIndexes.get(result.index()), result));
+            }
+        }
+        results.sort(Comparator.comparingInt(BatchResultResponse::index));
+
+        int created = (int) results.stream().filter(result -> result.error() == null).count();
+        return ResponseEntity.ok(new BatchCreateResponse(created, results.size() - created, results));
+    }
+
+    private String validate(CreatePORequest purchaseOrder) {
+        if (purchaseOrder == null) {
+            return "Purchase order cannot be null";
+        }
+
+        Set<ConstraintViolation<CreatePORequest>> violations = validator.validate(purchaseOrder);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Delete many po in one request
+     *
+     * @param request IDs of the POs to delete, at most 1000
+     * @return Deleted IDs and the requested IDs that did not exist
+     */
+    @Operation(
+            summary = "Delete purchase orders in bulk",
+            description = "Delete up to 1000 purchase orders and their details with a single statement. " +
+                    "Unknown ids are reported in notFound instead of failing the request."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Batch deleted",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = BatchDeleteResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Empty or oversized batch",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            )
+    })
+    @PostMapping("/api/v1/purchase-orders:batchDelete")
+    public ResponseEntity<BatchDeleteResponse> deletePurchaseOrders(@Valid @RequestBody BatchDeletePORequest request) {
+        log.info("Deleting {} POs in batch", request.ids().size());
+
+        Set<Integer> requested = new LinkedHashSet<>(request.ids());
+        List<Integer> deleted = purchaseOrderService.deleteAllById(requested);
+        Set<Integer> deletedIds = Set.copyOf(deleted);
+        List<Integer> notFound = requested.stream().filter(id -> !deletedIds.contains(id)).toList();
+        return ResponseEntity.ok(new BatchDeleteResponse(deleted.size(), deleted, notFound));
+    }
+
+    private BatchResultResponse toResultResponse(int index, POBatchResult result) {
+        return result.isCreated()
+                ? new BatchResultResponse(index, "CREATED", result.id(), null)
+                : new BatchResultResponse(index, "FAILED", null, result.error());
+    }
+}
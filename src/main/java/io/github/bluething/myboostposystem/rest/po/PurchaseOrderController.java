@@ -1,8 +1,17 @@
 package io.github.bluething.myboostposystem.rest.po;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.github.bluething.myboostposystem.common.CountMode;
 import io.github.bluething.myboostposystem.common.TimezoneUtil;
 import io.github.bluething.myboostposystem.domain.po.*;
 import io.github.bluething.myboostposystem.exception.ResourceNotFoundException;
+import io.github.bluething.myboostposystem.rest.BaseController;
+import io.github.bluething.myboostposystem.rest.CursorMetadata;
+import io.github.bluething.myboostposystem.rest.CursorPagedResponse;
+import io.github.bluething.myboostposystem.rest.FieldSelection;
+import io.github.bluething.myboostposystem.rest.MultiGetResponse;
+import io.github.bluething.myboostposystem.rest.PagedResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -10,36 +19,60 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/v1/purchase-orders")
 @RequiredArgsConstructor
 @Slf4j
-class PurchaseOrderController {
+class PurchaseOrderController extends BaseController {
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String RESPOND_ASYNC = "respond-async";
+    private static final Set<String> SUMMARY_FIELDS =
+            Set.of("id", "datetime", "description", "totalPrice", "totalCost", "createdBy");
+
     private final PurchaseOrderService purchaseOrderService;
+    private final PurchaseOrderIngestionService purchaseOrderIngestionService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Get all po with pagination support
      *
-     * @param page Page number (0-based)
-     * @param size Page size
+     * @param page   Page number (0-based)
+     * @param size   Page size
+     * @param fields Comma separated fields to return
      * @return Page of pos
      */
     @Operation(
             summary = "Get all purchase orders with pagination",
-            description = "Retrieve a paginated list of purchase orders with their details, ordered by creation date (newest first)"
+            description = "Retrieve a paginated list of purchase orders with their details, ordered by creation date (newest first). " +
+                    "fields limits the returned properties; when only header fields are requested, details are not read."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -66,19 +99,432 @@ class PurchaseOrderController {
                                                                 @RequestParam(defaultValue = "0") @Min(0) Integer page,
 
                                                             @Parameter(description = "Page size", example = "10")
-                                                                @RequestParam(defaultValue = "10") @Min(1) Integer size) {
-        log.info("Listing POs - page: {}, size: {}", page, size);
+                                                                @RequestParam(defaultValue = "10") @Min(1) Integer size,
+
+                                                            @Parameter(description = "Comma separated fields to return, all when absent", example = "id,datetime,totalPrice")
+                                                                @RequestParam(name = FieldSelection.PARAMETER, required = false) String fields) {
+        log.info("Listing POs - page: {}, size: {}, fields: {}", page, size, fields);
 
         // Default sort by ID descending (newest purchase orders first)
         Sort defaultSort = Sort.by(Sort.Direction.DESC, "id");
         Pageable pageable = PageRequest.of(page, size, defaultSort);
 
+        // Header columns are enough, skip loading and mapping details
+        Set<String> selected = FieldSelection.parse(fields);
+        if (!selected.isEmpty() && SUMMARY_FIELDS.containsAll(selected)) {
+            return ResponseEntity.ok(purchaseOrderService.findAllSummaries(pageable).map(this::toResponse));
+        }
+
         Page<POData> poData = purchaseOrderService.findAll(pageable);
         Page<Response> responsePage = toResponsePage(poData);
 
         return ResponseEntity.ok(responsePage);
     }
 
+    /**
+     * Get all po with pagination and a selectable count mode
+     *
+     * @param page  Page number (0-based)
+     * @param size  Page size
+     * @param count Count mode: exact, none or estimated
+     * @return Page of pos with metadata telling whether the total is exact
+     */
+    @Operation(
+            summary = "Get all purchase orders with a selectable count mode",
+            description = "Same as the paginated list, but count=none skips the total and only reports whether " +
+                    "a next page exists, and count=estimated reads the planner row estimate instead of count(*)."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Successfully retrieved purchase orders",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = PagedResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid pagination parameters or count mode",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            )
+    })
+    @GetMapping(params = {"count", "paging!=cursor", "view!=summary", "!ids"})
+    public ResponseEntity<PagedResponse<Response>> getPurchaseOrdersWithCountMode(@Parameter(description = "Page number (0-based)", example = "0")
+                                                                                      @RequestParam(defaultValue = "0") @Min(0) Integer page,
+
+                                                                                  @Parameter(description = "Page size", example = "10")
+                                                                                      @RequestParam(defaultValue = "10") @Min(1) Integer size,
+
+                                                                                  @Parameter(description = "Count mode: exact, none or estimated", example = "none")
+                                                                                      @RequestParam String count) {
+        log.info("Listing POs - page: {}, size: {}, count: {}", page, size, count);
+
+        CountMode countMode = CountMode.from(count);
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "id"));
+
+        Slice<POData> poData = purchaseOrderService.findAll(pageable, countMode);
+        return pagedResponse(poData.map(this::toResponse), countMode == CountMode.EXACT);
+    }
+
+    /**
+     * Get po with keyset (cursor) pagination
+     *
+     * @param cursor Opaque next/prev token from a previous response, absent for the first page
+     * @param size   Page size
+     * @return Page of pos with next/prev tokens
+     */
+    @Operation(
+            summary = "Get purchase orders with cursor pagination",
+            description = "Retrieve purchase orders newest first using keyset pagination. Pass paging=cursor and " +
+                    "follow the next/prev tokens of the response. Latency does not grow with the page depth."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Successfully retrieved purchase orders",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = CursorPagedResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid cursor or page size",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            )
+    })
+    @GetMapping(params = {"paging=cursor", "!ids"})
+    public ResponseEntity<CursorPagedResponse<Response>> getPurchaseOrdersByCursor(@Parameter(description = "Opaque next/prev token")
+                                                                                       @RequestParam(required = false) String cursor,
+
+                                                                                   @Parameter(description = "Page size", example = "10")
+                                                                                       @RequestParam(defaultValue = "10") @Min(1) @Max(100) Integer size) {
+        log.info("Listing POs by cursor - cursor: {}, size: {}", cursor, size);
+
+        CursorPage<POData> poData = seek(cursor,
+                id -> purchaseOrderService.findAllAfter(id, size),
+                id -> purchaseOrderService.findAllBefore(id, size));
+
+        return ResponseEntity.ok(toCursorResponse(poData, size, this::toResponse));
+    }
+
+    /**
+     * Get header-only po summaries with pagination support
+     *
+     * @param page Page number (0-based)
+     * @param size Page size
+     * @return Page of po summaries
+     */
+    @Operation(
+            summary = "Get purchase order summaries with pagination",
+            description = "Retrieve a paginated list of purchase order headers without details, newest first. " +
+                    "Pass view=summary. Cheaper than the full list when only header fields are displayed."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Successfully retrieved purchase order summaries",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = Page.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid pagination parameters",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            )
+    })
+    @GetMapping(params = {"view=summary", "!ids"})
+    public ResponseEntity<Page<SummaryResponse>> getPurchaseOrderSummaries(@Parameter(description = "Page number (0-based)", example = "0")
+                                                                               @RequestParam(defaultValue = "0") @Min(0) Integer page,
+
+                                                                           @Parameter(description = "Page size", example = "10")
+                                                                               @RequestParam(defaultValue = "10") @Min(1) Integer size) {
+        log.info("Listing PO summaries - page: {}, size: {}", page, size);
+
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "id"));
+
+        return ResponseEntity.ok(purchaseOrderService.findAllSummaries(pageable).map(this::toSummaryResponse));
+    }
+
+    /**
+     * Get header-only po summaries with pagination and a selectable count mode
+     *
+     * @param page  Page number (0-based)
+     * @param size  Page size
+     * @param count Count mode: exact, none or estimated
+     * @return Page of po summaries with metadata telling whether the total is exact
+     */
+    @Operation(
+            summary = "Get purchase order summaries with a selectable count mode",
+            description = "Summary list (view=summary) where count=none skips the total and count=estimated " +
+                    "reads the planner row estimate instead of count(*)."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Successfully retrieved purchase order summaries",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = PagedResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid pagination parameters or count mode",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            )
+    })
+    @GetMapping(params = {"count", "view=summary", "paging!=cursor", "!ids"})
+    public ResponseEntity<PagedResponse<SummaryResponse>> getPurchaseOrderSummariesWithCountMode(@Parameter(description = "Page number (0-based)", example = "0")
+                                                                                                     @RequestParam(defaultValue = "0") @Min(0) Integer page,
+
+                                                                                                 @Parameter(description = "Page size", example = "10")
+                                                                                                     @RequestParam(defaultValue = "10") @Min(1) Integer size,
+
+                                                                                                 @Parameter(description = "Count mode: exact, none or estimated", example = "none")
+                                                                                                     @RequestParam String count) {
+        log.info("Listing PO summaries - page: {}, size: {}, count: {}", page, size, count);
+
+        CountMode countMode = CountMode.from(count);
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "id"));
+
+        Slice<POSummaryData> summaries = purchaseOrderService.findAllSummaries(pageable, countMode);
+        return pagedResponse(summaries.map(this::toSummaryResponse), countMode == CountMode.EXACT);
+    }
+
+    /**
+     * Get header-only po summaries with keyset (cursor) pagination
+     *
+     * @param cursor Opaque next/prev token from a previous response, absent for the first page
+     * @param size   Page size
+     * @return Page of po summaries with next/prev tokens
+     */
+    @Operation(
+            summary = "Get purchase order summaries with cursor pagination",
+            description = "Retrieve purchase order headers without details, newest first, using keyset pagination. " +
+                    "Pass view=summary and paging=cursor."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Successfully retrieved purchase order summaries",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = CursorPagedResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid cursor or page size",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            )
+    })
+    @GetMapping(params = {"view=summary", "paging=cursor", "!ids"})
+    public ResponseEntity<CursorPagedResponse<SummaryResponse>> getPurchaseOrderSummariesByCursor(@Parameter(description = "Opaque next/prev token")
+                                                                                                      @RequestParam(required = false) String cursor,
+
+                                                                                                  @Parameter(description = "Page size", example = "10")
+                                                                                                      @RequestParam(defaultValue = "10") @Min(1) @Max(100) Integer size) {
+        log.info("Listing PO summaries by cursor - cursor: {}, size: {}", cursor, size);
+
+        CursorPage<POSummaryData> summaries = seek(cursor,
+                id -> purchaseOrderService.findSummariesAfter(id, size),
+                id -> purchaseOrderService.findSummariesBefore(id, size));
+
+        return ResponseEntity.ok(toCursorResponse(summaries, size, this::toSummaryResponse));
+    }
+
+    /**
+     * Search po by order date range, creator and total price range
+     *
+     * @param dateFrom      First order day (inclusive) in the application timezone
+     * @param dateTo        Last order day (inclusive) in the application timezone
+     * @param createdBy     Creator of the po
+     * @param minTotalPrice Minimum total price (inclusive)
+     * @param maxTotalPrice Maximum total price (inclusive)
+     * @param page          Page number (0-based)
+     * @param size          Page size
+     * @return Page of matching pos, latest order date first
+     */
+    @Operation(
+            summary = "Search purchase orders",
+            description = "Filter purchase orders by order date range, creator and total price range. " +
+                    "All filters are optional and combined with AND; only the given ones are added to the query."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Successfully searched purchase orders",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = PagedResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid filter or pagination parameters",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            )
+    })
+    @GetMapping("/search")
+    public ResponseEntity<PagedResponse<Response>> searchPurchaseOrders(@Parameter(description = "First order day (inclusive)", example = "2024-01-01")
+                                                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFrom,
+
+                                                                        @Parameter(description = "Last order day (inclusive)", example = "2024-01-31")
+                                                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateTo,
+
+                                                                        @Parameter(description = "Creator of the purchase order", example = "SYSTEM")
+                                                                            @RequestParam(required = false) String createdBy,
+
+                                                                        @Parameter(description = "Minimum total price (inclusive)", example = "1000")
+                                                                            @RequestParam(required = false) @Min(0) Long minTotalPrice,
+
+                                                                        @Parameter(description = "Maximum total price (inclusive)", example = "50000")
+                                                                            @RequestParam(required = false) @Min(0) Long maxTotalPrice,
+
+                                                                        @Parameter(description = "Page number (0-based)", example = "0")
+                                                                            @RequestParam(defaultValue = "0") @Min(0) Integer page,
+
+                                                                        @Parameter(description = "Page size", example = "10")
+                                                                            @RequestParam(defaultValue = "10") @Min(1) @Max(100) Integer size) {
+        log.info("Searching POs - dateFrom: {}, dateTo: {}, createdBy: {}, minTotalPrice: {}, maxTotalPrice: {}, page: {}, size: {}",
+                dateFrom, dateTo, createdBy, minTotalPrice, maxTotalPrice, page, size);
+
+        POSearchCriteria criteria = POSearchCriteria.builder()
+                .dateFrom(dateFrom)
+                .dateTo(dateTo)
+                .createdBy(createdBy)
+                .minTotalPrice(minTotalPrice)
+                .maxTotalPrice(maxTotalPrice)
+                .build();
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "datetime", "id"));
+
+        Page<POData> poData = purchaseOrderService.search(criteria, pageable);
+        return pagedResponse(poData.map(this::toResponse));
+    }
+
+    /**
+     * Export every po with its details as newline-delimited JSON
+     *
+     * @return Stream of pos, one JSON document per line
+     */
+    @Operation(
+            summary = "Export all purchase orders",
+            description = "Streams every purchase order with its details as application/x-ndjson, oldest first. " +
+                    "Rows are written as they are read from a single database snapshot, so the export is consistent " +
+                    "under concurrent writes and memory use does not depend on the table size."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Export stream started",
+                    content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            )
+    })
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportPurchaseOrders(@Parameter(description = "Comma separated fields to return, all when absent", example = "id,totalPrice")
+                                                                          @RequestParam(name = FieldSelection.PARAMETER, required = false) String fields) {
+        log.info("Exporting POs - fields: {}", fields);
+
+        ObjectWriter writer = objectMapper.writer(FieldSelection.filters(FieldSelection.parse(fields)));
+        StreamingResponseBody body = outputStream -> {
+            long exported = purchaseOrderService.exportAll(data -> {
+                try {
+                    outputStream.write(writer.writeValueAsBytes(toResponse(data)));
+                    outputStream.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            outputStream.flush();
+            log.info("Exported {} POs", exported);
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Get many po by ID in one request
+     *
+     * @param ids po IDs, at most 100
+     * @return Found po in the requested order and the IDs that do not exist
+     */
+    @Operation(
+            summary = "Get purchase orders by IDs",
+            description = "Resolve up to 100 purchase orders in one request instead of one request per id. " +
+                    "Purchase orders come from the cache, the rest is read with their details in a single query. " +
+                    "Purchase orders are returned in the requested order, duplicates once, and unknown ids are " +
+                    "reported in notFound instead of failing the request."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Successfully retrieved purchase orders",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = MultiGetResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Empty or oversized id list, or invalid ID format",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            )
+    })
+    @GetMapping(params = "ids")
+    public ResponseEntity<MultiGetResponse<Response>> getPurchaseOrdersByIds(@Parameter(description = "Comma separated purchase order IDs", example = "1,2,3")
+                                                                                 @RequestParam @Size(min = 1, max = 100) List<Integer> ids) {
+        log.info("Fetching {} POs by ID", ids.size());
+
+        List<Integer> requested = ids.stream().distinct().toList();
+        return ResponseEntity.ok(MultiGetResponse.of(requested, purchaseOrderService.findAllById(requested), this::toResponse));
+    }
+
     /**
      * Get po by ID
      *
@@ -98,6 +544,11 @@ class PurchaseOrderController {
                             schema = @Schema(implementation = Response.class)
                     )
             ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Purchase order not modified since the ETag sent in If-None-Match",
+                    content = @Content
+            ),
             @ApiResponse(
                     responseCode = "404",
                     description = "Purchase order not found",
@@ -115,12 +566,28 @@ class PurchaseOrderController {
             )
     })
     @GetMapping("/{id}")
-    public ResponseEntity<Response> getPurchaseOrderById(@PathVariable Integer id) {
+    public ResponseEntity<Response> getPurchaseOrderById(@PathVariable Integer id, WebRequest webRequest) {
         log.info("Fetching PO id={}", id);
 
-        return purchaseOrderService.findById(id)
-                .map(this::toResponse)
-                .map(response -> ResponseEntity.ok().body(response))
+        // Revalidate from the header version alone, before any detail is loaded.
+        // Only a conditional request needs the version up front, otherwise the ETag comes from the (cached) read
+        Optional<Long> version = webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                ? purchaseOrderService.findVersion(id)
+                : Optional.empty();
+        if (version.isPresent()) {
+            String etag = etag(id, version.get());
+            if (webRequest.checkNotModified(etag)) {
+                return notModified(etag);
+            }
+        }
+
+        Optional<POData> found = purchaseOrderService.findById(id);
+        if (version.isPresent() && found.isPresent() && !version.get().equals(found.get().version())) {
+            // checkNotModified already sent the current version as ETag, a lagging cached copy must not go out under it
+            found = purchaseOrderService.findCurrentById(id);
+        }
+        return found
+                .map(data -> ResponseEntity.ok().eTag(etag(data)).body(toResponse(data)))
                 .orElseThrow(() -> new ResourceNotFoundException("User with ID " + id + " not found"));
     }
 
@@ -134,7 +601,9 @@ class PurchaseOrderController {
             summary = "Create a new purchase order",
             description = "Creates a new purchase order with header and detail information. " +
                     "The details include items, quantities, prices, and costs. " +
-                    "Total price and cost are calculated from the details."
+                    "Total price and cost are calculated from the details. " +
+                    "With an Idempotency-Key header a retried request returns the originally created purchase order. " +
+                    "With Prefer: respond-async the purchase order is queued and 202 is returned with a ticket to poll."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -155,6 +624,24 @@ class PurchaseOrderController {
                     description = "Referenced item not found",
                     content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
             ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "Idempotency-Key already used for a different request",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Purchase order queued for asynchronous creation",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = TicketResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Asynchronous ingestion queue is full, retry after the Retry-After delay",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            ),
             @ApiResponse(
                     responseCode = "500",
                     description = "Internal server error",
@@ -162,10 +649,65 @@ class PurchaseOrderController {
             )
     })
     @PostMapping
-    public ResponseEntity<Response> createPurchaseOrder(@Valid @RequestBody CreatePORequest request) {
+    public ResponseEntity<?> createPurchaseOrder(
+            @Parameter(description = "Client generated key making retries of this create safe, at most 255 characters")
+            @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Parameter(description = "respond-async to queue the purchase order and get a ticket back")
+            @RequestHeader(name = "Prefer", required = false) String prefer,
+            @Valid @RequestBody CreatePORequest request) {
         log.info("Creating PO");
 
-        return ResponseEntity.ok(toResponse(purchaseOrderService.create(toCreateCommand(request))));
+        if (prefer != null && prefer.toLowerCase().contains(RESPOND_ASYNC)) {
+            if (idempotencyKey != null) {
+                throw new IllegalArgumentException(IDEMPOTENCY_KEY_HEADER + " is not supported with Prefer: " + RESPOND_ASYNC);
+            }
+            IngestionTicket ticket = purchaseOrderIngestionService.submit(toCreateCommand(request));
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/v1/purchase-orders/tickets/" + ticket.id()))
+                    .body(toTicketResponse(ticket));
+        }
+        if (idempotencyKey == null) {
+            return ResponseEntity.ok(toResponse(purchaseOrderService.create(toCreateCommand(request))));
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > 255) {
+            throw new IllegalArgumentException(IDEMPOTENCY_KEY_HEADER + " must be between 1 and 255 characters");
+        }
+        return ResponseEntity.ok(toResponse(purchaseOrderService.create(toCreateCommand(request), idempotencyKey)));
+    }
+
+    /**
+     * Get the outcome of an asynchronously created po.
+     *
+     * @param ticketId Ticket returned when the PO was queued
+     * @return Ticket with its status, and the PO id once created
+     */
+    @Operation(
+            summary = "Get an asynchronous create ticket",
+            description = "Poll the status of a purchase order submitted with Prefer: respond-async. " +
+                    "Tickets are kept for a limited time on the node that accepted the submission."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Ticket found",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = TicketResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Ticket unknown or expired",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            )
+    })
+    @GetMapping("/tickets/{ticketId}")
+    public ResponseEntity<TicketResponse> getTicket(@PathVariable String ticketId) {
+        log.info("Fetching PO ticket={}", ticketId);
+
+        return purchaseOrderIngestionService.findTicket(ticketId)
+                .map(ticket -> ResponseEntity.ok(toTicketResponse(ticket)))
+                .orElseThrow(() -> new ResourceNotFoundException("Ticket " + ticketId + " not found"));
     }
 
     /**
@@ -178,7 +720,8 @@ class PurchaseOrderController {
     @Operation(
             summary = "Update a purchase order",
             description = "Update an existing purchase order by ID. This performs a full replacement " +
-                    "of both header and detail information. All details will be replaced with the new set provided."
+                    "of both header and detail information. All details will be replaced with the new set provided. " +
+                    "Send the ETag of the last read as If-Match to reject the update when someone else changed it first."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -199,6 +742,11 @@ class PurchaseOrderController {
                     description = "Invalid input data or ID format",
                     content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
             ),
+            @ApiResponse(
+                    responseCode = "412",
+                    description = "If-Match does not match the current ETag",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            ),
             @ApiResponse(
                     responseCode = "500",
                     description = "Internal server error",
@@ -207,10 +755,72 @@ class PurchaseOrderController {
     })
     @PutMapping("/{id}")
     public ResponseEntity<Response> updatePurchaseOrder(@PathVariable Integer id,
+                                                          @Parameter(description = "ETag from a previous read; the update is rejected if the resource changed since")
+                                                          @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                           @Valid @RequestBody UpdatePORequest request) {
         log.info("Updating PO id={}", id);
 
-        return ResponseEntity.ok(toResponse(purchaseOrderService.update(id, toUpdateCommand(request))));
+        POData updated = purchaseOrderService.update(id, toUpdateCommand(request), expectedVersion(id, ifMatch));
+        return ResponseEntity.ok().eTag(etag(updated)).body(toResponse(updated));
+    }
+
+    /**
+     * Update header fields of a po without touching its details.
+     *
+     * @param id      PO ID to patch
+     * @param request Header fields to change
+     * @return Patched PO header
+     */
+    @Operation(
+            summary = "Patch a purchase order header",
+            description = "Change the datetime and/or description of a purchase order. Only the header row is " +
+                    "read and written; details and totals are left as they are. Omitted fields are not changed. " +
+                    "Send the ETag of the last read as If-Match to reject the update when someone else changed it first."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Purchase order header patched successfully",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = SummaryResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "No field given or invalid input data",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Purchase order not found",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "412",
+                    description = "If-Match does not match the current ETag",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            )
+    })
+    @PatchMapping("/{id}")
+    public ResponseEntity<SummaryResponse> patchPurchaseOrder(@PathVariable Integer id,
+                                                              @Parameter(description = "ETag from a previous read; the update is rejected if the resource changed since")
+                                                              @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                              @Valid @RequestBody PatchPORequest request) {
+        log.info("Patching PO id={}", id);
+
+        PatchPOCommand command = PatchPOCommand.builder()
+                .datetime(request.datetime())
+                .description(request.description())
+                .updatedBy("SYSTEM")
+                .build();
+        POSummaryData patched = purchaseOrderService.patch(id, command, expectedVersion(id, ifMatch));
+        return ResponseEntity.ok().eTag(etag(patched.id(), patched.version())).body(toSummaryResponse(patched));
     }
 
     /**
@@ -254,7 +864,51 @@ class PurchaseOrderController {
         return ResponseEntity.noContent().build();
     }
 
-    CreatePOCommand toCreateCommand(CreatePORequest request) {
+    /**
+     * Delete every po dated within a range
+     *
+     * @param from First order datetime (inclusive)
+     * @param to Last order datetime (exclusive)
+     * @return Deleted IDs
+     */
+    @Operation(
+            summary = "Delete purchase orders by date range",
+            description = "Delete every purchase order dated within [from, to) and all its details with a single " +
+                    "statement. This operation cannot be undone."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Purchase orders deleted",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = BatchDeleteResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Missing or inverted range",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            )
+    })
+    @DeleteMapping(params = {"from", "to"})
+    public ResponseEntity<BatchDeleteResponse> deletePurchaseOrdersByDatetime(@Parameter(description = "First order datetime (inclusive)", example = "2024-01-01T00:00:00")
+                                                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+
+                                                                              @Parameter(description = "Last order datetime (exclusive)", example = "2024-02-01T00:00:00")
+                                                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Deleting POs dated from {} to {}", from, to);
+
+        List<Integer> deleted = purchaseOrderService.deleteByDatetimeRange(from, to);
+        return ResponseEntity.ok(new BatchDeleteResponse(deleted.size(), deleted, List.of()));
+    }
+
+    static CreatePOCommand toCreateCommand(CreatePORequest request) {
         if (request == null) {
             return null;
         }
@@ -290,6 +944,10 @@ class PurchaseOrderController {
                 .build();
     }
 
+    private String etag(POData data) {
+        return etag(data.id(), data.version());
+    }
+
     private Response toResponse(POData data) {
         List<DetailResponse> details = data.details().stream()
                 .map(d -> new DetailResponse(d.itemId(), d.quantity(), d.cost(), d.unitPrice()))
@@ -308,6 +966,64 @@ class PurchaseOrderController {
                 details
         );
     }
+    private <T> CursorPage<T> seek(String cursor,
+                                   Function<Integer, CursorPage<T>> after,
+                                   Function<Integer, CursorPage<T>> before) {
+        if (cursor == null || cursor.isBlank()) {
+            return after.apply(null);
+        }
+        CursorToken token = CursorToken.decode(cursor);
+        return token.forward() ? after.apply(token.id()) : before.apply(token.id());
+    }
+
+    private <T, R> CursorPagedResponse<R> toCursorResponse(CursorPage<T> dataPage, int size, Function<T, R> mapper) {
+        List<R> content = dataPage.content().stream()
+                .map(mapper)
+                .toList();
+
+        return new CursorPagedResponse<>(
+                content,
+                new CursorMetadata(
+                        size,
+                        dataPage.hasNext() ? CursorToken.next(dataPage.nextCursor()).encode() : null,
+                        dataPage.hasPrevious() ? CursorToken.prev(dataPage.previousCursor()).encode() : null,
+                        dataPage.hasNext(),
+                        dataPage.hasPrevious()
+                )
+        );
+    }
+
+    private Response toResponse(POSummaryData data) {
+        return new Response(
+                data.id(),
+                data.orderDate(),
+                data.description(),
+                data.totalPrice(),
+                data.totalCost(),
+                data.createdBy(),
+                null,
+                null,
+                null,
+                null
+        );
+    }
+
+    private TicketResponse toTicketResponse(IngestionTicket ticket) {
+        return new TicketResponse(ticket.id(), ticket.status().name(), ticket.purchaseOrderId(), ticket.error(),
+                ticket.submittedAt());
+    }
+
+    private SummaryResponse toSummaryResponse(POSummaryData data) {
+        return new SummaryResponse(
+                data.id(),
+                data.orderDate(),
+                data.description(),
+                data.totalPrice(),
+                data.totalCost(),
+                data.createdBy()
+        );
+    }
+
     private Page<Response> toResponsePage(Page<POData> dataPage) {
         if (dataPage == null) {
             return null;
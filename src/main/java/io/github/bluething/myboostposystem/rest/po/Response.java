@@ -1,10 +1,13 @@
 package io.github.bluething.myboostposystem.rest.po;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import io.github.bluething.myboostposystem.rest.FieldSelection;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
+@JsonFilter(FieldSelection.FILTER_ID)
 record Response(Integer id,
                 @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
                         LocalDateTime datetime,
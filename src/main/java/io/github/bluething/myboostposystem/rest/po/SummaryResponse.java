@@ -0,0 +1,14 @@
+package io.github.bluething.myboostposystem.rest.po;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+
+record SummaryResponse(Integer id,
+                       @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+                               LocalDateTime datetime,
+                       String description,
+                       Long totalPrice,
+                       Long totalCost,
+                       String createdBy) {
+}
@@ -0,0 +1,10 @@
+package io.github.bluething.myboostposystem.rest.po;
+
+import java.time.Instant;
+
+record TicketResponse(String ticketId,
+                      String status,
+                      Integer purchaseOrderId,
+                      String error,
+                      Instant submittedAt) {
+}
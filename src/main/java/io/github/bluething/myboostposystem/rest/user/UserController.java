@@ -1,10 +1,14 @@
 package io.github.bluething.myboostposystem.rest.user;
 
+import io.github.bluething.myboostposystem.common.CountMode;
 import io.github.bluething.myboostposystem.domain.user.CreateUserCommand;
 import io.github.bluething.myboostposystem.domain.user.UpdateUserCommand;
 import io.github.bluething.myboostposystem.domain.user.UserData;
 import io.github.bluething.myboostposystem.domain.user.UserService;
 import io.github.bluething.myboostposystem.exception.ResourceNotFoundException;
+import io.github.bluething.myboostposystem.rest.BaseController;
+import io.github.bluething.myboostposystem.rest.MultiGetResponse;
+import io.github.bluething.myboostposystem.rest.PagedResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,22 +17,29 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/v1/users")
 @RequiredArgsConstructor
 @Slf4j
-class UserController {
+class UserController extends BaseController {
 
     private final UserService userService;
 
@@ -78,6 +89,99 @@ class UserController {
         return ResponseEntity.ok(responsePage);
     }
 
+    /**
+     * Get all users with pagination and a selectable count mode
+     *
+     * @param page  Page number (0-based)
+     * @param size  Page size
+     * @param count Count mode: exact, none or estimated
+     * @return Page of users with metadata telling whether the total is exact
+     */
+    @Operation(
+            summary = "Get all users with a selectable count mode",
+            description = "Same as the paginated list, but count=none skips the total and only reports whether " +
+                    "a next page exists, and count=estimated reads the planner row estimate instead of count(*)."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Successfully retrieved users",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = PagedResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid pagination parameters or count mode",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            )
+    })
+    @GetMapping(params = {"count", "!ids"})
+    public ResponseEntity<PagedResponse<UserResponse>> getAllUsersWithCountMode(@Parameter(description = "Page number (0-based)", example = "0")
+                                                                                    @RequestParam(defaultValue = "0") @Min(0) Integer page,
+
+                                                                                @Parameter(description = "Page size", example = "10")
+                                                                                    @RequestParam(defaultValue = "10") @Min(1) Integer size,
+
+                                                                                @Parameter(description = "Count mode: exact, none or estimated", example = "none")
+                                                                                    @RequestParam String count) {
+        log.info("Getting users - page: {}, size: {}, count: {}", page, size, count);
+
+        CountMode countMode = CountMode.from(count);
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, "id"));
+
+        Slice<UserData> userSlice = userService.getAllUsers(pageable, countMode);
+        return pagedResponse(userSlice.map(this::toResponse), countMode == CountMode.EXACT);
+    }
+
+    /**
+     * Get many users by ID in one request
+     *
+     * @param ids User IDs, at most 100
+     * @return Found users in the requested order and the IDs that do not exist
+     */
+    @Operation(
+            summary = "Get users by IDs",
+            description = "Resolve up to 100 users in one request instead of one request per id. " +
+                    "All users are read with a single query. " +
+                    "Users are returned in the requested order, duplicates once, and unknown ids are " +
+                    "reported in notFound instead of failing the request."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Successfully retrieved users",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = MultiGetResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Empty or oversized id list, or invalid ID format",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            )
+    })
+    @GetMapping(params = "ids")
+    public ResponseEntity<MultiGetResponse<UserResponse>> getUsersByIds(@Parameter(description = "Comma separated user IDs", example = "1,2,3")
+                                                                            @RequestParam @Size(min = 1, max = 100) List<Integer> ids) {
+        log.info("Fetching {} users by ID", ids.size());
+
+        List<Integer> requested = ids.stream().distinct().toList();
+        return ResponseEntity.ok(MultiGetResponse.of(requested, userService.getUsersById(requested), this::toResponse));
+    }
+
     /**
      * Get user by ID
      *
@@ -97,6 +201,11 @@ class UserController {
                             schema = @Schema(implementation = UserResponse.class)
                     )
             ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "User not modified since the ETag sent in If-None-Match",
+                    content = @Content
+            ),
             @ApiResponse(
                     responseCode = "404",
                     description = "User not found",
@@ -114,12 +223,22 @@ class UserController {
             )
     })
     @GetMapping("/{id}")
-    public ResponseEntity<UserResponse> getUserById(@PathVariable Integer id) {
+    public ResponseEntity<UserResponse> getUserById(@PathVariable Integer id, WebRequest webRequest) {
         log.info("Fetching user with ID: {}", id);
 
+        // Only a conditional request needs the version up front, otherwise the ETag comes from the (cached) read
+        Optional<Long> version = webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                ? userService.getUserVersion(id)
+                : Optional.empty();
+        if (version.isPresent()) {
+            String etag = etag(id, version.get());
+            if (webRequest.checkNotModified(etag)) {
+                return notModified(etag);
+            }
+        }
+
         return userService.getUserById(id)
-                .map(this::toResponse)
-                .map(response -> ResponseEntity.ok().body(response))
+                .map(data -> ResponseEntity.ok().eTag(etag(data)).body(toResponse(data)))
                 .orElseThrow(() -> new ResourceNotFoundException("User with ID " + id + " not found"));
     }
 
@@ -203,6 +322,11 @@ class UserController {
                     description = "Email already exists for another user",
                     content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
             ),
+            @ApiResponse(
+                    responseCode = "412",
+                    description = "If-Match does not match the current ETag",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)
+            ),
             @ApiResponse(
                     responseCode = "500",
                     description = "Internal server error",
@@ -212,12 +336,13 @@ class UserController {
     @PutMapping("/{id}")
     public ResponseEntity<UserResponse> updateUser(
             @PathVariable Integer id,
+            @Parameter(description = "ETag from a previous read; the update is rejected if the resource changed since")
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody UpdateUserRequest request) {
         log.info("Updating user with ID: {}", id);
 
-        return userService.updateUser(id, toUpdateCommand(request))
-                .map(this::toResponse)
-                .map(response -> ResponseEntity.ok().body(response))
+        return userService.updateUser(id, toUpdateCommand(request), expectedVersion(id, ifMatch))
+                .map(data -> ResponseEntity.ok().eTag(etag(data)).body(toResponse(data)))
                 .orElseThrow(() -> new ResourceNotFoundException("User with ID " + id + " not found"));
     }
 
@@ -294,6 +419,10 @@ class UserController {
                 .build();
     }
 
+    private String etag(UserData data) {
+        return etag(data.id(), data.version());
+    }
+
     UserResponse toResponse(UserData data) {
         if (data == null) {
             return null;
@@ -1,7 +1,11 @@
 package io.github.bluething.myboostposystem.rest.user;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import io.github.bluething.myboostposystem.rest.FieldSelection;
+
 import java.time.Instant;
 
+@JsonFilter(FieldSelection.FILTER_ID)
 record UserResponse(Integer id,
                            String firstName,
                            String lastName,
@@ -0,0 +1,8 @@
+--liquibase formatted sql
+
+--changeset habib.machpud:alter-sequence-po-pooled
+--comment: Step po_h and po_d id sequences by the Hibernate pooled allocation size so inserts can be batched
+ALTER SEQUENCE po_h_id_seq INCREMENT BY 50;
+ALTER SEQUENCE po_d_id_seq INCREMENT BY 50;
+
+--rollback ALTER SEQUENCE po_h_id_seq INCREMENT BY 1; ALTER SEQUENCE po_d_id_seq INCREMENT BY 1;
@@ -0,0 +1,15 @@
+--liquibase formatted sql
+
+--changeset habib.machpud:create-table-po-idempotency-key
+--comment: Create table of purchase order create Idempotency-Keys with the response they produced
+CREATE TABLE po_idempotency_key (
+    idempotency_key VARCHAR(255) PRIMARY KEY,
+    request_hash VARCHAR(64) NOT NULL,
+    poh_id INTEGER,
+    response_body TEXT,
+    created_datetime TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_po_idempotency_key_created_datetime ON po_idempotency_key(created_datetime);
+
+--rollback DROP TABLE po_idempotency_key;
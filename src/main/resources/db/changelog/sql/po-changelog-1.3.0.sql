@@ -0,0 +1,9 @@
+--liquibase formatted sql
+
+--changeset habib.machpud:add-version-columns
+--comment: Add optimistic locking version to purchase order headers, items and users
+ALTER TABLE po_h ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE items ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE users ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+--rollback ALTER TABLE po_h DROP COLUMN version; ALTER TABLE items DROP COLUMN version; ALTER TABLE users DROP COLUMN version;
@@ -0,0 +1,17 @@
+--liquibase formatted sql
+
+--changeset habib.machpud:create-table-po-outbox
+--comment: Create transactional outbox of purchase order change events, drained by the outbox relay
+CREATE SEQUENCE po_outbox_id_seq INCREMENT BY 50;
+
+CREATE TABLE po_outbox (
+    id BIGINT PRIMARY KEY DEFAULT nextval('po_outbox_id_seq'),
+    poh_id INTEGER NOT NULL,
+    event_type VARCHAR(16) NOT NULL,
+    payload TEXT,
+    created_datetime TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+ALTER SEQUENCE po_outbox_id_seq OWNED BY po_outbox.id;
+
+--rollback DROP TABLE po_outbox; DROP SEQUENCE IF EXISTS po_outbox_id_seq;
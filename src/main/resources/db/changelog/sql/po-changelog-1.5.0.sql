@@ -0,0 +1,19 @@
+--liquibase formatted sql
+
+--changeset habib.machpud:create-extension-pg-trgm
+--comment: Enable trigram matching for typo tolerant item search
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+--rollback DROP EXTENSION IF EXISTS pg_trgm;
+
+--changeset habib.machpud:add-items-search-vector
+--comment: Add weighted full-text search vector of item name and description with GIN indexes for item search
+ALTER TABLE items ADD COLUMN search_vector TSVECTOR GENERATED ALWAYS AS (
+    setweight(to_tsvector('simple', coalesce(name, '')), 'A') ||
+    setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+) STORED;
+
+CREATE INDEX idx_items_search_vector ON items USING GIN (search_vector);
+CREATE INDEX idx_items_name_trgm ON items USING GIN (name gin_trgm_ops);
+
+--rollback DROP INDEX IF EXISTS idx_items_name_trgm; DROP INDEX IF EXISTS idx_items_search_vector; ALTER TABLE items DROP COLUMN search_vector;
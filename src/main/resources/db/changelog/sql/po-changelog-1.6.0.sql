@@ -0,0 +1,9 @@
+--liquibase formatted sql
+
+--changeset habib.machpud:add-items-updated-datetime-index
+--comment: Index item updated_datetime for the incremental refresh of the in-memory item catalog, backfilling rows never updated
+UPDATE items SET updated_datetime = created_datetime WHERE updated_datetime IS NULL;
+
+CREATE INDEX idx_items_updated_datetime ON items(updated_datetime);
+
+--rollback DROP INDEX IF EXISTS idx_items_updated_datetime;
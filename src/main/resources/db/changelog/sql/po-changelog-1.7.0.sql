@@ -0,0 +1,24 @@
+--liquibase formatted sql
+
+--changeset habib.machpud:create-table-item-price-history
+--comment: Create append-only history of item price and cost, seeded with the current price of every item
+CREATE SEQUENCE item_price_history_id_seq INCREMENT BY 50;
+
+CREATE TABLE item_price_history (
+    id BIGINT PRIMARY KEY DEFAULT nextval('item_price_history_id_seq'),
+    item_id INTEGER NOT NULL,
+    price BIGINT NOT NULL,
+    cost BIGINT NOT NULL,
+    valid_from TIMESTAMPTZ NOT NULL,
+    created_by VARCHAR(255)
+);
+
+ALTER SEQUENCE item_price_history_id_seq OWNED BY item_price_history.id;
+
+CREATE INDEX idx_item_price_history_item_valid_from ON item_price_history(item_id, valid_from);
+
+INSERT INTO item_price_history (item_id, price, cost, valid_from, created_by)
+SELECT id, price, cost, COALESCE(updated_datetime, created_datetime), COALESCE(updated_by, created_by)
+FROM items;
+
+--rollback DROP TABLE item_price_history; DROP SEQUENCE IF EXISTS item_price_history_id_seq;
@@ -0,0 +1,7 @@
+--liquibase formatted sql
+
+--changeset habib.machpud:add-po-outbox-poh-version
+--comment: Carry the purchase order version on outbox events so consumers can order the events of one purchase order
+ALTER TABLE po_outbox ADD COLUMN poh_version BIGINT;
+
+--rollback ALTER TABLE po_outbox DROP COLUMN poh_version;
@@ -0,0 +1,276 @@
+package io.github.bluething.myboostposystem.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TwoTierCacheTest {
+    private static final TwoTierCache.Settings SETTINGS =
+            new TwoTierCache.Settings(Duration.ofMinutes(10), 100, Duration.ofMinutes(5), Duration.ofSeconds(30),
+                    Duration.ofSeconds(10));
+
+    record Sample(Integer id, String name) {
+    }
+
+    // In-process stand-in for Redis
+    private final Map<String, String> store = new ConcurrentHashMap<>();
+    private final List<String> published = new ArrayList<>();
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong now = new AtomicLong();
+    private final List<Runnable> pendingRefreshes = new ArrayList<>();
+
+    private StringRedisTemplate redisTemplate;
+    private ValueOperations<String, String> valueOperations;
+    private TwoTierCache<Sample> cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(anyString())).thenAnswer(invocation -> store.get(invocation.<String>getArgument(0)));
+        doAnswer(invocation -> store.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(valueOperations).set(anyString(), anyString(), any(Duration.class));
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenAnswer(invocation ->
+                store.putIfAbsent(invocation.getArgument(0), invocation.getArgument(1)) == null);
+        when(redisTemplate.delete(anyString())).thenAnswer(invocation -> store.remove(invocation.<String>getArgument(0)) != null);
+        when(redisTemplate.convertAndSend(anyString(), any())).thenAnswer(invocation -> {
+            published.add(invocation.getArgument(1));
+            return 1L;
+        });
+
+        cache = new TwoTierCache<>("sample", Sample.class, SETTINGS, redisTemplate, objectMapper,
+                meterRegistry, pendingRefreshes::add, now::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should load once and serve later reads from L1")
+    void shouldServeRepeatedReadsFromLocalTier() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        Optional<Sample> first = cache.get(1, id -> {
+            loads.incrementAndGet();
+            return Optional.of(new Sample(id, "first"));
+        });
+        Optional<Sample> second = cache.get(1, id -> Optional.of(new Sample(id, "second")));
+
+        // Then
+        assertEquals("first", first.orElseThrow().name());
+        assertEquals("first", second.orElseThrow().name());
+        assertEquals(1, loads.get());
+        assertTrue(store.containsKey("sample:1"));
+        assertEquals(1.0, counter("l1", "hit"));
+        assertEquals(1.0, counter("l1", "miss"));
+        assertEquals(1.0, counter("l2", "miss"));
+    }
+
+    @Test
+    @DisplayName("Should fill L1 from L2 without calling the loader")
+    void shouldReadThroughRemoteTier() throws Exception {
+        // Given
+        store.put("sample:1", objectMapper.writeValueAsString(new Sample(1, "remote")));
+
+        // When
+        Optional<Sample> value = cache.get(1, id -> fail("loader must not run on an L2 hit"));
+
+        // Then
+        assertEquals("remote", value.orElseThrow().name());
+        assertEquals(1.0, counter("l2", "hit"));
+    }
+
+    @Test
+    @DisplayName("Should read many ids through both tiers with one MGET and one loader call")
+    void shouldReadManyIdsThroughBothTiers() throws Exception {
+        // Given - 1 in L1, 2 in L2 only, 3 in neither, 4 does not exist
+        pipelinedConnection();
+        when(valueOperations.multiGet(any())).thenAnswer(invocation ->
+                invocation.<List<String>>getArgument(0).stream().map(store::get).toList());
+        cache.get(1, id -> Optional.of(new Sample(id, "local")));
+        store.put("sample:2", objectMapper.writeValueAsString(new Sample(2, "remote")));
+        List<List<Integer>> loads = new ArrayList<>();
+
+        // When
+        Map<Integer, Sample> values = cache.getAll(List.of(1, 2, 3, 4), ids -> {
+            loads.add(List.copyOf(ids));
+            return Map.of(3, new Sample(3, "db"));
+        });
+
+        // Then
+        assertEquals(Map.of(1, new Sample(1, "local"), 2, new Sample(2, "remote"), 3, new Sample(3, "db")), values);
+        assertEquals(List.of(List.of(3, 4)), loads);
+        verify(valueOperations).multiGet(List.of("sample:2", "sample:3", "sample:4"));
+        assertTrue(store.containsKey("sample:3"));
+        assertEquals("db", cache.get(3, id -> fail("loader must not run on an L1 hit")).orElseThrow().name());
+    }
+
+    @Test
+    @DisplayName("Should serve a stale L1 entry while one background refresh runs")
+    void shouldServeStaleWhileRevalidating() {
+        // Given
+        cache.get(1, id -> Optional.of(new Sample(id, "old")));
+        store.clear();
+        now.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        // When
+        Optional<Sample> stale = cache.get(1, id -> Optional.of(new Sample(id, "new")));
+        cache.get(1, id -> Optional.of(new Sample(id, "new")));
+
+        // Then
+        assertEquals("old", stale.orElseThrow().name());
+        assertEquals(1, pendingRefreshes.size());
+        pendingRefreshes.getFirst().run();
+        assertEquals("new", cache.get(1, id -> fail("refreshed entry must be served from L1")).orElseThrow().name());
+    }
+
+    @Test
+    @DisplayName("Should evict both tiers and broadcast only after commit")
+    void shouldEvictAfterCommit() {
+        // Given
+        cache.get(1, id -> Optional.of(new Sample(id, "old")));
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        cache.evictAfterCommit(1);
+
+        // Then
+        assertTrue(store.get("sample:1").contains("old"));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals("", store.get("sample:1"));
+        assertEquals(List.of("sample:1"), published);
+        assertEquals("new", cache.get(1, id -> Optional.of(new Sample(id, "new"))).orElseThrow().name());
+    }
+
+    @Test
+    @DisplayName("Should evict many entries with one pipeline after commit")
+    void shouldEvictManyEntriesAfterCommit() {
+        // Given
+        RedisConnection connection = pipelinedConnection();
+        cache.get(1, id -> Optional.of(new Sample(id, "old")));
+        cache.get(2, id -> Optional.of(new Sample(id, "old")));
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        cache.evictAllAfterCommit(List.of(1, 2));
+
+        // Then
+        verify(redisTemplate, never()).executePipelined(any(RedisCallback.class));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(redisTemplate).executePipelined(any(RedisCallback.class));
+        verify(connection).publish(any(), eq("sample:2".getBytes(StandardCharsets.UTF_8)));
+        assertEquals("new", cache.get(1, id -> Optional.of(new Sample(id, "new"))).orElseThrow().name());
+        assertEquals("new", cache.get(2, id -> Optional.of(new Sample(id, "new"))).orElseThrow().name());
+    }
+
+    @Test
+    @DisplayName("Should keep a value loaded before another node's commit out of L2 while the tombstone lives")
+    void shouldNotWriteRemoteOverTombstone() {
+        // Given - this node evicts after its commit
+        cache.get(1, id -> Optional.of(new Sample(id, "old")));
+        cache.evict(1);
+
+        // When - a node that read the pre-commit row writes it back late
+        TwoTierCache<Sample> otherNode = new TwoTierCache<>("sample", Sample.class, SETTINGS, redisTemplate, objectMapper,
+                new SimpleMeterRegistry(), pendingRefreshes::add, now::get);
+        Optional<Sample> late = otherNode.get(1, id -> Optional.of(new Sample(id, "old")));
+
+        // Then
+        assertEquals("old", late.orElseThrow().name());
+        assertEquals("", store.get("sample:1"));
+        assertEquals("new", cache.get(1, id -> Optional.of(new Sample(id, "new"))).orElseThrow().name());
+    }
+
+    @Test
+    @DisplayName("Should not cache a value loaded before a concurrent invalidation")
+    void shouldNotCacheValueRacingWithInvalidation() {
+        // When - another node invalidates while the load is in flight
+        cache.get(1, id -> {
+            cache.invalidateLocal(id);
+            return Optional.of(new Sample(id, "racing"));
+        });
+
+        // Then
+        assertFalse(store.containsKey("sample:1"));
+        assertEquals("fresh", cache.get(1, id -> Optional.of(new Sample(id, "fresh"))).orElseThrow().name());
+    }
+
+    @Test
+    @DisplayName("Should fall back to the loader when Redis is unavailable")
+    void shouldFallBackToLoaderWhenRedisDown() {
+        // Given
+        when(valueOperations.get(anyString())).thenThrow(new RedisConnectionFailureException("down"));
+
+        // When
+        Optional<Sample> value = cache.get(1, id -> Optional.of(new Sample(id, "db")));
+
+        // Then
+        assertEquals("db", value.orElseThrow().name());
+        assertEquals(1.0, counter("l2", "miss"));
+    }
+
+    private RedisConnection pipelinedConnection() {
+        RedisConnection connection = mock(RedisConnection.class, RETURNS_DEEP_STUBS);
+        when(connection.stringCommands().set(any(byte[].class), any(byte[].class), any(), any())).thenAnswer(invocation -> {
+            String key = new String(invocation.<byte[]>getArgument(0), StandardCharsets.UTF_8);
+            String value = new String(invocation.<byte[]>getArgument(1), StandardCharsets.UTF_8);
+            if (invocation.getArgument(3) == SetOption.SET_IF_ABSENT) {
+                return store.putIfAbsent(key, value) == null;
+            }
+            store.put(key, value);
+            return true;
+        });
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            invocation.<RedisCallback<?>>getArgument(0).doInRedis(connection);
+            return List.of();
+        });
+        return connection;
+    }
+
+    private double counter(String tier, String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", "sample")
+                .tag("tier", tier)
+                .tag("result", result)
+                .counter()
+                .count();
+    }
+}
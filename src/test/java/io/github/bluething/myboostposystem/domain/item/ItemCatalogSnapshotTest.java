@@ -0,0 +1,82 @@
+package io.github.bluething.myboostposystem.domain.item;
+
+import io.github.bluething.myboostposystem.persistence.ItemCatalogRow;
+import io.github.bluething.myboostposystem.persistence.ItemReference;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemCatalogSnapshotTest {
+    private static final Instant CREATED = Instant.parse("2024-01-15T03:00:00.123456Z");
+
+    @Test
+    @DisplayName("Should locate every id after the columns have grown")
+    void shouldLocateEveryId() {
+        // Given - sparse ids, far more rows than the initial capacity
+        ItemCatalogSnapshot.Builder builder = ItemCatalogSnapshot.builder(0, 0);
+        for (int i = 1; i <= 5000; i++) {
+            builder.add(row(i * 7919, "Item " + i, 100L * i, CREATED.plusSeconds(i)));
+        }
+
+        // When
+        ItemCatalogSnapshot snapshot = builder.build();
+
+        // Then
+        assertEquals(5000, snapshot.size());
+        for (int i = 1; i <= 5000; i++) {
+            int index = snapshot.indexOf(i * 7919);
+            assertEquals(i * 7919, snapshot.id(index));
+            assertEquals(new ItemReference(i * 7919, "Item " + i, 100L * i, 80L), snapshot.toReference(index));
+        }
+        assertEquals(-1, snapshot.indexOf(1));
+        assertEquals(CREATED.plusSeconds(5000), snapshot.watermark());
+    }
+
+    @Test
+    @DisplayName("Should restore every column, including nulls and multi-byte text")
+    void shouldRestoreRows() {
+        // Given
+        ItemCatalogRow row = new ItemCatalogRow(7, "Kopi Susu ☕", null, 25000L, 12000L,
+                "SYSTEM", null, CREATED, null, 3L);
+
+        // When
+        ItemCatalogSnapshot snapshot = ItemCatalogSnapshot.builder(1, 0).add(row).build();
+
+        // Then
+        assertEquals(new ItemData(7, "Kopi Susu ☕", null, 25000L, 12000L, "SYSTEM", null, CREATED, null, 3L),
+                snapshot.toItemData(snapshot.indexOf(7)));
+    }
+
+    @Test
+    @DisplayName("Should copy rows from another snapshot unchanged")
+    void shouldCopyRows() {
+        // Given
+        ItemCatalogSnapshot source = ItemCatalogSnapshot.builder(3, 0)
+                .add(row(1, "Pen", 100L, CREATED))
+                .add(row(2, "Book", 200L, CREATED))
+                .add(row(3, "Ruler", 300L, CREATED))
+                .build();
+
+        // When - drop the middle row and add a new one
+        ItemCatalogSnapshot copy = ItemCatalogSnapshot.builder(3, source.textBytes())
+                .copy(source, source.indexOf(1))
+                .copy(source, source.indexOf(3))
+                .add(row(4, "Eraser", 50L, CREATED.plusSeconds(60)))
+                .build();
+
+        // Then
+        assertEquals(3, copy.size());
+        assertEquals(source.toItemData(source.indexOf(3)), copy.toItemData(copy.indexOf(3)));
+        assertEquals("Pen", copy.toReference(copy.indexOf(1)).name());
+        assertEquals("Eraser", copy.toReference(copy.indexOf(4)).name());
+        assertEquals(-1, copy.indexOf(2));
+        assertEquals(CREATED.plusSeconds(60), copy.watermark());
+    }
+
+    private ItemCatalogRow row(int id, String name, long price, Instant updated) {
+        return new ItemCatalogRow(id, name, name + " description", price, 80L, "SYSTEM", "SYSTEM", CREATED, updated, 0L);
+    }
+}
@@ -0,0 +1,123 @@
+package io.github.bluething.myboostposystem.domain.item;
+
+import io.github.bluething.myboostposystem.persistence.ItemCatalogRow;
+import io.github.bluething.myboostposystem.persistence.ItemReference;
+import io.github.bluething.myboostposystem.persistence.ItemRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ItemCatalogTest {
+    private static final Instant UPDATED = Instant.parse("2024-01-15T03:00:00Z");
+    private static final ItemCatalogRow PEN = row(1, "Pen", 100L, UPDATED, 0L);
+    private static final ItemCatalogRow BOOK = row(2, "Book", 200L, UPDATED, 0L);
+
+    private final ItemRepository itemRepository = mock(ItemRepository.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private ItemCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        catalog = new ItemCatalog(itemRepository, transactionTemplate, new SimpleMeterRegistry(),
+                Duration.ofHours(1), Duration.ofMinutes(1));
+    }
+
+    @Test
+    @DisplayName("Should serve lookups from the loaded snapshot without the database")
+    void shouldServeLookupsFromSnapshot() {
+        // Given
+        when(itemRepository.streamCatalog()).thenReturn(Stream.of(PEN, BOOK));
+        catalog.refresh();
+
+        // When
+        Map<Integer, ItemReference> items = catalog.findAllById(List.of(1, 2));
+        Optional<ItemData> pen = catalog.findById(1);
+
+        // Then
+        assertEquals(Map.of(1, new ItemReference(1, "Pen", 100L, 80L), 2, new ItemReference(2, "Book", 200L, 80L)), items);
+        assertEquals(100L, pen.orElseThrow().price());
+        verify(itemRepository, never()).findReferencesByIdIn(any());
+    }
+
+    @Test
+    @DisplayName("Should read ids missing from the snapshot directly and leave unknown ids out")
+    void shouldLoadMissingIds() {
+        // Given - nothing loaded yet, 999 does not exist
+        when(itemRepository.findReferencesByIdIn(List.of(1, 999))).thenReturn(List.of(new ItemReference(1, "Pen", 100L, 80L)));
+
+        // When
+        Map<Integer, ItemReference> items = catalog.findAllById(List.of(1, 999));
+
+        // Then
+        assertEquals(Map.of(1, new ItemReference(1, "Pen", 100L, 80L)), items);
+        assertTrue(catalog.findById(1).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should bypass changed items until an incremental refresh has read them")
+    void shouldRefreshChangedItems() {
+        // Given - pen is repriced and book deleted after the snapshot was taken
+        when(itemRepository.streamCatalog()).thenReturn(Stream.of(PEN, BOOK));
+        catalog.refresh();
+        ItemCatalogRow repricedPen = row(1, "Pen", 120L, UPDATED.plusSeconds(30), 1L);
+        when(itemRepository.findReferencesByIdIn(List.of(1))).thenReturn(List.of(new ItemReference(1, "Pen", 120L, 80L)));
+        when(itemRepository.findCatalogRowsUpdatedSince(UPDATED.minusSeconds(60))).thenReturn(List.of(repricedPen));
+        when(itemRepository.findCatalogRowsByIdIn(any())).thenReturn(List.of(repricedPen));
+
+        // When
+        catalog.markChanged(1);
+        catalog.markChanged(2);
+
+        // Then - answered from the database meanwhile
+        assertEquals(120L, catalog.findAllById(List.of(1)).get(1).price());
+        assertTrue(catalog.findById(2).isEmpty());
+
+        // When
+        catalog.refresh();
+
+        // Then
+        assertEquals(120L, catalog.findById(1).orElseThrow().price());
+        assertEquals(1L, catalog.findById(1).orElseThrow().version());
+        assertTrue(catalog.findById(2).isEmpty());
+        verify(itemRepository).findCatalogRowsByIdIn(argThat(ids -> ids.containsAll(List.of(1, 2)) && ids.size() == 2));
+        verify(itemRepository, times(1)).streamCatalog();
+    }
+
+    @Test
+    @DisplayName("Should pick up items written since the watermark without a full reload")
+    void shouldAddItemsUpdatedSinceWatermark() {
+        // Given
+        when(itemRepository.streamCatalog()).thenReturn(Stream.of(PEN));
+        catalog.refresh();
+        when(itemRepository.findCatalogRowsUpdatedSince(UPDATED.minusSeconds(60))).thenReturn(List.of(PEN, BOOK));
+
+        // When
+        catalog.refresh();
+
+        // Then
+        assertEquals("Book", catalog.findById(2).orElseThrow().name());
+        assertEquals("Pen", catalog.findById(1).orElseThrow().name());
+        verify(itemRepository, times(1)).streamCatalog();
+        verify(itemRepository, never()).findCatalogRowsByIdIn(any());
+    }
+
+    private static ItemCatalogRow row(int id, String name, long price, Instant updated, long version) {
+        return new ItemCatalogRow(id, name, null, price, 80L, "SYSTEM", "SYSTEM", UPDATED, updated, version);
+    }
+}
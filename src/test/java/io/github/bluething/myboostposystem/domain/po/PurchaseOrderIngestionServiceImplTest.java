@@ -0,0 +1,205 @@
+package io.github.bluething.myboostposystem.domain.po;
+
+import io.github.bluething.myboostposystem.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PurchaseOrderIngestionServiceImplTest {
+    private final PurchaseOrderService purchaseOrderService = mock(PurchaseOrderService.class);
+    private PurchaseOrderIngestionServiceImpl ingestion;
+
+    @AfterEach
+    void tearDown() {
+        if (ingestion != null && ingestion.isRunning()) {
+            ingestion.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Should group purchase orders queued during a commit into the next batch")
+    void shouldGroupQueuedPurchaseOrdersIntoOneBatch() throws Exception {
+        // Given - the first commit is held open while more purchase orders arrive
+        ingestion = newIngestion(100, 1, 50);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        when(purchaseOrderService.createAll(any())).thenAnswer(invocation -> {
+            List<CreatePOCommand> commands = invocation.getArgument(0);
+            batchSizes.add(commands.size());
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return IntStream.range(0, commands.size())
+                    .mapToObj(index -> commands.get(index).description().equals("missing item")
+                            ? POBatchResult.failed(index, "Items not found with ids: [999]")
+                            : POBatchResult.created(index, 100 + index))
+                    .toList();
+        });
+        ingestion.start();
+
+        // When
+        IngestionTicket first = ingestion.submit(command("first"));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        IngestionTicket second = ingestion.submit(command("second"));
+        IngestionTicket missingItem = ingestion.submit(command("missing item"));
+        IngestionTicket fourth = ingestion.submit(command("fourth"));
+        assertEquals(IngestionStatus.PENDING, status(second));
+        release.countDown();
+        ingestion.stop();
+
+        // Then
+        assertEquals(List.of(1, 3), batchSizes);
+        assertEquals(IngestionStatus.CREATED, status(first));
+        assertEquals(100, ingestion.findTicket(second.id()).orElseThrow().purchaseOrderId());
+        assertEquals(IngestionStatus.FAILED, status(missingItem));
+        assertEquals(IngestionStatus.CREATED, status(fourth));
+    }
+
+    @Test
+    @DisplayName("Should retry one by one when the batch transaction fails")
+    void shouldRetryIndividuallyWhenBatchFails() {
+        // Given
+        ingestion = newIngestion(100, 1, 50);
+        ingestion.start();
+        IngestionTicket good = ingestion.submit(command("good"));
+        IngestionTicket bad = ingestion.submit(command("bad"));
+        ingestion.stop();
+        reset(purchaseOrderService);
+        when(purchaseOrderService.createAll(any())).thenAnswer(invocation -> {
+            List<CreatePOCommand> commands = invocation.getArgument(0);
+            if (commands.size() > 1 || commands.getFirst().description().equals("bad")) {
+                throw new IllegalStateException("constraint violation");
+            }
+            return List.of(POBatchResult.created(0, 7));
+        });
+
+        // When
+        ingestion.write(List.of(
+                new PurchaseOrderIngestionServiceImpl.Submission(good.id(), command("good")),
+                new PurchaseOrderIngestionServiceImpl.Submission(bad.id(), command("bad"))));
+
+        // Then
+        assertEquals(IngestionStatus.CREATED, status(good));
+        assertEquals(7, ingestion.findTicket(good.id()).orElseThrow().purchaseOrderId());
+        assertEquals(IngestionStatus.FAILED, status(bad));
+        assertEquals("constraint violation", ingestion.findTicket(bad.id()).orElseThrow().error());
+    }
+
+    @Test
+    @DisplayName("Should reject submissions once the queue is full")
+    void shouldRejectWhenQueueFull() throws Exception {
+        // Given - the only writer is stuck on the first commit and one more fills the queue
+        ingestion = newIngestion(1, 1, 50);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(purchaseOrderService.createAll(any())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(POBatchResult.created(0, 1));
+        });
+        ingestion.start();
+        ingestion.submit(command("first"));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        ingestion.submit(command("second"));
+
+        // When & Then
+        ServiceUnavailableException exception =
+                assertThrows(ServiceUnavailableException.class, () -> ingestion.submit(command("third")));
+        assertEquals(Duration.ofSeconds(1), exception.getRetryAfter());
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("Should stop within the shutdown timeout and fail what is still queued")
+    void shouldFailQueuedPurchaseOrdersWhenShutdownTimesOut() throws Exception {
+        // Given - the only writer hangs on the database while more purchase orders wait
+        ingestion = newIngestion(10, 1, 1, Duration.ofMillis(200));
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(purchaseOrderService.createAll(any())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(POBatchResult.created(0, 1));
+        });
+        ingestion.start();
+        ingestion.submit(command("first"));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        IngestionTicket queued = ingestion.submit(command("queued"));
+        CountDownLatch stopped = new CountDownLatch(1);
+
+        // When
+        long started = System.nanoTime();
+        ingestion.stop(stopped::countDown);
+
+        // Then
+        assertTrue(Duration.ofNanos(System.nanoTime() - started).compareTo(Duration.ofSeconds(2)) < 0);
+        assertEquals(0, stopped.getCount());
+        assertEquals(IngestionStatus.FAILED, status(queued));
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("Should fail a purchase order queued after the writers exited")
+    void shouldFailPurchaseOrdersLeftAfterWritersExit() {
+        // Given - no writer is left to take the submission, as when it raced past the running check during stop
+        ingestion = newIngestion(10, 0, 50);
+        ingestion.start();
+        IngestionTicket queued = ingestion.submit(command("late"));
+
+        // When
+        ingestion.stop();
+
+        // Then
+        assertEquals(IngestionStatus.FAILED, status(queued));
+        verifyNoInteractions(purchaseOrderService);
+    }
+
+    @Test
+    @DisplayName("Should reject submissions while stopped")
+    void shouldRejectWhenNotRunning() {
+        // Given
+        ingestion = newIngestion(10, 1, 50);
+
+        // When & Then
+        assertThrows(ServiceUnavailableException.class, () -> ingestion.submit(command("early")));
+        verifyNoInteractions(purchaseOrderService);
+    }
+
+    private PurchaseOrderIngestionServiceImpl newIngestion(int queueCapacity, int writers, int batchSize) {
+        return newIngestion(queueCapacity, writers, batchSize, Duration.ofSeconds(30));
+    }
+
+    private PurchaseOrderIngestionServiceImpl newIngestion(int queueCapacity, int writers, int batchSize,
+                                                           Duration shutdownTimeout) {
+        return new PurchaseOrderIngestionServiceImpl(purchaseOrderService, new SimpleMeterRegistry(),
+                queueCapacity, writers, batchSize, Duration.ofMinutes(5), shutdownTimeout);
+    }
+
+    private IngestionStatus status(IngestionTicket ticket) {
+        return ingestion.findTicket(ticket.id()).orElseThrow().status();
+    }
+
+    private CreatePOCommand command(String description) {
+        return CreatePOCommand.builder()
+                .datetime(LocalDateTime.of(2024, 1, 15, 10, 0))
+                .description(description)
+                .totalPrice(100L)
+                .totalCost(80L)
+                .createdBy("SYSTEM")
+                .details(List.of(new CreatePODetail(1, 1, 100L, 80L)))
+                .build();
+    }
+}
@@ -0,0 +1,78 @@
+package io.github.bluething.myboostposystem.domain.po;
+
+import io.github.bluething.myboostposystem.persistence.PurchaseOrderOutbox;
+import io.github.bluething.myboostposystem.persistence.PurchaseOrderOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PurchaseOrderOutboxRelayTest {
+    private final PurchaseOrderOutboxRepository outboxRepository = mock(PurchaseOrderOutboxRepository.class);
+    private final InMemoryPurchaseOrderEventSink sink = new InMemoryPurchaseOrderEventSink(100);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private PurchaseOrderOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        relay = new PurchaseOrderOutboxRelay(outboxRepository, sink, transactionTemplate, new SimpleMeterRegistry(), 2);
+    }
+
+    @Test
+    @DisplayName("Should publish locked batches in order and delete them until the outbox is drained")
+    void shouldPublishAndDeleteBatches() {
+        // Given - a full batch followed by a partial one
+        List<PurchaseOrderOutbox> first = List.of(row(1L, 10, 0L, "CREATED"), row(2L, 10, 1L, "UPDATED"));
+        List<PurchaseOrderOutbox> second = List.of(row(3L, 11, 4L, "DELETED"));
+        when(outboxRepository.lockOldest(2)).thenReturn(first).thenReturn(second);
+
+        // When
+        relay.relay();
+
+        // Then
+        assertEquals(List.of(1L, 2L, 3L), sink.events().stream().map(PurchaseOrderEvent::id).toList());
+        assertEquals(List.of(0L, 1L, 4L), sink.events().stream().map(PurchaseOrderEvent::version).toList());
+        assertEquals(PurchaseOrderEventType.DELETED, sink.events().get(2).type());
+        verify(outboxRepository).deleteAllInBatch(first);
+        verify(outboxRepository).deleteAllInBatch(second);
+        verify(outboxRepository, times(2)).lockOldest(2);
+    }
+
+    @Test
+    @DisplayName("Should keep events in the outbox when the sink fails")
+    void shouldKeepEventsWhenSinkFails() {
+        // Given
+        PurchaseOrderEventSink failingSink = events -> {
+            throw new IllegalStateException("broker unavailable");
+        };
+        relay = new PurchaseOrderOutboxRelay(outboxRepository, failingSink, transactionTemplate, new SimpleMeterRegistry(), 2);
+        when(outboxRepository.lockOldest(2)).thenReturn(List.of(row(1L, 10, 0L, "CREATED")));
+
+        // When
+        relay.relay();
+
+        // Then
+        verify(outboxRepository, never()).deleteAllInBatch(any());
+    }
+
+    private PurchaseOrderOutbox row(Long id, Integer purchaseOrderId, Long version, String type) {
+        return PurchaseOrderOutbox.builder()
+                .id(id)
+                .purchaseOrderId(purchaseOrderId)
+                .purchaseOrderVersion(version)
+                .eventType(type)
+                .createdDatetime(Instant.parse("2024-01-15T03:00:00Z"))
+                .build();
+    }
+}
@@ -0,0 +1,71 @@
+package io.github.bluething.myboostposystem.domain.po;
+
+import io.github.bluething.myboostposystem.persistence.PurchaseOrderHeaderRepository;
+import io.github.bluething.myboostposystem.persistence.PurchaseOrderTotalsMismatch;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PurchaseOrderTotalsVerifierTest {
+    private final PurchaseOrderHeaderRepository repository = mock(PurchaseOrderHeaderRepository.class);
+    private final PurchaseOrderService purchaseOrderService = mock(PurchaseOrderService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Should walk headers in id batches and only report mismatches when repair is off")
+    void shouldReportMismatchesInBatches() {
+        // Given - five headers in batches of two, header 4 drifted
+        PurchaseOrderTotalsVerifier verifier = new PurchaseOrderTotalsVerifier(repository, purchaseOrderService, meterRegistry, 2, false);
+        when(repository.findIdsGreaterThan(0, Limit.of(2))).thenReturn(List.of(1, 2));
+        when(repository.findIdsGreaterThan(2, Limit.of(2))).thenReturn(List.of(3, 4));
+        when(repository.findIdsGreaterThan(4, Limit.of(2))).thenReturn(List.of(5));
+        List<PurchaseOrderTotalsMismatch> mismatches = List.of(mismatch(4));
+        when(repository.findTotalsMismatches(2, 4)).thenReturn(mismatches);
+
+        // When
+        PurchaseOrderTotalsVerifier.Report report = verifier.verify();
+
+        // Then
+        assertEquals(new PurchaseOrderTotalsVerifier.Report(5, 1, 0), report);
+        verify(repository).findTotalsMismatches(0, 2);
+        verify(repository).findTotalsMismatches(4, 5);
+        verifyNoInteractions(purchaseOrderService);
+        assertEquals(5, meterRegistry.counter("po.totals.verifier.purchase-orders", "result", "checked").count());
+        assertEquals(1, meterRegistry.counter("po.totals.verifier.purchase-orders", "result", "mismatched").count());
+    }
+
+    @Test
+    @DisplayName("Should repair drifted headers through the service when repair is on")
+    void shouldRepairMismatches() {
+        // Given
+        PurchaseOrderTotalsVerifier verifier = new PurchaseOrderTotalsVerifier(repository, purchaseOrderService, meterRegistry, 10, true);
+        when(repository.findIdsGreaterThan(0, Limit.of(10))).thenReturn(List.of(1, 2, 3));
+        List<PurchaseOrderTotalsMismatch> mismatches = List.of(mismatch(1), mismatch(3));
+        when(repository.findTotalsMismatches(0, 3)).thenReturn(mismatches);
+        when(purchaseOrderService.repairTotals(List.of(1, 3))).thenReturn(2);
+
+        // When
+        PurchaseOrderTotalsVerifier.Report report = verifier.verify();
+
+        // Then
+        assertEquals(new PurchaseOrderTotalsVerifier.Report(3, 2, 2), report);
+        verify(purchaseOrderService).repairTotals(List.of(1, 3));
+        verify(repository, never()).recalculateTotals(any());
+        assertEquals(2, meterRegistry.counter("po.totals.verifier.purchase-orders", "result", "repaired").count());
+    }
+
+    private PurchaseOrderTotalsMismatch mismatch(Integer id) {
+        PurchaseOrderTotalsMismatch mismatch = mock(PurchaseOrderTotalsMismatch.class);
+        when(mismatch.getId()).thenReturn(id);
+        when(mismatch.getTotalPrice()).thenReturn(100L);
+        when(mismatch.getDetailTotalPrice()).thenReturn(200L);
+        return mismatch;
+    }
+}
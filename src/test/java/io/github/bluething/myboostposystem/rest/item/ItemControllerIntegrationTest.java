@@ -9,15 +9,20 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.data.web.config.EnableSpringDataWebSupport;
 import org.springframework.http.*;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.util.UriComponentsBuilder;
+import org.testcontainers.containers.GenericContainer;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
@@ -35,12 +40,18 @@ class ItemControllerIntegrationTest {
             .withUsername("test")
             .withPassword("test");
 
+    @Container
+    static GenericContainer<?> redis = new GenericContainer<>("redis:7.2.5-alpine")
+            .withExposedPorts(6379);
+
     @DynamicPropertySource
     static void configureProperties(DynamicPropertyRegistry registry) {
         registry.add("spring.datasource.url", postgres::getJdbcUrl);
         registry.add("spring.datasource.username", postgres::getUsername);
         registry.add("spring.datasource.password", postgres::getPassword);
         registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        registry.add("spring.data.redis.host", redis::getHost);
+        registry.add("spring.data.redis.port", () -> redis.getMappedPort(6379));
     }
 
     @LocalServerPort
@@ -444,6 +455,124 @@ class ItemControllerIntegrationTest {
         assertThat(itemRepository.count()).isEqualTo(0);
     }
 
+    @Test
+    void searchItems_ShouldRankMatchesAndTolerateTypos() {
+        // Given
+        restTemplate.postForEntity(baseUrl, new ItemCreateRequest("MacBook Pro M3", "Latest laptop with M3 chip", 25000000L, 20000000L), ItemResponse.class);
+        restTemplate.postForEntity(baseUrl, new ItemCreateRequest("Laptop Sleeve", "Fits a MacBook Pro", 300000L, 200000L), ItemResponse.class);
+        restTemplate.postForEntity(baseUrl, new ItemCreateRequest("Office Chair", "Ergonomic chair", 1500000L, 1000000L), ItemResponse.class);
+
+        // When - a whole word in the name outranks the same word in a description
+        ResponseEntity<List<ItemResponse>> byWord = restTemplate.exchange(
+                baseUrl + "/search?q=macbook", HttpMethod.GET, null, new ParameterizedTypeReference<>() {});
+
+        // Then
+        assertThat(byWord.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(byWord.getBody()).extracting(ItemResponse::name).containsExactly("MacBook Pro M3", "Laptop Sleeve");
+
+        // When - misspelled
+        ResponseEntity<List<ItemResponse>> byTypo = restTemplate.exchange(
+                baseUrl + "/search?q=macbok", HttpMethod.GET, null, new ParameterizedTypeReference<>() {});
+
+        // Then
+        assertThat(byTypo.getBody()).extracting(ItemResponse::name).first().isEqualTo("MacBook Pro M3");
+        assertThat(byTypo.getBody()).extracting(ItemResponse::name).doesNotContain("Office Chair");
+    }
+
+    @Test
+    void getItemPrice_ShouldReturnPriceInEffectAtTime() {
+        // Given - created at 1000, repriced to 1500
+        ItemResponse created = restTemplate.postForEntity(baseUrl,
+                new ItemCreateRequest("Desk Lamp", "LED", 1000L, 700L), ItemResponse.class).getBody();
+        assertThat(created).isNotNull();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        ItemResponse updated = restTemplate.exchange(baseUrl + "/{id}", HttpMethod.PUT,
+                new HttpEntity<>(new ItemUpdateRequest("Desk Lamp", "LED", 1500L, 900L), headers),
+                ItemResponse.class, created.id()).getBody();
+        assertThat(updated).isNotNull();
+
+        // When
+        ResponseEntity<ItemPriceResponse> current = restTemplate.getForEntity(
+                baseUrl + "/{id}/price", ItemPriceResponse.class, created.id());
+        ResponseEntity<ItemPriceResponse> before = restTemplate.getForEntity(
+                baseUrl + "/{id}/price?at={at}", ItemPriceResponse.class, created.id(), updated.updatedDatetime().minusSeconds(1));
+        ResponseEntity<ItemPriceResponse> beforeCreated = restTemplate.getForEntity(
+                baseUrl + "/{id}/price?at={at}", ItemPriceResponse.class, created.id(), created.createdDatetime().minusDays(1));
+
+        // Then
+        assertThat(current.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(current.getBody()).isNotNull();
+        assertThat(current.getBody().price()).isEqualTo(1500L);
+        assertThat(current.getBody().cost()).isEqualTo(900L);
+        assertThat(before.getBody()).isNotNull();
+        assertThat(before.getBody().price()).isEqualTo(1000L);
+        assertThat(beforeCreated.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void getItemPrice_ShouldReturnNotFound_WhenItemDeleted() {
+        // Given - price read once so it is cached
+        ItemResponse created = restTemplate.postForEntity(baseUrl,
+                new ItemCreateRequest("Floor Lamp", "LED", 2000L, 1400L), ItemResponse.class).getBody();
+        assertThat(created).isNotNull();
+        assertThat(restTemplate.getForEntity(baseUrl + "/{id}/price", ItemPriceResponse.class, created.id())
+                .getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        // When
+        restTemplate.delete(baseUrl + "/{id}", created.id());
+        ResponseEntity<String> response = restTemplate.getForEntity(baseUrl + "/{id}/price", String.class, created.id());
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void importItems_ShouldUpsertValidRowsAndReportRejected() {
+        // Given - "Test Item" exists, so its row updates it
+        Item existing = createSingleTestItem();
+        String csv = """
+                name,description,price,cost
+                Test Item,Test Description,1500,800
+                New Item,"Imported, with a comma",2000,1500
+                ,No name,100,50
+                Bad Price,,abc,10
+                Item A,first,100,80
+                Item A,second,200,160
+                """;
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("file", new ByteArrayResource(csv.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public String getFilename() {
+                return "catalog.csv";
+            }
+        });
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+
+        // When
+        ResponseEntity<ItemImportResponse> response = restTemplate.postForEntity(
+                baseUrl + "/import", new HttpEntity<>(body, headers), ItemImportResponse.class);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        ItemImportResponse result = response.getBody();
+        assertThat(result).isNotNull();
+        assertThat(result.rows()).isEqualTo(6);
+        assertThat(result.inserted()).isEqualTo(2);
+        assertThat(result.updated()).isEqualTo(1);
+        assertThat(result.rejected()).isEqualTo(3);
+        assertThat(result.rejections()).extracting(ItemImportRejectionResponse::line).containsExactly(4L, 5L, 6L);
+        assertThat(result.rejections().get(0).reason()).isEqualTo("Item name is required");
+
+        Item updated = itemRepository.findById(existing.getId()).orElseThrow();
+        assertThat(updated.getPrice()).isEqualTo(1500L);
+        assertThat(updated.getVersion()).isEqualTo(existing.getVersion() + 1);
+        assertThat(itemRepository.count()).isEqualTo(3);
+        assertThat(itemRepository.findAll()).filteredOn(item -> item.getName().equals("Item A"))
+                .singleElement().extracting(Item::getDescription).isEqualTo("second");
+    }
+
     // Helper methods
     private void createTestItems() {
         Instant now = Instant.now();
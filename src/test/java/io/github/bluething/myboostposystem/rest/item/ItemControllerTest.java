@@ -1,8 +1,13 @@
 package io.github.bluething.myboostposystem.rest.item;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.bluething.myboostposystem.common.CountMode;
 import io.github.bluething.myboostposystem.domain.item.CreateItemCommand;
 import io.github.bluething.myboostposystem.domain.item.ItemData;
+import io.github.bluething.myboostposystem.domain.item.ItemImportRejection;
+import io.github.bluething.myboostposystem.domain.item.ItemImportResult;
+import io.github.bluething.myboostposystem.domain.item.ItemImportService;
+import io.github.bluething.myboostposystem.domain.item.ItemPrice;
 import io.github.bluething.myboostposystem.domain.item.ItemService;
 import io.github.bluething.myboostposystem.domain.item.UpdateItemCommand;
 import org.junit.jupiter.api.Test;
@@ -13,17 +18,22 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -37,6 +47,9 @@ class ItemControllerTest {
     @MockitoBean
     private ItemService itemService;
 
+    @MockitoBean
+    private ItemImportService itemImportService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -65,7 +78,8 @@ class ItemControllerTest {
                 "SYSTEM",
                 null,
                 FIXED_DATE,
-                null
+                null,
+                0L
         );
 
         when(itemService.create(any(CreateItemCommand.class))).thenReturn(createdItem);
@@ -103,11 +117,41 @@ class ItemControllerTest {
         verify(itemService, never()).create(any());
     }
 
+    @Test
+    void importItems_ShouldReturnCounts_WhenCsvUploaded() throws Exception {
+        // Given
+        MockMultipartFile file = new MockMultipartFile("file", "catalog.csv", "text/csv",
+                "name,description,price,cost\nLaptop,,1000,800\n,Nameless,10,5\n".getBytes(StandardCharsets.UTF_8));
+        when(itemImportService.importCsv(any(), eq("SYSTEM"))).thenReturn(new ItemImportResult(
+                2, 1, 0, 0, 1, List.of(new ItemImportRejection(3, "Item name is required"))));
+
+        // When & Then
+        mockMvc.perform(multipart(BASE_URL + "/import").file(file))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(2))
+                .andExpect(jsonPath("$.inserted").value(1))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.rejections[0].line").value(3))
+                .andExpect(jsonPath("$.rejections[0].reason").value("Item name is required"));
+    }
+
+    @Test
+    void importItems_ShouldReturnBadRequest_WhenFileEmpty() throws Exception {
+        // Given
+        MockMultipartFile file = new MockMultipartFile("file", "catalog.csv", "text/csv", new byte[0]);
+
+        // When & Then
+        mockMvc.perform(multipart(BASE_URL + "/import").file(file))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(itemImportService);
+    }
+
     @Test
     void getItems_ShouldReturnPagedItems_WhenCalled() throws Exception {
         // Given
-        ItemData item1 = new ItemData(1, "Item 1", "Desc 1", 1000L, 800L, "user1", null, FIXED_DATE, null);
-        ItemData item2 = new ItemData(2, "Item 2", "Desc 2", 2000L, 1500L, "user2", null, FIXED_DATE, null);
+        ItemData item1 = new ItemData(1, "Item 1", "Desc 1", 1000L, 800L, "user1", null, FIXED_DATE, null, 0L);
+        ItemData item2 = new ItemData(2, "Item 2", "Desc 2", 2000L, 1500L, "user2", null, FIXED_DATE, null, 0L);
 
         Page<ItemData> itemPage = new PageImpl<>(List.of(item1, item2), PageRequest.of(0, 10), 2);
 
@@ -130,6 +174,111 @@ class ItemControllerTest {
         verify(itemService).findAll(any(Pageable.class));
     }
 
+    @Test
+    void searchItems_ShouldReturnRankedItems_WhenQueryGiven() throws Exception {
+        // Given
+        ItemData item1 = new ItemData(1, "MacBook Pro", "Laptop", 1000L, 800L, "user1", null, FIXED_DATE, null, 0L);
+        ItemData item2 = new ItemData(2, "Laptop Sleeve", "Fits a MacBook", 2000L, 1500L, "user2", null, FIXED_DATE, null, 0L);
+
+        when(itemService.search("macbook", 20)).thenReturn(List.of(item1, item2));
+
+        // When & Then
+        mockMvc.perform(get(BASE_URL + "/search")
+                        .param("q", "macbook"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[1].name").value("Laptop Sleeve"));
+    }
+
+    @Test
+    void searchItems_ShouldReturnBadRequest_WhenQueryBlank() throws Exception {
+        // When & Then
+        mockMvc.perform(get(BASE_URL + "/search")
+                        .param("q", " "))
+                .andExpect(status().isBadRequest());
+
+        verify(itemService, never()).search(any(), anyInt());
+    }
+
+    @Test
+    void getItems_ShouldReturnOnlyRequestedFields_WhenFieldsGiven() throws Exception {
+        // Given
+        ItemData item1 = new ItemData(1, "Item 1", "Desc 1", 1000L, 800L, "user1", null, FIXED_DATE, null, 0L);
+        when(itemService.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(item1), PageRequest.of(0, 10), 1));
+
+        // When & Then
+        mockMvc.perform(get(BASE_URL)
+                        .param("fields", "id, name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1))
+                .andExpect(jsonPath("$.content[0].name").value("Item 1"))
+                .andExpect(jsonPath("$.content[0].price").doesNotExist())
+                .andExpect(jsonPath("$.content[0].createdDatetime").doesNotExist())
+                .andExpect(jsonPath("$.totalElements").value(1));
+    }
+
+    @Test
+    void getItems_ShouldReturnEstimatedTotal_WhenCountEstimated() throws Exception {
+        // Given
+        ItemData item1 = new ItemData(1, "Item 1", "Desc 1", 1000L, 800L, "user1", null, FIXED_DATE, null, 0L);
+        Page<ItemData> itemPage = new PageImpl<>(List.of(item1), PageRequest.of(0, 1), 5000);
+
+        when(itemService.findAll(any(Pageable.class), eq(CountMode.ESTIMATED))).thenReturn(itemPage);
+
+        // When & Then
+        mockMvc.perform(get(BASE_URL)
+                        .param("size", "1")
+                        .param("count", "estimated"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1))
+                .andExpect(jsonPath("$.page.totalElements").value(5000))
+                .andExpect(jsonPath("$.page.totalExact").value(false))
+                .andExpect(jsonPath("$.page.hasNext").value(true));
+
+        verify(itemService, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void getItems_ShouldReturnBadRequest_WhenCountModeUnknown() throws Exception {
+        mockMvc.perform(get(BASE_URL)
+                        .param("count", "sometimes"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(itemService);
+    }
+
+    @Test
+    void getItemsByIds_ShouldReturnItemsInRequestedOrder_WithMissingIds() throws Exception {
+        // Given
+        ItemData item1 = new ItemData(1, "Item 1", "Desc 1", 1000L, 800L, "user1", null, FIXED_DATE, null, 0L);
+        ItemData item3 = new ItemData(3, "Item 3", "Desc 3", 3000L, 2400L, "user1", null, FIXED_DATE, null, 0L);
+        when(itemService.findAllById(List.of(3, 2, 1))).thenReturn(Map.of(1, item1, 3, item3));
+
+        // When & Then
+        mockMvc.perform(get(BASE_URL).param("ids", "3,2,1,3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[0].id").value(3))
+                .andExpect(jsonPath("$.content[1].id").value(1))
+                .andExpect(jsonPath("$.notFound").value(2));
+
+        verify(itemService).findAllById(List.of(3, 2, 1));
+        verify(itemService, never()).findById(anyInt());
+    }
+
+    @Test
+    void getItemsByIds_ShouldReturnBadRequest_WhenTooManyIds() throws Exception {
+        // Given
+        String ids = String.join(",", IntStream.rangeClosed(1, 101).mapToObj(String::valueOf).toList());
+
+        // When & Then
+        mockMvc.perform(get(BASE_URL).param("ids", ids))
+                .andExpect(status().isBadRequest());
+
+        verify(itemService, never()).findAllById(any());
+    }
+
     @Test
     void getItemById_ShouldReturnItem_WhenItemExists() throws Exception {
         // Given
@@ -143,7 +292,8 @@ class ItemControllerTest {
                 "testuser",
                 null,
                 FIXED_DATE,
-                null
+                null,
+                0L
         );
 
         when(itemService.findById(itemId)).thenReturn(Optional.of(itemData));
@@ -157,6 +307,105 @@ class ItemControllerTest {
         verify(itemService).findById(itemId);
     }
 
+    @Test
+    void getItemPrice_ShouldReturnPriceAtTime_WhenAtGiven() throws Exception {
+        // Given - 'at' is in the application time zone
+        Instant at = LocalDateTime.of(2024, 1, 15, 10, 0).atZone(ZoneId.of("Asia/Jakarta")).toInstant();
+        when(itemService.findPrice(1, at)).thenReturn(Optional.of(new ItemPrice(1, 1000L, 800L, FIXED_DATE)));
+
+        // When & Then
+        mockMvc.perform(get(BASE_URL + "/{id}/price", 1).param("at", "2024-01-15T10:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itemId").value(1))
+                .andExpect(jsonPath("$.price").value(1000))
+                .andExpect(jsonPath("$.cost").value(800))
+                .andExpect(jsonPath("$.validFrom").value("2024-01-01T10:00:00"));
+    }
+
+    @Test
+    void getItemPrice_ShouldReturnNotFound_WhenNoPriceYet() throws Exception {
+        // Given
+        when(itemService.findPrice(eq(1), any())).thenReturn(Optional.empty());
+
+        // When & Then
+        mockMvc.perform(get(BASE_URL + "/{id}/price", 1).param("at", "2000-01-01T00:00:00"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getItemById_ShouldReturnETag_WhenItemExists() throws Exception {
+        // Given
+        Integer itemId = 1;
+        ItemData itemData = new ItemData(itemId, "Test Item", "Test Description", 1000L, 800L, "testuser", null, FIXED_DATE, null, 0L);
+
+        when(itemService.findById(itemId)).thenReturn(Optional.of(itemData));
+
+        // When & Then
+        mockMvc.perform(get(BASE_URL + "/{id}", itemId))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", etagOf(itemId, 0L)));
+
+        verify(itemService, never()).findVersion(anyInt());
+    }
+
+    @Test
+    void getItemById_ShouldReturnNotModified_WhenETagMatches() throws Exception {
+        // Given
+        Integer itemId = 1;
+        when(itemService.findVersion(itemId)).thenReturn(Optional.of(0L));
+
+        // When & Then
+        mockMvc.perform(get(BASE_URL + "/{id}", itemId)
+                        .header("If-None-Match", etagOf(itemId, 0L)))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etagOf(itemId, 0L)))
+                .andExpect(content().string(""));
+
+        verify(itemService, never()).findById(any());
+    }
+
+    @Test
+    void getItemById_ShouldReturnItem_WhenETagIsStale() throws Exception {
+        // Given
+        Integer itemId = 1;
+        Instant updated = FIXED_DATE.plus(1, ChronoUnit.HOURS);
+        ItemData itemData = new ItemData(itemId, "Test Item", "Test Description", 1000L, 800L, "testuser", "editor", FIXED_DATE, updated, 1L);
+
+        when(itemService.findVersion(itemId)).thenReturn(Optional.of(1L));
+        when(itemService.findById(itemId)).thenReturn(Optional.of(itemData));
+
+        // When & Then
+        mockMvc.perform(get(BASE_URL + "/{id}", itemId)
+                        .header("If-None-Match", etagOf(itemId, 0L)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", etagOf(itemId, 1L)))
+                .andExpect(jsonPath("$.id").value(itemId));
+    }
+
+    @Test
+    void getItemById_ShouldReloadItem_WhenServedCopyIsOlderThanVersion() throws Exception {
+        // Given - the catalog still holds version 1 while the database is at version 2
+        Integer itemId = 1;
+        Instant updated = FIXED_DATE.plus(1, ChronoUnit.HOURS);
+        ItemData stale = new ItemData(itemId, "Old Name", "Test Description", 1000L, 800L, "testuser", "editor", FIXED_DATE, FIXED_DATE, 1L);
+        ItemData current = new ItemData(itemId, "New Name", "Test Description", 1000L, 800L, "testuser", "editor", FIXED_DATE, updated, 2L);
+
+        when(itemService.findVersion(itemId)).thenReturn(Optional.of(2L));
+        when(itemService.findById(itemId)).thenReturn(Optional.of(stale));
+        when(itemService.findCurrentById(itemId)).thenReturn(Optional.of(current));
+
+        // When & Then
+        mockMvc.perform(get(BASE_URL + "/{id}", itemId)
+                        .header("If-None-Match", etagOf(itemId, 0L)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", etagOf(itemId, 2L)))
+                .andExpect(jsonPath("$.name").value("New Name"));
+    }
+
+    private static String etagOf(Integer id, Long version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+
     @Test
     void getItemById_ShouldThrowResourceNotFoundException_WhenItemNotExists() throws Exception {
         // Given
@@ -202,10 +451,11 @@ class ItemControllerTest {
                 "creator",
                 "SYSTEM",
                 FIXED_DATE.minus(1, ChronoUnit.DAYS),
-                FIXED_DATE
+                FIXED_DATE,
+                0L
         );
 
-        when(itemService.update(eq(itemId), any(UpdateItemCommand.class))).thenReturn(Optional.of(updatedItem));
+        when(itemService.update(eq(itemId), any(UpdateItemCommand.class), isNull())).thenReturn(Optional.of(updatedItem));
 
         // When & Then
         mockMvc.perform(put(BASE_URL + "/{id}", itemId)
@@ -218,7 +468,25 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.price").value(1500))
                 .andExpect(jsonPath("$.cost").value(1200));
 
-        verify(itemService).update(eq(itemId), any(UpdateItemCommand.class));
+        verify(itemService).update(eq(itemId), any(UpdateItemCommand.class), isNull());
+    }
+
+    @Test
+    void updateItem_ShouldUpdateUnconditionally_WhenIfMatchIsWildcard() throws Exception {
+        // Given
+        Integer itemId = 1;
+        ItemUpdateRequest request = new ItemUpdateRequest("Updated Item", "Updated Description", 1500L, 1200L);
+        ItemData updatedItem = new ItemData(itemId, "Updated Item", "Updated Description", 1500L, 1200L, "creator", "SYSTEM", FIXED_DATE, FIXED_DATE, 5L);
+
+        when(itemService.update(eq(itemId), any(UpdateItemCommand.class), isNull())).thenReturn(Optional.of(updatedItem));
+
+        // When & Then
+        mockMvc.perform(put(BASE_URL + "/{id}", itemId)
+                        .header("If-Match", "*")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", etagOf(itemId, 5L)));
     }
 
     @Test
@@ -232,7 +500,7 @@ class ItemControllerTest {
                 1200L
         );
 
-        when(itemService.update(eq(itemId), any(UpdateItemCommand.class))).thenReturn(Optional.empty());
+        when(itemService.update(eq(itemId), any(UpdateItemCommand.class), isNull())).thenReturn(Optional.empty());
 
         // When & Then
         mockMvc.perform(put(BASE_URL + "/{id}", itemId)
@@ -240,7 +508,7 @@ class ItemControllerTest {
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isNotFound());
 
-        verify(itemService).update(eq(itemId), any(UpdateItemCommand.class));
+        verify(itemService).update(eq(itemId), any(UpdateItemCommand.class), isNull());
     }
 
     @Test
@@ -260,7 +528,7 @@ class ItemControllerTest {
                         .content(objectMapper.writeValueAsString(invalidRequest)))
                 .andExpect(status().isBadRequest());
 
-        verify(itemService, never()).update(any(), any());
+        verify(itemService, never()).update(any(), any(), any());
     }
 
     @Test
@@ -0,0 +1,149 @@
+package io.github.bluething.myboostposystem.rest.po;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.bluething.myboostposystem.domain.po.CreatePOCommand;
+import io.github.bluething.myboostposystem.domain.po.POBatchResult;
+import io.github.bluething.myboostposystem.domain.po.PurchaseOrderService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(PurchaseOrderBatchController.class)
+class PurchaseOrderBatchControllerTest {
+    private static final String BATCH_URL = "/api/v1/purchase-orders:batch";
+    private static final String BATCH_DELETE_URL = "/api/v1/purchase-orders:batchDelete";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoBean
+    private PurchaseOrderService purchaseOrderService;
+
+    @Test
+    @DisplayName("POST /purchase-orders:batch - Should report per purchase order results in submission order")
+    void createPurchaseOrders_ShouldReportEachResult() throws Exception {
+        // Given - the second entry fails bean validation, the third is rejected by the service
+        CreatePORequest valid = createRequest("Valid", 1);
+        CreatePORequest invalid = CreatePORequest.builder()
+                .description("Missing datetime")
+                .totalPrice(100L)
+                .totalCost(80L)
+                .details(List.of(new PoDetailRequest(1, 1, 100L, 80L)))
+                .build();
+        CreatePORequest unknownItem = createRequest("Unknown item", 999);
+
+        when(purchaseOrderService.createAll(any())).thenReturn(List.of(
+                POBatchResult.created(0, 10),
+                POBatchResult.failed(1, "Items not found with ids: [999]")
+        ));
+
+        // When & Then
+        mockMvc.perform(post(BATCH_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BatchCreatePORequest(List.of(valid, invalid, unknownItem)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.failed").value(2))
+                .andExpect(jsonPath("$.results[0].index").value(0))
+                .andExpect(jsonPath("$.results[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.results[0].id").value(10))
+                .andExpect(jsonPath("$.results[1].index").value(1))
+                .andExpect(jsonPath("$.results[1].status").value("FAILED"))
+                .andExpect(jsonPath("$.results[1].error").value("datetime: Datetime is required"))
+                .andExpect(jsonPath("$.results[2].index").value(2))
+                .andExpect(jsonPath("$.results[2].error").value("Items not found with ids: [999]"));
+
+        verify(purchaseOrderService).createAll(argThat((List<CreatePOCommand> commands) -> commands.size() == 2));
+    }
+
+    @Test
+    @DisplayName("POST /purchase-orders:batch - Should not call the service when every entry is invalid")
+    void createPurchaseOrders_ShouldSkipServiceWhenNothingValid() throws Exception {
+        // Given
+        CreatePORequest invalid = CreatePORequest.builder()
+                .datetime(LocalDateTime.of(2024, 1, 15, 10, 0))
+                .totalPrice(100L)
+                .totalCost(80L)
+                .details(List.of())
+                .build();
+
+        // When & Then
+        mockMvc.perform(post(BATCH_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BatchCreatePORequest(List.of(invalid)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(0))
+                .andExpect(jsonPath("$.results[0].status").value("FAILED"));
+
+        verifyNoInteractions(purchaseOrderService);
+    }
+
+    @Test
+    @DisplayName("POST /purchase-orders:batch - Should return 400 for an empty batch")
+    void createPurchaseOrders_ShouldRejectEmptyBatch() throws Exception {
+        mockMvc.perform(post(BATCH_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BatchCreatePORequest(List.of()))))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(purchaseOrderService);
+    }
+
+    @Test
+    @DisplayName("POST /purchase-orders:batchDelete - Should report deleted and unknown ids")
+    void deletePurchaseOrders_ShouldReportNotFound() throws Exception {
+        // Given
+        when(purchaseOrderService.deleteAllById(any())).thenReturn(List.of(1, 3));
+
+        // When & Then
+        mockMvc.perform(post(BATCH_DELETE_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BatchDeletePORequest(List.of(1, 2, 3, 1)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(2))
+                .andExpect(jsonPath("$.ids[0]").value(1))
+                .andExpect(jsonPath("$.ids[1]").value(3))
+                .andExpect(jsonPath("$.notFound.length()").value(1))
+                .andExpect(jsonPath("$.notFound[0]").value(2));
+
+        verify(purchaseOrderService).deleteAllById(argThat((Collection<Integer> ids) -> ids.size() == 3));
+    }
+
+    @Test
+    @DisplayName("POST /purchase-orders:batchDelete - Should return 400 for an empty batch")
+    void deletePurchaseOrders_ShouldRejectEmptyBatch() throws Exception {
+        mockMvc.perform(post(BATCH_DELETE_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BatchDeletePORequest(List.of()))))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(purchaseOrderService);
+    }
+
+    private CreatePORequest createRequest(String description, Integer itemId) {
+        return CreatePORequest.builder()
+                .datetime(LocalDateTime.of(2024, 1, 15, 10, 0))
+                .description(description)
+                .totalPrice(100L)
+                .totalCost(80L)
+                .details(List.of(new PoDetailRequest(itemId, 1, 100L, 80L)))
+                .build();
+    }
+}
@@ -1,8 +1,14 @@
 package io.github.bluething.myboostposystem.rest.po;
 
+import io.github.bluething.myboostposystem.domain.po.InMemoryPurchaseOrderEventSink;
+import io.github.bluething.myboostposystem.domain.po.PurchaseOrderEvent;
+import io.github.bluething.myboostposystem.domain.po.PurchaseOrderEventType;
 import io.github.bluething.myboostposystem.persistence.Item;
 import io.github.bluething.myboostposystem.persistence.ItemRepository;
 import io.github.bluething.myboostposystem.persistence.PurchaseOrderHeaderRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -12,15 +18,19 @@ import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.GenericContainer;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @Testcontainers
@@ -32,12 +42,19 @@ class PurchaseOrderControllerIntegrationTest {
             .withUsername("test")
             .withPassword("test");
 
+    @Container
+    static GenericContainer<?> redis = new GenericContainer<>("redis:7.2.5-alpine")
+            .withExposedPorts(6379);
+
     @DynamicPropertySource
     static void configureProperties(DynamicPropertyRegistry registry) {
         registry.add("spring.datasource.url", postgres::getJdbcUrl);
         registry.add("spring.datasource.username", postgres::getUsername);
         registry.add("spring.datasource.password", postgres::getPassword);
         registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> "true");
+        registry.add("spring.data.redis.host", redis::getHost);
+        registry.add("spring.data.redis.port", () -> redis.getMappedPort(6379));
     }
 
     @LocalServerPort
@@ -52,6 +69,12 @@ class PurchaseOrderControllerIntegrationTest {
     @Autowired
     private ItemRepository itemRepository;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private InMemoryPurchaseOrderEventSink eventSink;
+
     private static Item testItem1;
     private static Item testItem2;
     private static Integer createdPOId;
@@ -287,6 +310,348 @@ class PurchaseOrderControllerIntegrationTest {
         Assertions.assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
 
+    @Test
+    @Order(7)
+    @DisplayName("Should list purchase orders with the same statement count regardless of page size")
+    void shouldListPurchaseOrdersWithConstantStatementCount() throws Exception {
+        // Given - enough POs to fill the larger page
+        for (int i = 0; i < 5; i++) {
+            createAnotherTestPurchaseOrder();
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // When
+        statistics.clear();
+        ResponseEntity<PagedResponse> smallPage = restTemplate.getForEntity(
+                "/api/v1/purchase-orders?page=0&size=1", PagedResponse.class);
+        long smallPageStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        ResponseEntity<PagedResponse> largePage = restTemplate.getForEntity(
+                "/api/v1/purchase-orders?page=0&size=5", PagedResponse.class);
+        long largePageStatements = statistics.getPrepareStatementCount();
+
+        // Then - ids page, count and one batched detail fetch, never one query per header
+        Assertions.assertEquals(HttpStatus.OK, smallPage.getStatusCode());
+        Assertions.assertEquals(HttpStatus.OK, largePage.getStatusCode());
+        Assertions.assertEquals(1, smallPage.getBody().content.size());
+        Assertions.assertEquals(5, largePage.getBody().content.size());
+        Assertions.assertEquals(smallPageStatements, largePageStatements);
+        Assertions.assertTrue(largePageStatements <= 3);
+    }
+
+    @Test
+    @Order(8)
+    @DisplayName("Should serve repeated reads from the cache and reload after delete")
+    void shouldServeRepeatedReadsFromCache() throws Exception {
+        // Given
+        Integer poId = createAnotherTestPurchaseOrder();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        restTemplate.getForEntity("/api/v1/purchase-orders/" + poId, Response.class);
+
+        // When
+        statistics.clear();
+        ResponseEntity<Response> cached = restTemplate.getForEntity("/api/v1/purchase-orders/" + poId, Response.class);
+        long cachedStatements = statistics.getPrepareStatementCount();
+
+        restTemplate.delete("/api/v1/purchase-orders/" + poId);
+        ResponseEntity<String> afterDelete = restTemplate.getForEntity("/api/v1/purchase-orders/" + poId, String.class);
+
+        // Then - served without reaching the database, and delete evicts the entry
+        Assertions.assertEquals(HttpStatus.OK, cached.getStatusCode());
+        Assertions.assertEquals(poId, cached.getBody().id());
+        Assertions.assertEquals(0, cachedStatements);
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, afterDelete.getStatusCode());
+    }
+
+    @Test
+    @Order(9)
+    @DisplayName("Should search purchase orders by creator and total range")
+    void shouldSearchPurchaseOrders() throws Exception {
+        // Given - a PO totalling 200, ordered now
+        createAnotherTestPurchaseOrder();
+        LocalDate today = LocalDate.now();
+
+        // When
+        ResponseEntity<PagedResponse> inRange = restTemplate.getForEntity(
+                "/api/v1/purchase-orders/search?dateFrom=" + today.minusDays(1) + "&dateTo=" + today.plusDays(1)
+                        + "&minTotalPrice=150&maxTotalPrice=250",
+                PagedResponse.class);
+        ResponseEntity<PagedResponse> noMatch = restTemplate.getForEntity(
+                "/api/v1/purchase-orders/search?createdBy=nobody", PagedResponse.class);
+        ResponseEntity<String> invalidRange = restTemplate.getForEntity(
+                "/api/v1/purchase-orders/search?minTotalPrice=300&maxTotalPrice=200", String.class);
+
+        // Then
+        Assertions.assertEquals(HttpStatus.OK, inRange.getStatusCode());
+        List<Response> content = inRange.getBody().content;
+        Assertions.assertFalse(content.isEmpty());
+        content.forEach(po -> Assertions.assertEquals(200L, po.totalPrice()));
+        Assertions.assertEquals(List.of(), noMatch.getBody().content);
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, invalidRange.getStatusCode());
+    }
+
+    @Test
+    @Order(10)
+    @DisplayName("Should batch create purchase orders and report rejected entries")
+    void shouldBatchCreatePurchaseOrders() throws Exception {
+        // Given - 120 valid purchase orders spanning several JDBC batches and one with an unknown item
+        List<CreatePORequest> purchaseOrders = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            purchaseOrders.add(CreatePORequest.builder()
+                    .datetime(LocalDateTime.now())
+                    .description("Batch PO " + i)
+                    .totalPrice(300L)
+                    .totalCost(240L)
+                    .details(List.of(
+                            new PoDetailRequest(testItem1.getId(), 1, 100L, 80L),
+                            new PoDetailRequest(testItem2.getId(), 1, 200L, 160L)
+                    ))
+                    .build());
+        }
+        purchaseOrders.add(CreatePORequest.builder()
+                .datetime(LocalDateTime.now())
+                .description("Unknown item")
+                .totalPrice(100L)
+                .totalCost(80L)
+                .details(List.of(new PoDetailRequest(999_999, 1, 100L, 80L)))
+                .build());
+        long before = poHeaderRepository.count();
+
+        // When
+        ResponseEntity<BatchCreateResponse> response = restTemplate.postForEntity(
+                "/api/v1/purchase-orders:batch", new BatchCreatePORequest(purchaseOrders), BatchCreateResponse.class);
+
+        // Then
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assertions.assertEquals(120, response.getBody().created());
+        Assertions.assertEquals(1, response.getBody().failed());
+        Assertions.assertEquals(before + 120, poHeaderRepository.count());
+        List<BatchResultResponse> results = response.getBody().results();
+        Assertions.assertEquals("FAILED", results.get(120).status());
+
+        Integer firstId = results.get(0).id();
+        ResponseEntity<Response> first = restTemplate.getForEntity("/api/v1/purchase-orders/" + firstId, Response.class);
+        Assertions.assertEquals(2, first.getBody().details().size());
+    }
+
+    @Test
+    @Order(11)
+    @DisplayName("Should update only the changed detail lines and keep the others")
+    void shouldReconcileDetailsOnUpdate() throws Exception {
+        // Given
+        var create = CreatePORequest.builder()
+                .datetime(LocalDateTime.now())
+                .description("Reconcile")
+                .totalPrice(400L)
+                .totalCost(320L)
+                .details(List.of(
+                        new PoDetailRequest(testItem1.getId(), 2, 100L, 80L),
+                        new PoDetailRequest(testItem2.getId(), 1, 200L, 160L)
+                ))
+                .build();
+        Response created = restTemplate.postForEntity("/api/v1/purchase-orders", create, Response.class).getBody();
+        Assertions.assertNotNull(created);
+        Map<Long, Integer> detailIdsByPrice = created.details().stream()
+                .collect(Collectors.toMap(DetailResponse::itemPrice, DetailResponse::id));
+
+        // When - change the quantity of one line, keep the other
+        UpdatePORequest changeQuantity = new UpdatePORequest(created.datetime(), "Reconcile", 700L, 560L, List.of(
+                new PoDetailRequest(testItem1.getId(), 5, 100L, 80L),
+                new PoDetailRequest(testItem2.getId(), 1, 200L, 160L)
+        ));
+        ResponseEntity<Response> updated = restTemplate.exchange("/api/v1/purchase-orders/" + created.id(),
+                HttpMethod.PUT, new HttpEntity<>(changeQuantity), Response.class);
+
+        // Then
+        Assertions.assertEquals(HttpStatus.OK, updated.getStatusCode());
+        Assertions.assertEquals(700L, updated.getBody().totalPrice());
+        Assertions.assertEquals(560L, updated.getBody().totalCost());
+        Assertions.assertEquals(detailIdsByPrice, updated.getBody().details().stream()
+                .collect(Collectors.toMap(DetailResponse::itemPrice, DetailResponse::id)));
+
+        // When - drop the first line
+        UpdatePORequest dropLine = new UpdatePORequest(created.datetime(), "Reconcile", 200L, 160L, List.of(
+                new PoDetailRequest(testItem2.getId(), 1, 200L, 160L)
+        ));
+        Response reduced = restTemplate.exchange("/api/v1/purchase-orders/" + created.id(),
+                HttpMethod.PUT, new HttpEntity<>(dropLine), Response.class).getBody();
+
+        // Then
+        Assertions.assertEquals(1, reduced.details().size());
+        Assertions.assertEquals(detailIdsByPrice.get(200L), reduced.details().getFirst().id());
+        Assertions.assertEquals(200L, reduced.totalPrice());
+        Assertions.assertEquals(160L, reduced.totalCost());
+    }
+
+    @Test
+    @Order(12)
+    @DisplayName("Should create once and replay the stored response for a repeated Idempotency-Key")
+    void shouldReplayRepeatedIdempotencyKey() throws Exception {
+        // Given
+        var request = CreatePORequest.builder()
+                .datetime(LocalDateTime.now())
+                .description("Idempotent")
+                .totalPrice(100L)
+                .totalCost(80L)
+                .details(List.of(new PoDetailRequest(testItem1.getId(), 1, 100L, 80L)))
+                .build();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("Idempotency-Key", "integration-retry-1");
+        long before = poHeaderRepository.count();
+
+        // When
+        ResponseEntity<Response> first = restTemplate.exchange("/api/v1/purchase-orders", HttpMethod.POST,
+                new HttpEntity<>(request, headers), Response.class);
+        ResponseEntity<Response> replayed = restTemplate.exchange("/api/v1/purchase-orders", HttpMethod.POST,
+                new HttpEntity<>(request, headers), Response.class);
+        var changed = CreatePORequest.builder()
+                .datetime(request.datetime())
+                .description("Idempotent but different")
+                .totalPrice(100L)
+                .totalCost(80L)
+                .details(request.details())
+                .build();
+        ResponseEntity<String> conflict = restTemplate.exchange("/api/v1/purchase-orders", HttpMethod.POST,
+                new HttpEntity<>(changed, headers), String.class);
+
+        // Then
+        Assertions.assertEquals(HttpStatus.OK, first.getStatusCode());
+        Assertions.assertEquals(HttpStatus.OK, replayed.getStatusCode());
+        Assertions.assertEquals(first.getBody().id(), replayed.getBody().id());
+        Assertions.assertEquals(first.getBody().details(), replayed.getBody().details());
+        Assertions.assertEquals(HttpStatus.CONFLICT, conflict.getStatusCode());
+        Assertions.assertEquals(before + 1, poHeaderRepository.count());
+    }
+
+    @Test
+    @Order(13)
+    @DisplayName("Should reject an update carrying a stale If-Match with 412")
+    void shouldRejectStaleIfMatch() throws Exception {
+        // Given
+        Integer poId = createAnotherTestPurchaseOrder();
+        ResponseEntity<Response> read = restTemplate.getForEntity("/api/v1/purchase-orders/" + poId, Response.class);
+        String etag = read.getHeaders().getETag();
+        UpdatePORequest request = new UpdatePORequest(read.getBody().datetime(), "First writer", 200L, 160L,
+                List.of(new PoDetailRequest(testItem2.getId(), 1, 200L, 160L)));
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfMatch(etag);
+
+        // When
+        ResponseEntity<Response> first = restTemplate.exchange("/api/v1/purchase-orders/" + poId,
+                HttpMethod.PUT, new HttpEntity<>(request, headers), Response.class);
+        ResponseEntity<String> second = restTemplate.exchange("/api/v1/purchase-orders/" + poId,
+                HttpMethod.PUT, new HttpEntity<>(request, headers), String.class);
+
+        // Then
+        Assertions.assertEquals(HttpStatus.OK, first.getStatusCode());
+        Assertions.assertNotEquals(etag, first.getHeaders().getETag());
+        Assertions.assertEquals(HttpStatus.PRECONDITION_FAILED, second.getStatusCode());
+    }
+
+    @Test
+    @Order(14)
+    @DisplayName("Should patch the header without loading details")
+    void shouldPatchHeaderWithoutLoadingDetails() throws Exception {
+        // Given
+        Integer poId = createAnotherTestPurchaseOrder();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        // When
+        statistics.clear();
+        ResponseEntity<SummaryResponse> patched = restTemplate.exchange("/api/v1/purchase-orders/" + poId, HttpMethod.PATCH,
+                new HttpEntity<>(Map.of("description", "Patched"), headers), SummaryResponse.class);
+        long collectionFetches = statistics.getCollectionFetchCount();
+
+        // Then
+        Assertions.assertEquals(HttpStatus.OK, patched.getStatusCode());
+        Assertions.assertEquals("Patched", patched.getBody().description());
+        Assertions.assertEquals(0, collectionFetches);
+        Response reloaded = restTemplate.getForEntity("/api/v1/purchase-orders/" + poId, Response.class).getBody();
+        Assertions.assertEquals("Patched", reloaded.description());
+        Assertions.assertEquals(200L, reloaded.totalPrice());
+        Assertions.assertEquals(1, reloaded.details().size());
+    }
+
+    @Test
+    @Order(15)
+    @DisplayName("Should bulk delete purchase orders by id and by date range with their details")
+    void shouldBulkDeletePurchaseOrders() throws Exception {
+        // Given - three purchase orders dated in January 2001, well apart from the other tests
+        List<CreatePORequest> purchaseOrders = new ArrayList<>();
+        for (int day = 1; day <= 3; day++) {
+            purchaseOrders.add(CreatePORequest.builder()
+                    .datetime(LocalDateTime.of(2001, 1, day, 10, 0))
+                    .description("Old PO " + day)
+                    .totalPrice(100L)
+                    .totalCost(80L)
+                    .details(List.of(new PoDetailRequest(testItem1.getId(), 1, 100L, 80L)))
+                    .build());
+        }
+        List<BatchResultResponse> created = restTemplate.postForEntity(
+                "/api/v1/purchase-orders:batch", new BatchCreatePORequest(purchaseOrders), BatchCreateResponse.class)
+                .getBody().results();
+        Integer first = created.get(0).id();
+        Integer second = created.get(1).id();
+        Integer third = created.get(2).id();
+
+        // When - delete the first by id together with an unknown id
+        ResponseEntity<BatchDeleteResponse> byId = restTemplate.postForEntity(
+                "/api/v1/purchase-orders:batchDelete", new BatchDeletePORequest(List.of(first, 999_999)), BatchDeleteResponse.class);
+
+        // Then
+        Assertions.assertEquals(HttpStatus.OK, byId.getStatusCode());
+        Assertions.assertEquals(List.of(first), byId.getBody().ids());
+        Assertions.assertEquals(List.of(999_999), byId.getBody().notFound());
+
+        // When - delete the rest of January 2001 by range
+        ResponseEntity<BatchDeleteResponse> byRange = restTemplate.exchange(
+                "/api/v1/purchase-orders?from=2001-01-01T00:00:00&to=2001-02-01T00:00:00",
+                HttpMethod.DELETE, null, BatchDeleteResponse.class);
+
+        // Then
+        Assertions.assertEquals(HttpStatus.OK, byRange.getStatusCode());
+        Assertions.assertEquals(2, byRange.getBody().deleted());
+        Assertions.assertTrue(byRange.getBody().ids().containsAll(List.of(second, third)));
+        for (Integer id : List.of(first, second, third)) {
+            Assertions.assertFalse(poHeaderRepository.existsById(id));
+            Assertions.assertEquals(HttpStatus.NOT_FOUND,
+                    restTemplate.getForEntity("/api/v1/purchase-orders/" + id, String.class).getStatusCode());
+        }
+    }
+
+    @Test
+    @Order(16)
+    @DisplayName("Should publish create, update and delete events through the outbox")
+    void shouldPublishChangeEventsThroughOutbox() throws Exception {
+        // Given
+        Integer poId = createAnotherTestPurchaseOrder();
+        UpdatePORequest update = new UpdatePORequest(LocalDateTime.now(), "Outbox update", 400L, 320L,
+                List.of(new PoDetailRequest(testItem2.getId(), 2, 200L, 160L)));
+        restTemplate.exchange("/api/v1/purchase-orders/" + poId, HttpMethod.PUT, new HttpEntity<>(update), Response.class);
+
+        // When
+        restTemplate.delete("/api/v1/purchase-orders/" + poId);
+
+        // Then - the relay polls every second
+        List<PurchaseOrderEvent> events = List.of();
+        for (int attempt = 0; attempt < 50 && events.size() < 3; attempt++) {
+            Thread.sleep(100);
+            events = eventSink.events().stream()
+                    .filter(event -> event.purchaseOrderId().equals(poId))
+                    .toList();
+        }
+        Assertions.assertEquals(
+                List.of(PurchaseOrderEventType.CREATED, PurchaseOrderEventType.UPDATED, PurchaseOrderEventType.DELETED),
+                events.stream().map(PurchaseOrderEvent::type).toList());
+        Assertions.assertTrue(events.get(1).payload().contains("Outbox update"));
+        Assertions.assertNull(events.get(2).payload());
+        Assertions.assertEquals(List.of(0L, 1L, 2L), events.stream().map(PurchaseOrderEvent::version).toList());
+    }
+
     private void createTestPurchaseOrder() throws Exception {
         if (createdPOId == null) {
             var request = CreatePORequest.builder()
@@ -315,7 +680,7 @@ class PurchaseOrderControllerIntegrationTest {
             createdPOId = response.getBody().id();
         }
     }
-    private void createAnotherTestPurchaseOrder() throws Exception {
+    private Integer createAnotherTestPurchaseOrder() throws Exception {
         var request = CreatePORequest.builder()
                 .datetime(LocalDateTime.now())
                 .description("Another Test Purchase Order")
@@ -338,6 +703,7 @@ class PurchaseOrderControllerIntegrationTest {
         );
 
         Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        return response.getBody().id();
     }
 
     public static class PagedResponse {
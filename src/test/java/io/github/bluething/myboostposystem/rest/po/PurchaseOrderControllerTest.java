@@ -1,27 +1,40 @@
 package io.github.bluething.myboostposystem.rest.po;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.bluething.myboostposystem.common.CountMode;
 import io.github.bluething.myboostposystem.domain.po.*;
+import io.github.bluething.myboostposystem.exception.DuplicateResourceException;
+import io.github.bluething.myboostposystem.exception.PreconditionFailedException;
 import io.github.bluething.myboostposystem.exception.ResourceNotFoundException;
+import io.github.bluething.myboostposystem.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -39,6 +52,9 @@ class PurchaseOrderControllerTest {
     @MockitoBean
     private PurchaseOrderService purchaseOrderService;
 
+    @MockitoBean
+    private PurchaseOrderIngestionService purchaseOrderIngestionService;
+
     private static final Instant FIXED_DATE =
             LocalDateTime.of(2024, 1, 1, 10, 0, 0)
                     .atZone(ZoneId.of("Asia/Jakarta"))
@@ -63,7 +79,8 @@ class PurchaseOrderControllerTest {
                 "SYSTEM",
                 "SYSTEM",
                 FIXED_DATE,
-                FIXED_DATE
+                FIXED_DATE,
+                0L
         );
 
         Page<POData> mockPage = new PageImpl<>(List.of(poData));
@@ -123,7 +140,8 @@ class PurchaseOrderControllerTest {
                 "SYSTEM",
                 "SYSTEM",
                 FIXED_DATE,
-                FIXED_DATE
+                FIXED_DATE,
+                0L
         );
 
         when(purchaseOrderService.findById(1)).thenReturn(Optional.of(poData));
@@ -143,6 +161,46 @@ class PurchaseOrderControllerTest {
         verify(purchaseOrderService).findById(1);
     }
 
+    @Test
+    @DisplayName("GET /purchase-orders?ids= - Should return purchase orders in requested order and report missing ids")
+    void getPurchaseOrdersByIds_ShouldPreserveOrder() throws Exception {
+        // Given
+        List<CreatePODetail> details = List.of(new CreatePODetail(1, 10, 100L, 80L));
+        POData po1 = new POData(1, LocalDateTime.of(2024, 1, 15, 10, 0), "First", 1000L, 800L, details,
+                "SYSTEM", "SYSTEM", FIXED_DATE, FIXED_DATE, 0L);
+        POData po2 = new POData(2, LocalDateTime.of(2024, 1, 16, 10, 0), "Second", 1000L, 800L, details,
+                "SYSTEM", "SYSTEM", FIXED_DATE, FIXED_DATE, 0L);
+        when(purchaseOrderService.findAllById(List.of(2, 5, 1))).thenReturn(Map.of(1, po1, 2, po2));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/purchase-orders").param("ids", "2,5,1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[0].description").value("Second"))
+                .andExpect(jsonPath("$.content[1].description").value("First"))
+                .andExpect(jsonPath("$.content[0].details[0].id").value(1))
+                .andExpect(jsonPath("$.notFound").value(5));
+
+        verify(purchaseOrderService, never()).findById(anyInt());
+    }
+
+    @Test
+    @DisplayName("GET /purchase-orders?ids with list options - Should still fetch by ids")
+    void getPurchaseOrdersByIds_ShouldNotBeShadowedByListOptions() throws Exception {
+        // Given
+        POData po = new POData(1, LocalDateTime.of(2024, 1, 15, 10, 0), "First", 1000L, 800L,
+                List.of(new CreatePODetail(1, 10, 100L, 80L)), "SYSTEM", "SYSTEM", FIXED_DATE, FIXED_DATE, 0L);
+        when(purchaseOrderService.findAllById(List.of(1))).thenReturn(Map.of(1, po));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/purchase-orders").param("ids", "1").param("paging", "cursor"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].description").value("First"));
+
+        verify(purchaseOrderService).findAllById(List.of(1));
+    }
+
     @Test
     @DisplayName("GET /purchase-orders/{id} - Should return 404 when not found")
     void getPurchaseOrderById_ShouldReturn404WhenNotFound() throws Exception {
@@ -157,6 +215,59 @@ class PurchaseOrderControllerTest {
         verify(purchaseOrderService).findById(999);
     }
 
+    @Test
+    @DisplayName("GET /purchase-orders/{id} - Should return 304 without loading details when ETag matches")
+    void getPurchaseOrderById_ShouldReturn304WhenETagMatches() throws Exception {
+        // Given
+        String etag = "\"1-3\"";
+        when(purchaseOrderService.findVersion(1)).thenReturn(Optional.of(3L));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/purchase-orders/1").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag));
+
+        verify(purchaseOrderService, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("GET /purchase-orders/{id} - Should reload when the cached copy is older than a stale ETag's current version")
+    void getPurchaseOrderById_ShouldReloadWhenCachedCopyLags() throws Exception {
+        // Given - the cache still holds version 1 while the database is at version 2
+        List<CreatePODetail> details = List.of(new CreatePODetail(1, 10, 100L, 80L));
+        POData cached = new POData(1, LocalDateTime.of(2024, 1, 15, 10, 0), "Old", 1000L, 800L, details,
+                "SYSTEM", "SYSTEM", FIXED_DATE, FIXED_DATE, 1L);
+        POData current = new POData(1, LocalDateTime.of(2024, 1, 15, 10, 0), "New", 1000L, 800L, details,
+                "SYSTEM", "SYSTEM", FIXED_DATE, FIXED_DATE, 2L);
+        when(purchaseOrderService.findVersion(1)).thenReturn(Optional.of(2L));
+        when(purchaseOrderService.findById(1)).thenReturn(Optional.of(cached));
+        when(purchaseOrderService.findCurrentById(1)).thenReturn(Optional.of(current));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/purchase-orders/1").header("If-None-Match", "\"1-0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-2\""))
+                .andExpect(jsonPath("$.description").value("New"));
+    }
+
+    @Test
+    @DisplayName("GET /purchase-orders/{id} - Should return ETag when found")
+    void getPurchaseOrderById_ShouldReturnETag() throws Exception {
+        // Given
+        String etag = "\"1-3\"";
+        POData poData = new POData(1, LocalDateTime.of(2024, 1, 15, 10, 0), "Test Purchase Order", 1000L, 800L,
+                List.of(new CreatePODetail(1, 10, 100L, 80L)), "SYSTEM", "SYSTEM", FIXED_DATE, FIXED_DATE, 3L);
+        when(purchaseOrderService.findById(1)).thenReturn(Optional.of(poData));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/purchase-orders/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(jsonPath("$.id").value(1));
+
+        verify(purchaseOrderService, never()).findVersion(anyInt());
+    }
+
     @Test
     @DisplayName("POST /purchase-orders - Should create purchase order successfully")
     void createPurchaseOrder_ShouldCreateSuccessfully() throws Exception {
@@ -189,7 +300,8 @@ class PurchaseOrderControllerTest {
                 "SYSTEM",
                 "SYSTEM",
                 FIXED_DATE,
-                FIXED_DATE
+                FIXED_DATE,
+                0L
         );
 
         when(purchaseOrderService.create(any(CreatePOCommand.class))).thenReturn(createdPO);
@@ -211,6 +323,128 @@ class PurchaseOrderControllerTest {
         verify(purchaseOrderService).create(any(CreatePOCommand.class));
     }
 
+    @Test
+    @DisplayName("POST /purchase-orders - Should create through the idempotent path when Idempotency-Key is sent")
+    void createPurchaseOrder_ShouldPassIdempotencyKey() throws Exception {
+        // Given
+        CreatePORequest request = new CreatePORequest(LocalDateTime.of(2024, 1, 15, 10, 0), "Retried", 1000L, 800L,
+                List.of(new PoDetailRequest(1, 10, 100L, 80L)));
+        POData createdPO = new POData(7, LocalDateTime.of(2024, 1, 15, 10, 0), "Retried", 1000L, 800L,
+                List.of(new CreatePODetail(1, 10, 100L, 80L)), "SYSTEM", "SYSTEM", FIXED_DATE, FIXED_DATE, 0L);
+
+        when(purchaseOrderService.create(any(CreatePOCommand.class), eq("retry-1"))).thenReturn(createdPO);
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/purchase-orders")
+                        .header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(7));
+
+        verify(purchaseOrderService, never()).create(any(CreatePOCommand.class));
+    }
+
+    @Test
+    @DisplayName("POST /purchase-orders - Should return 409 when Idempotency-Key was used for another request")
+    void createPurchaseOrder_ShouldReturn409ForReusedIdempotencyKey() throws Exception {
+        // Given
+        CreatePORequest request = new CreatePORequest(LocalDateTime.of(2024, 1, 15, 10, 0), "Different", 1000L, 800L,
+                List.of(new PoDetailRequest(1, 10, 100L, 80L)));
+
+        when(purchaseOrderService.create(any(CreatePOCommand.class), eq("retry-1")))
+                .thenThrow(new DuplicateResourceException("Idempotency-Key was already used for a different request: retry-1"));
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/purchase-orders")
+                        .header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @DisplayName("POST /purchase-orders - Should return 400 for a blank Idempotency-Key")
+    void createPurchaseOrder_ShouldReturn400ForBlankIdempotencyKey() throws Exception {
+        // Given
+        CreatePORequest request = new CreatePORequest(LocalDateTime.of(2024, 1, 15, 10, 0), "Blank key", 1000L, 800L,
+                List.of(new PoDetailRequest(1, 10, 100L, 80L)));
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/purchase-orders")
+                        .header("Idempotency-Key", " ")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(purchaseOrderService);
+    }
+
+    @Test
+    @DisplayName("POST /purchase-orders - Should queue the purchase order and return 202 with Prefer: respond-async")
+    void createPurchaseOrder_ShouldAcceptAsynchronously() throws Exception {
+        // Given
+        CreatePORequest request = new CreatePORequest(LocalDateTime.of(2024, 1, 15, 10, 0), "Queued", 1000L, 800L,
+                List.of(new PoDetailRequest(1, 10, 100L, 80L)));
+        when(purchaseOrderIngestionService.submit(any(CreatePOCommand.class)))
+                .thenReturn(new IngestionTicket("ticket-1", IngestionStatus.PENDING, null, null, FIXED_DATE));
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/purchase-orders")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/v1/purchase-orders/tickets/ticket-1"))
+                .andExpect(jsonPath("$.ticketId").value("ticket-1"))
+                .andExpect(jsonPath("$.status").value("PENDING"));
+
+        verifyNoInteractions(purchaseOrderService);
+    }
+
+    @Test
+    @DisplayName("POST /purchase-orders - Should return 503 with Retry-After when the ingestion queue is full")
+    void createPurchaseOrder_ShouldReturn503WhenQueueFull() throws Exception {
+        // Given
+        CreatePORequest request = new CreatePORequest(LocalDateTime.of(2024, 1, 15, 10, 0), "Queued", 1000L, 800L,
+                List.of(new PoDetailRequest(1, 10, 100L, 80L)));
+        when(purchaseOrderIngestionService.submit(any(CreatePOCommand.class)))
+                .thenThrow(new ServiceUnavailableException("Purchase order ingestion queue is full", Duration.ofSeconds(1)));
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/purchase-orders")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    @DisplayName("GET /purchase-orders/tickets/{ticketId} - Should return the ticket outcome")
+    void getTicket_ShouldReturnOutcome() throws Exception {
+        // Given
+        when(purchaseOrderIngestionService.findTicket("ticket-1"))
+                .thenReturn(Optional.of(new IngestionTicket("ticket-1", IngestionStatus.CREATED, 42, null, FIXED_DATE)));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/purchase-orders/tickets/ticket-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CREATED"))
+                .andExpect(jsonPath("$.purchaseOrderId").value(42));
+    }
+
+    @Test
+    @DisplayName("GET /purchase-orders/tickets/{ticketId} - Should return 404 for an unknown ticket")
+    void getTicket_ShouldReturn404WhenUnknown() throws Exception {
+        // Given
+        when(purchaseOrderIngestionService.findTicket("missing")).thenReturn(Optional.empty());
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/purchase-orders/tickets/missing"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     @DisplayName("POST /purchase-orders - Should return 400 for invalid request")
     void createPurchaseOrder_ShouldReturn400ForInvalidRequest() throws Exception {
@@ -263,10 +497,11 @@ class PurchaseOrderControllerTest {
                 "SYSTEM",
                 "SYSTEM",
                 FIXED_DATE,
-                FIXED_DATE
+                FIXED_DATE,
+                0L
         );
 
-        when(purchaseOrderService.update(eq(1), any(UpdatePOCommand.class))).thenReturn(updatedPO);
+        when(purchaseOrderService.update(eq(1), any(UpdatePOCommand.class), isNull())).thenReturn(updatedPO);
 
         // When & Then
         mockMvc.perform(put("/api/v1/purchase-orders/1")
@@ -280,7 +515,7 @@ class PurchaseOrderControllerTest {
                 .andExpect(jsonPath("$.totalPrice").value(1800))
                 .andExpect(jsonPath("$.totalCost").value(1500));
 
-        verify(purchaseOrderService).update(eq(1), any(UpdatePOCommand.class));
+        verify(purchaseOrderService).update(eq(1), any(UpdatePOCommand.class), isNull());
     }
 
     @Test
@@ -302,7 +537,83 @@ class PurchaseOrderControllerTest {
                 .andDo(print())
                 .andExpect(status().isBadRequest());
 
-        verify(purchaseOrderService, never()).update(eq(1), any());
+        verify(purchaseOrderService, never()).update(eq(1), any(), any());
+    }
+
+    @Test
+    @DisplayName("PUT /purchase-orders/{id} - Should update the version from If-Match and return the new ETag")
+    void updatePurchaseOrder_ShouldHonourIfMatch() throws Exception {
+        // Given
+        UpdatePORequest request = new UpdatePORequest(LocalDateTime.of(2024, 1, 15, 10, 0), "Guarded", 1000L, 800L,
+                List.of(new PoDetailRequest(1, 10, 100L, 80L)));
+        POData updatedPO = new POData(1, LocalDateTime.of(2024, 1, 15, 10, 0), "Guarded", 1000L, 800L,
+                List.of(new CreatePODetail(1, 10, 100L, 80L)), "SYSTEM", "SYSTEM", FIXED_DATE, FIXED_DATE, 4L);
+
+        when(purchaseOrderService.update(eq(1), any(UpdatePOCommand.class), eq(3L))).thenReturn(updatedPO);
+
+        // When & Then
+        mockMvc.perform(put("/api/v1/purchase-orders/1")
+                        .header("If-Match", "\"1-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-4\""));
+    }
+
+    @Test
+    @DisplayName("PUT /purchase-orders/{id} - Should return 412 when If-Match is stale")
+    void updatePurchaseOrder_ShouldReturn412ForStaleIfMatch() throws Exception {
+        // Given
+        UpdatePORequest request = new UpdatePORequest(LocalDateTime.of(2024, 1, 15, 10, 0), "Stale", 1000L, 800L,
+                List.of(new PoDetailRequest(1, 10, 100L, 80L)));
+
+        when(purchaseOrderService.update(eq(1), any(UpdatePOCommand.class), eq(2L)))
+                .thenThrow(new PreconditionFailedException("Purchase Order", 1, 2L, 4L));
+
+        // When & Then
+        mockMvc.perform(put("/api/v1/purchase-orders/1")
+                        .header("If-Match", "\"1-2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    @DisplayName("PATCH /purchase-orders/{id} - Should patch the header and return the new ETag")
+    void patchPurchaseOrder_ShouldPatchHeader() throws Exception {
+        // Given
+        POSummaryData patched = new POSummaryData(1, LocalDateTime.of(2024, 1, 15, 10, 0), "Renamed", 1500L, 1150L, "SYSTEM", 4L);
+        when(purchaseOrderService.patch(eq(1), any(PatchPOCommand.class), eq(3L))).thenReturn(patched);
+
+        // When & Then
+        mockMvc.perform(patch("/api/v1/purchase-orders/1")
+                        .header("If-Match", "\"1-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"description": "Renamed"}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-4\""))
+                .andExpect(jsonPath("$.description").value("Renamed"))
+                .andExpect(jsonPath("$.totalPrice").value(1500))
+                .andExpect(jsonPath("$.details").doesNotExist());
+
+        verify(purchaseOrderService).patch(eq(1),
+                argThat(command -> "Renamed".equals(command.description()) && command.datetime() == null), eq(3L));
+    }
+
+    @Test
+    @DisplayName("PATCH /purchase-orders/{id} - Should return 400 when no field is given")
+    void patchPurchaseOrder_ShouldReturn400WhenEmpty() throws Exception {
+        // Given
+        when(purchaseOrderService.patch(eq(1), any(PatchPOCommand.class), isNull()))
+                .thenThrow(new IllegalArgumentException("At least one of datetime or description must be provided"));
+
+        // When & Then
+        mockMvc.perform(patch("/api/v1/purchase-orders/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -317,6 +628,37 @@ class PurchaseOrderControllerTest {
         verify(purchaseOrderService).deleteById(1);
     }
 
+    @Test
+    @DisplayName("DELETE /purchase-orders?from&to - Should delete purchase orders in the date range")
+    void deletePurchaseOrdersByDatetime_ShouldReturnDeletedIds() throws Exception {
+        // Given
+        when(purchaseOrderService.deleteByDatetimeRange(LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 2, 1, 0, 0)))
+                .thenReturn(List.of(4, 5));
+
+        // When & Then
+        mockMvc.perform(delete("/api/v1/purchase-orders")
+                        .param("from", "2024-01-01T00:00:00")
+                        .param("to", "2024-02-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(2))
+                .andExpect(jsonPath("$.ids[1]").value(5))
+                .andExpect(jsonPath("$.notFound").isEmpty());
+    }
+
+    @Test
+    @DisplayName("DELETE /purchase-orders?from&to - Should return 400 for an inverted range")
+    void deletePurchaseOrdersByDatetime_ShouldRejectInvertedRange() throws Exception {
+        // Given
+        when(purchaseOrderService.deleteByDatetimeRange(any(), any()))
+                .thenThrow(new IllegalArgumentException("from must be before to"));
+
+        // When & Then
+        mockMvc.perform(delete("/api/v1/purchase-orders")
+                        .param("from", "2024-02-01T00:00:00")
+                        .param("to", "2024-01-01T00:00:00"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("POST /purchase-orders - Should handle empty details list")
     void createPurchaseOrder_ShouldHandleEmptyDetails() throws Exception {
@@ -339,7 +681,8 @@ class PurchaseOrderControllerTest {
                 "SYSTEM",
                 "SYSTEM",
                 FIXED_DATE,
-                FIXED_DATE
+                FIXED_DATE,
+                0L
         );
 
         when(purchaseOrderService.create(any(CreatePOCommand.class))).thenReturn(createdPO);
@@ -377,4 +720,308 @@ class PurchaseOrderControllerTest {
                 .andDo(print())
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    @DisplayName("GET /purchase-orders?paging=cursor - Should return first page with next token")
+    void getPurchaseOrdersByCursor_ShouldReturnFirstPageWithNextToken() throws Exception {
+        // Given
+        POData poData = new POData(
+                42,
+                LocalDateTime.of(2024, 1, 15, 10, 0),
+                "Cursor Purchase Order",
+                1000L,
+                800L,
+                List.of(new CreatePODetail(1, 10, 100L, 80L)),
+                "SYSTEM",
+                "SYSTEM",
+                FIXED_DATE,
+                FIXED_DATE,
+                0L
+        );
+        when(purchaseOrderService.findAllAfter(null, 1))
+                .thenReturn(new CursorPage<>(List.of(poData), 42, null));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/purchase-orders")
+                        .param("paging", "cursor")
+                        .param("size", "1"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(42))
+                .andExpect(jsonPath("$.page.size").value(1))
+                .andExpect(jsonPath("$.page.hasNext").value(true))
+                .andExpect(jsonPath("$.page.hasPrevious").value(false))
+                .andExpect(jsonPath("$.page.next").value(CursorToken.next(42).encode()))
+                .andExpect(jsonPath("$.page.prev").doesNotExist());
+
+        verify(purchaseOrderService).findAllAfter(null, 1);
+        verify(purchaseOrderService, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("GET /purchase-orders?paging=cursor - Should seek by the id carried in the token")
+    void getPurchaseOrdersByCursor_ShouldSeekByTokenId() throws Exception {
+        // Given
+        when(purchaseOrderService.findAllAfter(42, 10)).thenReturn(new CursorPage<>(List.of(), null, null));
+        when(purchaseOrderService.findAllBefore(42, 10)).thenReturn(new CursorPage<>(List.of(), null, null));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/purchase-orders")
+                        .param("paging", "cursor")
+                        .param("cursor", CursorToken.next(42).encode()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content").isEmpty());
+        mockMvc.perform(get("/api/v1/purchase-orders")
+                        .param("paging", "cursor")
+                        .param("cursor", CursorToken.prev(42).encode()))
+                .andExpect(status().isOk());
+
+        verify(purchaseOrderService).findAllAfter(42, 10);
+        verify(purchaseOrderService).findAllBefore(42, 10);
+    }
+
+    @Test
+    @DisplayName("GET /purchase-orders?paging=cursor - Should return 400 for malformed cursor")
+    void getPurchaseOrdersByCursor_ShouldReturn400ForMalformedCursor() throws Exception {
+        mockMvc.perform(get("/api/v1/purchase-orders")
+                        .param("paging", "cursor")
+                        .param("cursor", "not-a-cursor"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(purchaseOrderService);
+    }
+
+    @Test
+    @DisplayName("GET /purchase-orders?paging=cursor - Should return 400 for a size out of range")
+    void getPurchaseOrdersByCursor_ShouldReturn400ForSizeOutOfRange() throws Exception {
+        mockMvc.perform(get("/api/v1/purchase-orders")
+                        .param("paging", "cursor")
+                        .param("size", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.validationErrors.size").exists());
+        mockMvc.perform(get("/api/v1/purchase-orders")
+                        .param("paging", "cursor")
+                        .param("size", "101"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.validationErrors.size").exists());
+
+        verifyNoInteractions(purchaseOrderService);
+    }
+
+    @Test
+    @DisplayName("GET /purchase-orders?view=summary - Should return header-only summaries")
+    void getPurchaseOrderSummaries_ShouldReturnHeadersWithoutDetails() throws Exception {
+        // Given
+        POSummaryData summary = new POSummaryData(
+                1,
+                LocalDateTime.of(2024, 1, 15, 10, 0),
+                "Summary Purchase Order",
+                1500L,
+                1150L,
+                "SYSTEM",
+                0L
+        );
+        when(purchaseOrderService.findAllSummaries(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(summary)));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/purchase-orders")
+                        .param("view", "summary"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1))
+                .andExpect(jsonPath("$.content[0].datetime").value("2024-01-15T10:00:00"))
+                .andExpect(jsonPath("$.content[0].totalPrice").value(1500))
+                .andExpect(jsonPath("$.content[0].createdBy").value("SYSTEM"))
+                .andExpect(jsonPath("$.content[0].details").doesNotExist());
+
+        verify(purchaseOrderService).findAllSummaries(any(Pageable.class));
+        verify(purchaseOrderService, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("GET /purchase-orders?view=summary&paging=cursor - Should seek summaries by cursor")
+    void getPurchaseOrderSummariesByCursor_ShouldSeekSummaries() throws Exception {
+        // Given
+        when(purchaseOrderService.findSummariesAfter(7, 5)).thenReturn(new CursorPage<>(List.of(), null, null));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/purchase-orders")
+                        .param("view", "summary")
+                        .param("paging", "cursor")
+                        .param("cursor", CursorToken.next(7).encode())
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content").isEmpty())
+                .andExpect(jsonPath("$.page.hasNext").value(false));
+
+        verify(purchaseOrderService).findSummariesAfter(7, 5);
+        verify(purchaseOrderService, never()).findAllAfter(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("GET /purchase-orders?count=exact - Should wrap exact page in paged response")
+    void getPurchaseOrdersWithCountMode_ShouldFlagExactTotal() throws Exception {
+        // Given
+        when(purchaseOrderService.findAll(any(Pageable.class), eq(CountMode.EXACT)))
+                .thenReturn(new PageImpl<>(List.of(), PageRequest.of(0, 10), 0));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/purchase-orders")
+                        .param("count", "exact"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.page.totalElements").value(0))
+                .andExpect(jsonPath("$.page.totalExact").value(true));
+    }
+
+    @Test
+    @DisplayName("GET /purchase-orders?view=summary&count=none - Should list summaries without count")
+    void getPurchaseOrderSummariesWithCountMode_ShouldSkipTotal() throws Exception {
+        // Given
+        POSummaryData summary = new POSummaryData(1, LocalDateTime.of(2024, 1, 15, 10, 0), "PO", 10L, 8L, "SYSTEM", 0L);
+        when(purchaseOrderService.findAllSummaries(any(Pageable.class), eq(CountMode.NONE)))
+                .thenReturn(new SliceImpl<>(List.of(summary), PageRequest.of(0, 1), false));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/purchase-orders")
+                        .param("view", "summary")
+                        .param("count", "none")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1))
+                .andExpect(jsonPath("$.page.hasNext").value(false))
+                .andExpect(jsonPath("$.page.totalExact").value(false));
+
+        verify(purchaseOrderService, never()).findAll(any(Pageable.class), any());
+    }
+
+    @Test
+    @DisplayName("GET /purchase-orders/search - Should pass every filter to the service")
+    void searchPurchaseOrders_ShouldPassFilters() throws Exception {
+        // Given
+        POData poData = new POData(1, LocalDateTime.of(2024, 1, 15, 10, 0), "Test Purchase Order", 1000L, 800L,
+                List.of(), "alice", "alice", FIXED_DATE, FIXED_DATE, 0L);
+        POSearchCriteria criteria = POSearchCriteria.builder()
+                .dateFrom(LocalDate.of(2024, 1, 1))
+                .dateTo(LocalDate.of(2024, 1, 31))
+                .createdBy("alice")
+                .minTotalPrice(500L)
+                .maxTotalPrice(5000L)
+                .build();
+        when(purchaseOrderService.search(eq(criteria), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(poData), PageRequest.of(0, 10), 1));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/purchase-orders/search")
+                        .param("dateFrom", "2024-01-01")
+                        .param("dateTo", "2024-01-31")
+                        .param("createdBy", "alice")
+                        .param("minTotalPrice", "500")
+                        .param("maxTotalPrice", "5000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1))
+                .andExpect(jsonPath("$.page.totalElements").value(1));
+
+        verify(purchaseOrderService).search(eq(criteria), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("GET /purchase-orders/search - Should return 400 for an invalid date")
+    void searchPurchaseOrders_ShouldRejectInvalidDate() throws Exception {
+        mockMvc.perform(get("/api/v1/purchase-orders/search")
+                        .param("dateFrom", "01-01-2024"))
+                .andExpect(status().isBadRequest());
+
+        verify(purchaseOrderService, never()).search(any(), any());
+    }
+
+    @Test
+    @DisplayName("GET /purchase-orders/search - Should return 400 for an inverted range")
+    void searchPurchaseOrders_ShouldRejectInvertedRange() throws Exception {
+        // Given
+        when(purchaseOrderService.search(any(POSearchCriteria.class), any(Pageable.class)))
+                .thenThrow(new IllegalArgumentException("minTotalPrice must not be greater than maxTotalPrice"));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/purchase-orders/search")
+                        .param("minTotalPrice", "5000")
+                        .param("maxTotalPrice", "500"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /purchase-orders?fields= - Should read summaries when only header fields are requested")
+    void getPurchaseOrders_ShouldUseSummariesForHeaderFields() throws Exception {
+        // Given
+        POSummaryData summary = new POSummaryData(1, LocalDateTime.of(2024, 1, 15, 10, 0), "PO", 10L, 8L, "SYSTEM", 0L);
+        when(purchaseOrderService.findAllSummaries(any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(summary), PageRequest.of(0, 10), 1));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/purchase-orders")
+                        .param("fields", "id,totalPrice"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1))
+                .andExpect(jsonPath("$.content[0].totalPrice").value(10))
+                .andExpect(jsonPath("$.content[0].description").doesNotExist())
+                .andExpect(jsonPath("$.content[0].details").doesNotExist())
+                .andExpect(jsonPath("$.totalElements").value(1));
+
+        verify(purchaseOrderService, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("GET /purchase-orders?fields= - Should load details when they are requested")
+    void getPurchaseOrders_ShouldLoadDetailsWhenRequested() throws Exception {
+        // Given
+        POData poData = new POData(1, LocalDateTime.of(2024, 1, 15, 10, 0), "PO", 100L, 80L,
+                List.of(new CreatePODetail(1, 1, 100L, 80L)), "SYSTEM", "SYSTEM", FIXED_DATE, FIXED_DATE, 0L);
+        when(purchaseOrderService.findAll(any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(poData), PageRequest.of(0, 10), 1));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/purchase-orders")
+                        .param("fields", "id,details"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1))
+                .andExpect(jsonPath("$.content[0].details[0].id").value(1))
+                .andExpect(jsonPath("$.content[0].createdDatetime").doesNotExist());
+
+        verify(purchaseOrderService, never()).findAllSummaries(any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("GET /purchase-orders/export - Should stream one JSON document per purchase order")
+    void exportPurchaseOrders_ShouldStreamNdjson() throws Exception {
+        // Given
+        POData first = new POData(1, LocalDateTime.of(2024, 1, 15, 10, 0), "First", 100L, 80L,
+                List.of(new CreatePODetail(1, 1, 100L, 80L)), "SYSTEM", "SYSTEM", FIXED_DATE, FIXED_DATE, 0L);
+        POData second = new POData(2, LocalDateTime.of(2024, 1, 16, 10, 0), "Second", 200L, 160L,
+                List.of(new CreatePODetail(2, 1, 200L, 160L)), "SYSTEM", "SYSTEM", FIXED_DATE, FIXED_DATE, 0L);
+        when(purchaseOrderService.exportAll(any())).thenAnswer(invocation -> {
+            Consumer<POData> consumer = invocation.getArgument(0);
+            consumer.accept(first);
+            consumer.accept(second);
+            return 2L;
+        });
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/v1/purchase-orders/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String[] lines = body.split("\n");
+        Assertions.assertEquals(2, lines.length);
+        Assertions.assertEquals(1, objectMapper.readTree(lines[0]).get("id").asInt());
+        Assertions.assertEquals("Second", objectMapper.readTree(lines[1]).get("description").asText());
+        Assertions.assertEquals(1, objectMapper.readTree(lines[1]).get("details").size());
+    }
 }
\ No newline at end of file
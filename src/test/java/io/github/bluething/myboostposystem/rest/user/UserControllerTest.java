@@ -1,6 +1,7 @@
 package io.github.bluething.myboostposystem.rest.user;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.bluething.myboostposystem.common.CountMode;
 import io.github.bluething.myboostposystem.domain.user.CreateUserCommand;
 import io.github.bluething.myboostposystem.domain.user.UpdateUserCommand;
 import io.github.bluething.myboostposystem.domain.user.UserData;
@@ -14,6 +15,8 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
@@ -23,6 +26,7 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.*;
@@ -98,6 +102,59 @@ class UserControllerTest {
 
             verify(userService).getAllUsers(any(Pageable.class));
         }
+
+        @Test
+        @DisplayName("Should return slice without total when count=none")
+        void shouldReturnSliceWithoutTotalWhenCountNone() throws Exception {
+            // Given
+            Slice<UserData> userSlice = new SliceImpl<>(createSampleUserDataList(), PageRequest.of(0, 2), true);
+            when(userService.getAllUsers(any(Pageable.class), eq(CountMode.NONE))).thenReturn(userSlice);
+
+            // When & Then
+            mockMvc.perform(get(BASE_URL)
+                            .param("size", "2")
+                            .param("count", "none"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content.length()").value(2))
+                    .andExpect(jsonPath("$.page.hasNext").value(true))
+                    .andExpect(jsonPath("$.page.totalElements").doesNotExist())
+                    .andExpect(jsonPath("$.page.totalExact").value(false));
+
+            verify(userService, never()).getAllUsers(any(Pageable.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/v1/users?ids= - Get Users By IDs")
+    class GetUsersByIdsTests {
+
+        @Test
+        @DisplayName("Should return users in requested order and report missing ids")
+        void shouldReturnUsersInRequestedOrder() throws Exception {
+            // Given
+            List<UserData> users = createSampleUserDataList();
+            when(userService.getUsersById(List.of(2, 9, 1))).thenReturn(Map.of(1, users.get(0), 2, users.get(1)));
+
+            // When & Then
+            mockMvc.perform(get(BASE_URL).param("ids", "2,9,1"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content.length()").value(2))
+                    .andExpect(jsonPath("$.content[0].id").value(2))
+                    .andExpect(jsonPath("$.content[1].id").value(1))
+                    .andExpect(jsonPath("$.notFound").value(9));
+
+            verify(userService, never()).getUserById(anyInt());
+        }
+
+        @Test
+        @DisplayName("Should return bad request for invalid ID format")
+        void shouldReturnBadRequestForInvalidIdFormat() throws Exception {
+            // When & Then
+            mockMvc.perform(get(BASE_URL).param("ids", "1,abc"))
+                    .andExpect(status().isBadRequest());
+
+            verify(userService, never()).getUsersById(any());
+        }
     }
 
     @Nested
@@ -148,6 +205,65 @@ class UserControllerTest {
 
             verify(userService, never()).getUserById(anyInt());
         }
+
+        @Test
+        @DisplayName("Should return only requested fields")
+        void shouldReturnOnlyRequestedFields() throws Exception {
+            // Given
+            when(userService.getUserById(1)).thenReturn(Optional.of(createSampleUserData(1)));
+
+            // When & Then
+            mockMvc.perform(get(BASE_URL + "/1").param("fields", "id,email"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id").value(1))
+                    .andExpect(jsonPath("$.email").value("john.doe@example.com"))
+                    .andExpect(jsonPath("$.firstName").doesNotExist())
+                    .andExpect(jsonPath("$.updatedDatetime").doesNotExist());
+        }
+
+        @Test
+        @DisplayName("Should return 304 without loading the user when ETag matches")
+        void shouldReturnNotModifiedWhenETagMatches() throws Exception {
+            // Given
+            String etag = "\"1-2\"";
+            when(userService.getUserVersion(1)).thenReturn(Optional.of(2L));
+
+            // When & Then
+            mockMvc.perform(get(BASE_URL + "/1").header("If-None-Match", etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string("ETag", etag));
+
+            verify(userService, never()).getUserById(anyInt());
+        }
+
+        @Test
+        @DisplayName("Should return ETag derived from the version when user found")
+        void shouldReturnETagWhenUserFound() throws Exception {
+            // Given
+            String etag = "\"1-0\"";
+            when(userService.getUserVersion(1)).thenReturn(Optional.of(0L));
+            when(userService.getUserById(1)).thenReturn(Optional.of(createSampleUserData(1)));
+
+            // When & Then
+            mockMvc.perform(get(BASE_URL + "/1").header("If-None-Match", "\"1-7\""))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", etag))
+                    .andExpect(jsonPath("$.id").value(1));
+        }
+
+        @Test
+        @DisplayName("Should take the ETag from the loaded user without a version query when no If-None-Match")
+        void shouldNotQueryVersionWithoutIfNoneMatch() throws Exception {
+            // Given
+            when(userService.getUserById(1)).thenReturn(Optional.of(createSampleUserData(1)));
+
+            // When & Then
+            mockMvc.perform(get(BASE_URL + "/1"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", "\"1-0\""));
+
+            verify(userService, never()).getUserVersion(anyInt());
+        }
     }
 
     @Nested
@@ -238,7 +354,7 @@ class UserControllerTest {
                     .updatedDatetime(FIXED_DATE.plus(Duration.ofHours(1)))
                     .build();
 
-            when(userService.updateUser(eq(1), any(UpdateUserCommand.class)))
+            when(userService.updateUser(eq(1), any(UpdateUserCommand.class), isNull()))
                     .thenReturn(Optional.of(updatedUser));
 
             // When & Then
@@ -253,7 +369,7 @@ class UserControllerTest {
                     .andExpect(jsonPath("$.email").value("jane.smith@example.com"))
                     .andExpect(jsonPath("$.phone").value("0987654321"));
 
-            verify(userService).updateUser(eq(1), any(UpdateUserCommand.class));
+            verify(userService).updateUser(eq(1), any(UpdateUserCommand.class), isNull());
         }
 
         @Test
@@ -263,7 +379,7 @@ class UserControllerTest {
             UpdateUserRequest request = new UpdateUserRequest(
                     "Jane", "Smith", "jane.smith@example.com", "0987654321"
             );
-            when(userService.updateUser(eq(999), any(UpdateUserCommand.class)))
+            when(userService.updateUser(eq(999), any(UpdateUserCommand.class), isNull()))
                     .thenReturn(Optional.empty());
 
             // When & Then
@@ -272,7 +388,7 @@ class UserControllerTest {
                             .content(objectMapper.writeValueAsString(request)))
                     .andExpect(status().isNotFound());
 
-            verify(userService).updateUser(eq(999), any(UpdateUserCommand.class));
+            verify(userService).updateUser(eq(999), any(UpdateUserCommand.class), isNull());
         }
 
         @Test
@@ -289,7 +405,25 @@ class UserControllerTest {
                             .content(objectMapper.writeValueAsString(invalidRequest)))
                     .andExpect(status().isBadRequest());
 
-            verify(userService, never()).updateUser(anyInt(), any(UpdateUserCommand.class));
+            verify(userService, never()).updateUser(anyInt(), any(UpdateUserCommand.class), any());
+        }
+
+        @Test
+        @DisplayName("Should return precondition failed when If-Match belongs to another user")
+        void shouldReturnPreconditionFailedWhenIfMatchDoesNotMatch() throws Exception {
+            // Given
+            UpdateUserRequest request = new UpdateUserRequest(
+                    "Jane", "Smith", "jane.smith@example.com", "0987654321"
+            );
+
+            // When & Then
+            mockMvc.perform(put(BASE_URL + "/1")
+                            .header("If-Match", "\"2-0\"")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isPreconditionFailed());
+
+            verify(userService, never()).updateUser(anyInt(), any(UpdateUserCommand.class), any());
         }
     }
 
@@ -346,6 +480,7 @@ class UserControllerTest {
                 .updatedBy("SYSTEM")
                 .createdDatetime(FIXED_DATE)
                 .updatedDatetime(FIXED_DATE)
+                .version(0L)
                 .build();
     }
 
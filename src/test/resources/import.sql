@@ -0,0 +1,5 @@
+-- Run by Hibernate after create-drop, mirrors the Liquibase objects that are not mapped on the entities (po-changelog-1.5.0.sql)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+ALTER TABLE items ADD COLUMN search_vector TSVECTOR GENERATED ALWAYS AS (setweight(to_tsvector('simple', coalesce(name, '')), 'A') || setweight(to_tsvector('simple', coalesce(description, '')), 'B')) STORED;
+CREATE INDEX idx_items_search_vector ON items USING GIN (search_vector);
+CREATE INDEX idx_items_name_trgm ON items USING GIN (name gin_trgm_ops);